@@ -19,7 +19,10 @@ import minicp.engine.constraints.*;
 import minicp.engine.core.*;
 import minicp.search.DFSearch;
 import minicp.search.Objective;
+import minicp.state.ArenaTrailer;
 import minicp.state.Copier;
+import minicp.state.IncrementalCopier;
+import minicp.state.StateManager;
 import minicp.state.Trailer;
 import minicp.util.exception.InconsistencyException;
 import minicp.util.Procedure;
@@ -55,6 +58,18 @@ import java.util.stream.IntStream;
  */
 public final class Factory {
 
+    /**
+     * Domain size above which {@link #makeIntVar(Solver, int, int)}
+     * creates a variable with a {@link LazySparseSetDomain}.
+     */
+    public static final int LAZY_DOMAIN_SIZE = 1024;
+
+    /**
+     * Domain size up to which {@link #makeIntVar(Solver, int, int)}
+     * creates a variable with a {@link BitSetDomain}.
+     */
+    public static final int BITSET_DOMAIN_SIZE = 128;
+
     private Factory() {
         throw new UnsupportedOperationException();
     }
@@ -77,6 +92,18 @@ public final class Factory {
         return new MiniCP(byCopy ? new Copier() : new Trailer());
     }
 
+    /**
+     * Creates a constraint programming solver
+     * @param sm the state manager in charge of the global state of the solver,
+     *           for instance a {@link Trailer}, a {@link Copier},
+     *           an {@link IncrementalCopier} or an {@link ArenaTrailer}
+     *           for very large models
+     * @return a constraint programming solver
+     */
+    public static Solver makeSolver(StateManager sm) {
+        return new MiniCP(sm);
+    }
+
     /**
      * Creates a variable with a domain of specified arity.
      *
@@ -85,7 +112,7 @@ public final class Factory {
      * @return a variable with domain equal to the set {0,...,sz-1}
      */
     public static IntVar makeIntVar(Solver cp, int sz) {
-        return new IntVarImpl(cp, sz);
+        return makeIntVar(cp, 0, sz - 1);
     }
 
     /**
@@ -95,9 +122,18 @@ public final class Factory {
      * @param min the lower bound of the domain (included)
      * @param max the upper bound of the domain (included) {@code max > min}
      * @return a variable with domain equal to the set {min,...,max}
+     *         whose domain is a {@link BitSetDomain} if it has
+     *         at most {@link #BITSET_DOMAIN_SIZE} values,
+     *         a {@link LazySparseSetDomain} if it has
+     *         more than {@link #LAZY_DOMAIN_SIZE} values,
+     *         a {@link SparseSetDomain} otherwise
      */
     public static IntVar makeIntVar(Solver cp, int min, int max) {
-        return new IntVarImpl(cp, min, max);
+        if (min <= max && (long) max - min + 1 > LAZY_DOMAIN_SIZE)
+            return register(cp, new IntVarImpl(cp, new LazySparseSetDomain(cp.getStateManager(), min, max)));
+        if (min <= max && max - min + 1 <= BITSET_DOMAIN_SIZE)
+            return register(cp, new IntVarImpl(cp, new BitSetDomain(cp.getStateManager(), min, max)));
+        return register(cp, new IntVarImpl(cp, min, max));
     }
 
     /**
@@ -108,17 +144,24 @@ public final class Factory {
      * @return a variable with domain equal to the set of values
      */
     public static IntVar makeIntVar(Solver cp, Set<Integer> values) {
-        return new IntVarImpl(cp, values);
+        return register(cp, new IntVarImpl(cp, values));
     }
 
     /**
      * Creates a boolean variable.
      *
      * @param cp the solver in which the variable is created
-     * @return an uninstantiated boolean variable
+     * @return an uninstantiated boolean variable,
+     *         implemented by a {@link BoolVarLight}
      */
     public static BoolVar makeBoolVar(Solver cp) {
-        return new BoolVarImpl(cp);
+        return register(cp, new BoolVarLight(cp));
+    }
+
+    // makes the variable observable by the profiler of the solver
+    private static <T extends IntVar> T register(Solver cp, T x) {
+        if (cp instanceof MiniCP) ((MiniCP) cp).registerVar(x);
+        return x;
     }
 
     /**
@@ -208,15 +251,11 @@ public final class Factory {
      * @param x a variable
      * @param a a constant to multiply x with
      * @return a variable that is a view of {@code x*a}
+     * @see #affine(IntVar, int, int)
      */
     public static IntVar mul(IntVar x, int a) {
         if (a == 0) return makeIntVar(x.getSolver(), 0, 0);
-        else if (a == 1) return x;
-        else if (a < 0) {
-            return minus(new IntVarViewMul(x, -a));
-        } else {
-            return new IntVarViewMul(x, a);
-        }
+        else return affine(x, a, 0);
     }
 
     /**
@@ -224,9 +263,10 @@ public final class Factory {
      *
      * @param x a variable
      * @return a variable that is a view of {@code -x}
+     * @see #affine(IntVar, int, int)
      */
     public static IntVar minus(IntVar x) {
-        return new IntVarViewOpposite(x);
+        return affine(x, -1, 0);
     }
 
     /**
@@ -235,9 +275,10 @@ public final class Factory {
      * @param x a variable
      * @param v a value
      * @return a variable that is a view of {@code x+v}
+     * @see #affine(IntVar, int, int)
      */
     public static IntVar plus(IntVar x, int v) {
-        return v == 0 ? x : new IntVarViewOffset(x, v);
+        return affine(x, 1, v);
     }
 
     /**
@@ -246,11 +287,38 @@ public final class Factory {
      * @param x a variable
      * @param v a value
      * @return a variable that is a view of {@code x-v}
+     * @see #affine(IntVar, int, int)
      */
     public static IntVar minus(IntVar x, int v) {
-        return v == 0 ? x: new IntVarViewOffset(x, -v);
+        return affine(x, 1, -v);
     }
 
+    /**
+     * A variable that is a view of {@code a*x+b}.
+     * If x is itself an affine view {@code c*y+d}, the returned view
+     * is directly defined on y as {@code (a*c)*y+(a*d+b)},
+     * so that nested views never stack up.
+     *
+     * @param x a variable
+     * @param a a non zero coefficient
+     * @param b an offset
+     * @return x if {@code a == 1} and {@code b == 0},
+     *         a {@link IntVarViewAffine} otherwise
+     */
+    public static IntVar affine(IntVar x, int a, int b) {
+        if (x instanceof IntVarViewAffine) {
+            IntVarViewAffine v = (IntVarViewAffine) x;
+            long na = (long) a * v.coefficient();
+            long nb = (long) a * v.offset() + b;
+            if (na == (int) na && nb == (int) nb) {
+                x = v.variable();
+                a = (int) na;
+                b = (int) nb;
+            }
+        }
+        if (a == 1 && b == 0) return x;
+        return new IntVarViewAffine(x, a, b);
+    }
 
     /**
      *  A boolean variable that is a view of {@code !b}.
@@ -0,0 +1,418 @@
+/*
+ * mini-cp is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License  v3
+ * as published by the Free Software Foundation.
+ *
+ * mini-cp is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY.
+ * See the GNU Lesser General Public License  for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with mini-cp. If not, see http://www.gnu.org/licenses/lgpl-3.0.en.html
+ *
+ * Copyright (c)  2018. by Laurent Michel, Pierre Schaus, Pascal Van Hentenryck
+ */
+
+package minicp.cp;
+
+import minicp.engine.constraints.AllDifferentFWC;
+import minicp.engine.constraints.Equal;
+import minicp.engine.constraints.NotEqual;
+import minicp.engine.constraints.Sum;
+import minicp.engine.core.Constraint;
+import minicp.engine.core.IntVar;
+import minicp.engine.core.Solver;
+import minicp.util.exception.InconsistencyException;
+import minicp.util.exception.IntOverFlowException;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Opt-in presolve of a model.
+ * <p>
+ * Instead of being posted to the solver, the constraints of the model
+ * are added to the presolver and are posted by {@link #post()}
+ * once the whole model is known:
+ * <ul>
+ *     <li>the constraints that are not recognized are posted first, as is;</li>
+ *     <li>the variables connected by {@link Equal} constraints are merged:
+ *     a representative is chosen for each class, the other variables
+ *     are linked to it by a single {@link Equal} each
+ *     (or fixed if a variable of the class is fixed),
+ *     and the representative replaces them in the {@link Sum} and
+ *     {@link NotEqual} constraints; the constraints that are not recognized
+ *     keep the original variables;</li>
+ *     <li>the fixed variables of the {@link Sum} constraints are replaced
+ *     by their value, a sum with one free variable fixes it
+ *     and a sum without free variable is checked;</li>
+ *     <li>the {@link NotEqual} constraints with a fixed variable become
+ *     value removals, the duplicated and entailed ones are dropped and
+ *     the cliques of at least three variables {@code x_i + c_i} that are
+ *     pairwise different are replaced by an allDifferent constraint,
+ *     ({@link AllDifferentFWC} by default).</li>
+ * </ul>
+ * The variables given by the user keep their meaning
+ * since every merged variable stays equal to its representative.
+ * <pre>
+ * {@code
+ * Presolver presolver = new Presolver(cp);
+ * for (int i = 0; i < n; i++)
+ *   for (int j = i + 1; j < n; j++)
+ *     presolver.add(notEqual(q[i], q[j]));
+ * Presolver.Report report = presolver.post(); // one allDifferent(q)
+ * }
+ * </pre>
+ */
+public class Presolver {
+
+    /**
+     * What the presolve did
+     */
+    public static class Report {
+        private int nAdded = 0;
+        private int nPosted = 0;
+        private int nDropped = 0;
+        private int nMerged = 0;
+        private int nFixedTerms = 0;
+        private int nValueRemovals = 0;
+        private int nNotEqualsInCliques = 0;
+        private final List<Integer> cliques = new ArrayList<>();
+
+        @Override
+        public String toString() {
+            return "\n\t#constraints added: " + nAdded
+                    + "\n\t#constraints posted: " + nPosted
+                    + "\n\t#constraints dropped: " + nDropped
+                    + "\n\t#merged variables: " + nMerged
+                    + "\n\t#fixed terms substituted: " + nFixedTerms
+                    + "\n\t#notEqual turned into removals: " + nValueRemovals
+                    + "\n\t#notEqual in cliques: " + nNotEqualsInCliques
+                    + "\n\tclique sizes: " + cliques + "\n";
+        }
+
+        /**
+         * @return the number of constraints given to {@link #add(Constraint)}
+         */
+        public int numberOfAddedConstraints() {
+            return nAdded;
+        }
+
+        /**
+         * @return the number of constraints posted to the solver
+         */
+        public int numberOfPostedConstraints() {
+            return nPosted;
+        }
+
+        /**
+         * @return the number of added constraints that were found
+         *         redundant, entailed or fully enforced by domain changes
+         */
+        public int numberOfDroppedConstraints() {
+            return nDropped;
+        }
+
+        /**
+         * @return the number of variables replaced by the representative
+         *         of their equality class
+         */
+        public int numberOfMergedVariables() {
+            return nMerged;
+        }
+
+        /**
+         * @return the number of fixed terms removed from the sums
+         */
+        public int numberOfFixedTerms() {
+            return nFixedTerms;
+        }
+
+        /**
+         * @return the number of notEqual constraints with a fixed variable
+         *         replaced by the removal of a value
+         */
+        public int numberOfValueRemovals() {
+            return nValueRemovals;
+        }
+
+        /**
+         * @return the number of notEqual constraints
+         *         replaced by allDifferent constraints
+         */
+        public int numberOfNotEqualsInCliques() {
+            return nNotEqualsInCliques;
+        }
+
+        /**
+         * @return the sizes of the cliques replaced by allDifferent constraints
+         */
+        public List<Integer> cliqueSizes() {
+            return cliques;
+        }
+    }
+
+    private final Solver cp;
+    private final Function<IntVar[], Constraint> allDifferent;
+    private final List<Constraint> constraints = new ArrayList<>();
+    private final Report report = new Report();
+
+    // union-find of the variables of the equalities
+    private final Map<IntVar, IntVar> parent = new IdentityHashMap<>();
+
+    /**
+     * Creates a presolver replacing the cliques of
+     * notEqual constraints by {@link AllDifferentFWC}.
+     *
+     * @param cp the solver in which the constraints are eventually posted
+     */
+    public Presolver(Solver cp) {
+        this(cp, AllDifferentFWC::new);
+    }
+
+    /**
+     * Creates a presolver.
+     *
+     * @param cp the solver in which the constraints are eventually posted
+     * @param allDifferent the allDifferent constraint replacing
+     *                     a clique of notEqual constraints
+     */
+    public Presolver(Solver cp, Function<IntVar[], Constraint> allDifferent) {
+        this.cp = cp;
+        this.allDifferent = allDifferent;
+    }
+
+    /**
+     * Adds a constraint of the model.
+     * It is posted by {@link #post()}, possibly after being rewritten.
+     *
+     * @param c the constraint to add
+     */
+    public void add(Constraint c) {
+        constraints.add(c);
+        report.nAdded++;
+    }
+
+    /**
+     * Presolves the constraints added and posts the result,
+     * followed by a fix-point.
+     *
+     * @return the report of the presolve
+     * @throws InconsistencyException if the model is proven infeasible
+     */
+    public Report post() {
+        List<Equal> equals = new ArrayList<>();
+        List<Sum> sums = new ArrayList<>();
+        List<NotEqual> notEquals = new ArrayList<>();
+        for (Constraint c : constraints) {
+            if (c instanceof Equal) equals.add((Equal) c);
+            else if (c instanceof Sum) sums.add((Sum) c);
+            else if (c instanceof NotEqual) notEquals.add((NotEqual) c);
+            else post(c);
+        }
+        constraints.clear();
+        cp.fixPoint();
+        postEquals(equals);
+        cp.fixPoint();
+        postSums(sums);
+        cp.fixPoint();
+        postNotEquals(notEquals);
+        cp.fixPoint();
+        return report;
+    }
+
+    private void post(Constraint c) {
+        cp.post(c, false);
+        report.nPosted++;
+    }
+
+    private IntVar find(IntVar x) {
+        IntVar p = parent.get(x);
+        if (p == null || p == x) return x;
+        IntVar r = find(p);
+        if (r != p) parent.put(x, r);
+        return r;
+    }
+
+    private void postEquals(List<Equal> equals) {
+        List<IntVar> vars = new ArrayList<>();
+        for (Equal e : equals) {
+            for (IntVar v : new IntVar[]{e.left(), e.right()})
+                if (!parent.containsKey(v)) {
+                    parent.put(v, v);
+                    vars.add(v);
+                }
+            IntVar rl = find(e.left());
+            IntVar rr = find(e.right());
+            if (rl != rr) parent.put(rr, rl);
+        }
+        Map<IntVar, List<IntVar>> classes = new IdentityHashMap<>();
+        for (IntVar v : vars)
+            classes.computeIfAbsent(find(v), k -> new ArrayList<>()).add(v);
+        int nPosted = 0;
+        for (Map.Entry<IntVar, List<IntVar>> cl : classes.entrySet()) {
+            IntVar rep = cl.getKey();
+            List<IntVar> members = cl.getValue();
+            report.nMerged += members.size() - 1;
+            IntVar fixed = null;
+            for (IntVar v : members)
+                if (v.isFixed()) fixed = v;
+            for (IntVar v : members) {
+                if (fixed != null) {
+                    v.fix(fixed.min());
+                } else if (v != rep) {
+                    post(new Equal(v, rep));
+                    nPosted++;
+                }
+            }
+        }
+        report.nDropped += equals.size() - nPosted;
+    }
+
+    private void postSums(List<Sum> sums) {
+        for (Sum s : sums) {
+            long c = 0;
+            List<IntVar> free = new ArrayList<>();
+            for (IntVar t : s.terms()) {
+                if (t.isFixed()) {
+                    c += t.min();
+                    report.nFixedTerms++;
+                } else free.add(find(t));
+            }
+            if (c != (int) c)
+                throw new IntOverFlowException("the sum of the fixed terms overflows an int");
+            if (free.isEmpty()) {
+                if (c != 0) throw InconsistencyException.INCONSISTENCY;
+                report.nDropped++;
+            } else if (free.size() == 1) {
+                free.get(0).fix((int) -c);
+                report.nDropped++;
+            } else {
+                IntVar[] x = free.toArray(new IntVar[0]);
+                post(c == 0 ? new Sum(x) : new Sum(x, (int) -c));
+            }
+        }
+    }
+
+    private void postNotEquals(List<NotEqual> notEquals) {
+        // the remaining edges a - b != d with id(a) < id(b)
+        Map<IntVar, Integer> ids = new IdentityHashMap<>();
+        List<IntVar> vertices = new ArrayList<>();
+        Map<Long, Set<Integer>> edges = new HashMap<>();
+        List<List<Integer>> adjacency = new ArrayList<>();
+        for (NotEqual ne : notEquals) {
+            IntVar x = find(ne.left());
+            IntVar y = find(ne.right());
+            int v = ne.offset();
+            if (x == y) {
+                if (v == 0) throw InconsistencyException.INCONSISTENCY;
+                report.nDropped++; // x != x + v always holds
+            } else if (x.isFixed() || y.isFixed()) {
+                if (y.isFixed()) x.remove(y.min() + v);
+                else y.remove(x.min() - v);
+                report.nValueRemovals++;
+                report.nDropped++;
+            } else if (x.max() < y.min() + v || x.min() > y.max() + v) {
+                report.nDropped++; // entailed
+            } else {
+                for (IntVar z : new IntVar[]{x, y})
+                    if (!ids.containsKey(z)) {
+                        ids.put(z, vertices.size());
+                        vertices.add(z);
+                        adjacency.add(new ArrayList<>());
+                    }
+                int a = ids.get(x);
+                int b = ids.get(y);
+                int d = v;
+                if (a > b) {
+                    int tmp = a;
+                    a = b;
+                    b = tmp;
+                    d = -v;
+                }
+                Set<Integer> offsets = edges.computeIfAbsent(key(a, b), k -> new HashSet<>());
+                if (offsets.isEmpty()) {
+                    adjacency.get(a).add(b);
+                    adjacency.get(b).add(a);
+                }
+                if (!offsets.add(d))
+                    report.nDropped++; // duplicate
+            }
+        }
+        // greedy clique cover: grow a clique from each remaining edge
+        int n = vertices.size();
+        for (int a = 0; a < n; a++) {
+            for (int b : new ArrayList<>(adjacency.get(a))) {
+                if (b < a) continue;
+                Set<Integer> offsets = edges.get(key(a, b));
+                while (offsets != null && !offsets.isEmpty()) {
+                    int d = offsets.iterator().next();
+                    // labels c such that the members x_i + c_i are pairwise different
+                    Map<Integer, Integer> clique = new HashMap<>();
+                    List<Integer> members = new ArrayList<>();
+                    clique.put(a, 0);
+                    members.add(a);
+                    clique.put(b, d); // a - b != d  <=>  a + 0 != b + d
+                    members.add(b);
+                    for (int u : adjacency.get(a)) {
+                        if (clique.containsKey(u)) continue;
+                        for (int w : edges.get(key(Math.min(a, u), Math.max(a, u)))) {
+                            int cu = u > a ? w : -w;
+                            if (adjacentToAll(members, clique, u, cu, edges)) {
+                                clique.put(u, cu);
+                                members.add(u);
+                                break;
+                            }
+                        }
+                    }
+                    if (members.size() < 3) {
+                        offsets.remove(d);
+                        post(new NotEqual(vertices.get(a), vertices.get(b), d));
+                        continue;
+                    }
+                    IntVar[] x = new IntVar[members.size()];
+                    for (int i = 0; i < x.length; i++) {
+                        int m = members.get(i);
+                        int c = clique.get(m);
+                        x[i] = c == 0 ? vertices.get(m) : Factory.plus(vertices.get(m), c);
+                        for (int j = 0; j < i; j++) {
+                            int o = members.get(j);
+                            int lo = Math.min(m, o), hi = Math.max(m, o);
+                            edges.get(key(lo, hi)).remove(clique.get(hi) - clique.get(lo));
+                        }
+                    }
+                    int nClique = x.length * (x.length - 1) / 2;
+                    report.cliques.add(x.length);
+                    report.nNotEqualsInCliques += nClique;
+                    report.nDropped += nClique;
+                    post(allDifferent.apply(x));
+                }
+            }
+        }
+    }
+
+    // is u with label cu different from all the members of the clique
+    private static boolean adjacentToAll(List<Integer> members, Map<Integer, Integer> clique,
+                                         int u, int cu, Map<Long, Set<Integer>> edges) {
+        for (int m : members) {
+            int lo = Math.min(m, u), hi = Math.max(m, u);
+            int clo = lo == u ? cu : clique.get(m);
+            int chi = hi == u ? cu : clique.get(m);
+            // lo + clo != hi + chi  <=>  lo - hi != chi - clo
+            Set<Integer> offsets = edges.get(key(lo, hi));
+            if (offsets == null || !offsets.contains(chi - clo))
+                return false;
+        }
+        return true;
+    }
+
+    private static long key(int a, int b) {
+        return ((long) a << 32) | b;
+    }
+}
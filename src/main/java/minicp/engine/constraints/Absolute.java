@@ -51,4 +51,8 @@ public class Absolute extends AbstractConstraint {
          throw new NotImplementedException("Absolute");
     }
 
+    @Override
+    public int priority() {
+        return PRIORITY_CHEAP;
+    }
 }
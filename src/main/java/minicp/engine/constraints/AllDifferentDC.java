@@ -125,4 +125,9 @@ public class AllDifferentDC extends AbstractConstraint {
         //       use  GraphUtil.stronglyConnectedComponents to compute SCC's
          throw new NotImplementedException("AllDifferentDC");
     }
+
+    @Override
+    public int priority() {
+        return PRIORITY_EXPENSIVE;
+    }
 }
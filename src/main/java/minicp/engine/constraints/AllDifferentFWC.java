@@ -34,22 +34,47 @@ public class AllDifferentFWC extends AbstractConstraint {
 
     private IntVar[] x;
 
-    
+    private int[] fixed;
+    private StateInt nFixed;
 
     public AllDifferentFWC(IntVar... x) {
         super(x[0].getSolver());
         this.x = x;
-        
+        fixed = IntStream.range(0, x.length).toArray();
+        nFixed = x[0].getSolver().getStateManager().makeStateInt(0);
     }
 
     @Override
     public void post() {
-         throw new NotImplementedException("AllDifferentFWC");
+        for (IntVar var : x)
+            var.propagateOnFix(this);
+        propagate();
     }
 
     @Override
     public void propagate() {
-        // TODO use the sparse-set trick as seen in Sum.java
-         throw new NotImplementedException("AllDifferentFWC");
+        // the fixed variables are in the prefix [0, nFixed) of fixed
+        int nF0 = nFixed.value();
+        int nF = nF0;
+        for (int i = nF; i < x.length; i++) {
+            int idx = fixed[i];
+            if (x[idx].isFixed()) {
+                fixed[i] = fixed[nF]; // Swap the variables
+                fixed[nF] = idx;
+                nF++;
+            }
+        }
+        nFixed.setValue(nF);
+        // remove the values of the newly fixed variables from the others,
+        // this fails if two of them have the same value
+        for (int i = nF0; i < nF; i++) {
+            int idx = fixed[i];
+            int v = x[idx].min();
+            for (int j = nF0; j < x.length; j++)
+                if (fixed[j] != idx)
+                    x[fixed[j]].remove(v);
+        }
+        if (nFixed.value() == x.length)
+            setActive(false);
     }
 }
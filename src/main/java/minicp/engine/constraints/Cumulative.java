@@ -124,4 +124,8 @@ public class Cumulative extends AbstractConstraint {
         return new Profile(mandatoryParts.toArray(new Profile.Rectangle[0]));
     }
 
+    @Override
+    public int priority() {
+        return PRIORITY_EXPENSIVE;
+    }
 }
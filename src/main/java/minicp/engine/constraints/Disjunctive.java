@@ -153,4 +153,9 @@ public class Disjunctive extends AbstractConstraint {
     public boolean notLast() {
          throw new NotImplementedException("Disjunctive");
     }
+
+    @Override
+    public int priority() {
+        return PRIORITY_EXPENSIVE;
+    }
 }
@@ -120,4 +120,9 @@ public class DisjunctiveBinary extends AbstractConstraint implements Comparable<
     public int compareTo(DisjunctiveBinary o) {
         return slack() - o.slack();
     }
+
+    @Override
+    public int priority() {
+        return PRIORITY_CHEAP;
+    }
 }
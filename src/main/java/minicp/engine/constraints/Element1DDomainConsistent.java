@@ -52,4 +52,9 @@ public class Element1DDomainConsistent extends AbstractConstraint {
     public void post() {
          throw new NotImplementedException("Element1D");
     }
+
+    @Override
+    public int priority() {
+        return PRIORITY_EXPENSIVE;
+    }
 }
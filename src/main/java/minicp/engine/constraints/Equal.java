@@ -4,8 +4,11 @@ import minicp.engine.core.AbstractConstraint;
 import minicp.engine.core.IntVar;
 import minicp.util.exception.NotImplementedException;
 
+import java.util.Arrays;
+
 public class Equal extends AbstractConstraint {
     private final IntVar x, y;
+    private long[] mask = new long[0];
 
 
     /**
@@ -22,6 +25,20 @@ public class Equal extends AbstractConstraint {
         this.y = y;
     }
 
+    /**
+     * @return the variable x of {@code x == y}
+     */
+    public IntVar left() {
+        return x;
+    }
+
+    /**
+     * @return the variable y of {@code x == y}
+     */
+    public IntVar right() {
+        return y;
+    }
+
     @Override
     public void post() {
         if (y.isFixed())
@@ -47,6 +64,23 @@ public class Equal extends AbstractConstraint {
     // dom consistent filtering in the direction from -> to
     // every value of to has a support in from
     private void pruneEquals(IntVar from, IntVar to, int[] domVal) {
+        if (to.hasBitSetDomain()) {
+            // keep the values of from in one bitwise operation
+            int ofs = to.min();
+            int span = to.max() - ofs + 1;
+            int nWords = (span + 63) >>> 6;
+            if (mask.length < nWords)
+                mask = new long[nWords];
+            Arrays.fill(mask, 0, nWords, 0L);
+            int nVal = from.fillArray(domVal);
+            for (int k = 0; k < nVal; k++) {
+                int i = domVal[k] - ofs;
+                if (i >= 0 && i < span)
+                    mask[i >>> 6] |= 1L << i;
+            }
+            to.retainAll(ofs, mask);
+            return;
+        }
         // dump the domain of to into domVal
         int nVal = to.fillArray(domVal);
         for (int k = 0; k < nVal; k++)
@@ -63,4 +97,9 @@ public class Equal extends AbstractConstraint {
         y.removeBelow(newMin);
         y.removeAbove(newMax);
     }
+
+    @Override
+    public int priority() {
+        return PRIORITY_CHEAP;
+    }
 }
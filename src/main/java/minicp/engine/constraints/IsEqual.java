@@ -70,4 +70,9 @@ public class IsEqual extends AbstractConstraint { // b <=> x == v
             setActive(false);
         }
     }
+
+    @Override
+    public int priority() {
+        return PRIORITY_CHEAP;
+    }
 }
@@ -48,33 +48,32 @@ public class IsLessOrEqual extends AbstractConstraint { // b <=> x <= v
 
     @Override
     public void post() {
+        propagate();
+        if (isActive()) {
+            b.propagateOnFix(this);
+            x.propagateOnBoundChange(this);
+        }
+    }
+
+    @Override
+    public void propagate() {
         if (b.isTrue()) {
             x.removeAbove(v);
+            setActive(false);
         } else if (b.isFalse()) {
             x.removeBelow(v + 1);
+            setActive(false);
         } else if (x.max() <= v) {
             b.fix(1);
+            setActive(false);
         } else if (x.min() > v) {
             b.fix(0);
-        } else {
-            b.whenFixed(() -> {
-                // should deactivate the constraint as it is entailed
-                if (b.isTrue()) {
-                    x.removeAbove(v);
-
-                } else {
-                    x.removeBelow(v + 1);
-                }
-            });
-            x.whenBoundChange(() -> {
-                if (x.max() <= v) {
-                    // should deactivate the constraint as it is entailed
-                    b.fix(1);
-                } else if (x.min() > v) {
-                    // should deactivate the constraint as it is entailed
-                    b.fix(0);
-                }
-            });
+            setActive(false);
         }
     }
+
+    @Override
+    public int priority() {
+        return PRIORITY_CHEAP;
+    }
 }
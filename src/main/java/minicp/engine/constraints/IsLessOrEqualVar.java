@@ -77,4 +77,9 @@ public class IsLessOrEqualVar extends AbstractConstraint {
             }
         }
     }
+
+    @Override
+    public int priority() {
+        return PRIORITY_CHEAP;
+    }
 }
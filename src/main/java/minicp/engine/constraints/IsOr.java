@@ -17,10 +17,18 @@ package minicp.engine.constraints;
 
 import minicp.engine.core.AbstractConstraint;
 import minicp.engine.core.BoolVar;
+import minicp.engine.core.Constraint;
 import minicp.state.StateInt;
-import minicp.util.exception.NotImplementedException;
+
 /**
  * Reified logical or constraint
+ * <p>
+ * When b is not fixed, the constraint detects that all the literals
+ * are false with two watched literals, as in {@link Or}.
+ * Each literal also has a small listener that fixes b to true
+ * as soon as the literal is true, and wakes up the constraint
+ * only if the literal is watched, such that the cost per event
+ * is constant. The listeners are inactive as soon as the constraint is.
  */
 public class IsOr extends AbstractConstraint { // b <=> x1 or x2 or ... xn
 
@@ -28,8 +36,8 @@ public class IsOr extends AbstractConstraint { // b <=> x1 or x2 or ... xn
     private final BoolVar[] x;
     private final int n;
 
-    private int[] freeVarIndex;
-    private StateInt nFreeVars;
+    private final StateInt wL; // watched literal left
+    private final StateInt wR; // watched literal right
 
     private final Or or;
 
@@ -48,24 +56,112 @@ public class IsOr extends AbstractConstraint { // b <=> x1 or x2 or ... xn
         this.n = x.length;
         or = new Or(x);
 
-        nFreeVars = getSolver().getStateManager().makeStateInt(n);
-        freeVarIndex = new int[n];
-        for (int i = 0; i < n; i++) {
-            freeVarIndex[i] = i;
+        wL = b.getSolver().getStateManager().makeStateInt(0);
+        wR = b.getSolver().getStateManager().makeStateInt(n - 1);
+    }
+
+    /**
+     * Listener of a literal, sharing the active status of the constraint.
+     * It does not extend {@link AbstractConstraint} to avoid
+     * allocating a reversible active status per literal.
+     */
+    private class LiteralListener implements Constraint {
+        private final int i;
+        private boolean scheduled = false;
+
+        LiteralListener(int i) {
+            this.i = i;
+        }
+
+        @Override
+        public void post() {
+        }
+
+        @Override
+        public void propagate() {
+            if (x[i].isTrue())
+                b.fix(true);
+            else if (i == wL.value() || i == wR.value())
+                getSolver().schedule(IsOr.this);
+        }
+
+        @Override
+        public void setScheduled(boolean scheduled) {
+            this.scheduled = scheduled;
+        }
+
+        @Override
+        public boolean isScheduled() {
+            return scheduled;
+        }
+
+        @Override
+        public void setActive(boolean active) {
+            IsOr.this.setActive(active);
+        }
+
+        @Override
+        public boolean isActive() {
+            return IsOr.this.isActive();
+        }
+
+        @Override
+        public int priority() {
+            return PRIORITY_CHEAP;
         }
     }
 
     @Override
     public void post() {
-        b.propagateOnFix(this);
-        for (BoolVar xi : x) {
-            xi.propagateOnFix(this);
+        propagate();
+        if (isActive()) {
+            b.propagateOnFix(this);
+            for (int i = 0; i < n; i++)
+                x[i].propagateOnFix(new LiteralListener(i));
         }
     }
 
     @Override
     public void propagate() {
-        // TODO Implement the constraint as efficiently as possible and make sure you pass all the tests
-         throw new NotImplementedException();
+        if (b.isTrue()) {
+            setActive(false);
+            getSolver().post(or, false);
+        } else if (b.isFalse()) {
+            setActive(false);
+            for (BoolVar xi : x)
+                xi.fix(false);
+        } else {
+            // update watched literals
+            int l = wL.value();
+            while (l < n && x[l].isFixed()) {
+                if (x[l].isTrue()) {
+                    setActive(false);
+                    b.fix(true);
+                    return;
+                }
+                l++;
+            }
+            int r = wR.value();
+            while (r >= l && x[r].isFixed()) {
+                if (x[r].isTrue()) {
+                    setActive(false);
+                    b.fix(true);
+                    return;
+                }
+                r--;
+            }
+            if (l > r) {
+                setActive(false);
+                b.fix(false);
+            } else {
+                wL.setValue(l);
+                wR.setValue(r);
+            }
+        }
+    }
+
+    @Override
+    public int priority() {
+        return PRIORITY_CHEAP;
     }
 }
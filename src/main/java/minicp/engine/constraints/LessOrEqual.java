@@ -34,9 +34,11 @@ public class LessOrEqual extends AbstractConstraint { // x <= y
 
     @Override
     public void post() {
-        x.propagateOnBoundChange(this);
-        y.propagateOnBoundChange(this);
         propagate();
+        if (isActive()) {
+            x.propagateOnBoundChange(this);
+            y.propagateOnBoundChange(this);
+        }
     }
 
     @Override
@@ -46,4 +48,9 @@ public class LessOrEqual extends AbstractConstraint { // x <= y
         if (x.max() <= y.min())
             setActive(false);
     }
+
+    @Override
+    public int priority() {
+        return PRIORITY_CHEAP;
+    }
 }
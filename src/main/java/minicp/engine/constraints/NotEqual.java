@@ -52,12 +52,35 @@ public class NotEqual extends AbstractConstraint {
         this(x, y, 0);
     }
 
+    /**
+     * @return the variable x of {@code x != y + v}
+     */
+    public IntVar left() {
+        return x;
+    }
+
+    /**
+     * @return the variable y of {@code x != y + v}
+     */
+    public IntVar right() {
+        return y;
+    }
+
+    /**
+     * @return the offset v of {@code x != y + v}
+     */
+    public int offset() {
+        return v;
+    }
+
     @Override
     public void post() {
         if (y.isFixed())
             x.remove(y.min() + v);
         else if (x.isFixed())
             y.remove(x.min() - v);
+        else if (x.max() < y.min() + v || x.min() > y.max() + v)
+            setActive(false); // entailed, the domains are disjoint
         else {
             x.propagateOnFix(this);
             y.propagateOnFix(this);
@@ -71,4 +94,9 @@ public class NotEqual extends AbstractConstraint {
         else y.remove(x.min() - v);
         setActive(false);
     }
+
+    @Override
+    public int priority() {
+        return PRIORITY_CHEAP;
+    }
 }
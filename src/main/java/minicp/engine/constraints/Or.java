@@ -20,10 +20,17 @@ import minicp.engine.core.BoolVar;
 import minicp.state.StateInt;
 
 import static minicp.util.exception.InconsistencyException.INCONSISTENCY;
-import minicp.util.exception.NotImplementedException;
 
 /**
  * Logical or constraint {@code  x1 or x2 or ... xn}
+ * <p>
+ * The constraint only listens to two unfixed literals
+ * (the watched literals) and moves a watch when its literal is fixed.
+ * The left watch moves to the right and the right watch to the left,
+ * both skipping the literals fixed to false, such that each literal
+ * is visited once along a branch of the search.
+ * The watches are reversible, as are the subscriptions to the
+ * watched literals, so that both are restored together on backtrack.
  */
 public class Or extends AbstractConstraint { // x1 or x2 or ... xn
 
@@ -43,12 +50,15 @@ public class Or extends AbstractConstraint { // x1 or x2 or ... xn
         super(x[0].getSolver());
         this.x = x;
         this.n = x.length;
-        wL = getSolver().getStateManager().makeStateInt(0);
-        wR = getSolver().getStateManager().makeStateInt(n - 1);
+        wL = x[0].getSolver().getStateManager().makeStateInt(0);
+        wR = x[0].getSolver().getStateManager().makeStateInt(n - 1);
     }
 
     @Override
     public void post() {
+        x[0].propagateOnFix(this);
+        if (n > 1)
+            x[n - 1].propagateOnFix(this);
         propagate();
     }
 
@@ -56,7 +66,42 @@ public class Or extends AbstractConstraint { // x1 or x2 or ... xn
     @Override
     public void propagate() {
         // update watched literals
-        // TODO: implement the filtering using watched literal technique and make sure you pass all the tests
-         throw new NotImplementedException("Or");
+        int l = wL.value();
+        while (l < n && x[l].isFixed()) {
+            if (x[l].isTrue()) {
+                setActive(false);
+                return;
+            }
+            l++;
+        }
+        int r = wR.value();
+        while (r >= l && x[r].isFixed()) {
+            if (x[r].isTrue()) {
+                setActive(false);
+                return;
+            }
+            r--;
+        }
+        if (l > r) {
+            throw INCONSISTENCY;
+        } else if (l == r) {
+            x[l].fix(true);
+            setActive(false);
+        } else {
+            // move the watches and listen to the new watched literals
+            if (l != wL.value()) {
+                wL.setValue(l);
+                x[l].propagateOnFix(this);
+            }
+            if (r != wR.value()) {
+                wR.setValue(r);
+                x[r].propagateOnFix(this);
+            }
+        }
+    }
+
+    @Override
+    public int priority() {
+        return PRIORITY_CHEAP;
     }
 }
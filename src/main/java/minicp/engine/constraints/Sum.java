@@ -18,7 +18,7 @@ package minicp.engine.constraints;
 import minicp.cp.Factory;
 import minicp.engine.core.AbstractConstraint;
 import minicp.engine.core.IntVar;
-import minicp.state.State;
+import minicp.state.StateLong;
 import minicp.state.StateInt;
 import minicp.util.exception.InconsistencyException;
 import minicp.util.exception.NotImplementedException;
@@ -33,7 +33,7 @@ public class Sum extends AbstractConstraint {
 
     private int[] fixed;
     private StateInt nFixed;
-    private State<Long> sumFixed;
+    private StateLong sumFixed;
     private IntVar[] x;
     private int[] min, max;
     private int n;
@@ -78,10 +78,21 @@ public class Sum extends AbstractConstraint {
         min = new int[x.length];
         max = new int[x.length];
         nFixed = getSolver().getStateManager().makeStateInt(0);
-        sumFixed = getSolver().getStateManager().makeStateRef(Long.valueOf(0));
+        sumFixed = getSolver().getStateManager().makeStateLong(0);
         fixed = IntStream.range(0, n).toArray();
     }
 
+    /**
+     * Returns the terms of the sum.
+     *
+     * @return a copy of the variables whose sum is zero,
+     *         the right hand side given to the constructor being
+     *         the last term (negated)
+     */
+    public IntVar[] terms() {
+        return x.clone();
+    }
+
     @Override
     public void post() {
         for (IntVar var : x)
@@ -113,6 +124,11 @@ public class Sum extends AbstractConstraint {
         if (sumMin > 0 || sumMax < 0) {
             throw new InconsistencyException();
         }
+        if (nF == n) {
+            // all the variables are fixed and sum to zero
+            setActive(false);
+            return;
+        }
         // iterate over not-fixed variables
         for (int i = nF; i < x.length; i++) {
             int idx = fixed[i];
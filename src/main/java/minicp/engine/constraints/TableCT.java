@@ -135,4 +135,9 @@ public class TableCT extends AbstractConstraint {
         }
          throw new NotImplementedException("TableCT");
     }
+
+    @Override
+    public int priority() {
+        return PRIORITY_EXPENSIVE;
+    }
 }
@@ -16,7 +16,8 @@
 package minicp.engine.core;
 
 
-import minicp.state.State;
+import minicp.state.StateBool;
+import minicp.state.StateStack;
 
 
 /**
@@ -30,11 +31,12 @@ public abstract class AbstractConstraint implements Constraint {
      */
     private final Solver cp;
     private boolean scheduled = false;
-    private final State<Boolean> active;
+    private final StateBool active;
+    private StateStack<DeltaInt> deltas = null;
 
     public AbstractConstraint(Solver cp) {
         this.cp = cp;
-        active = cp.getStateManager().makeStateRef(true);
+        active = cp.getStateManager().makeStateBool(true);
     }
 
     public void post() {
@@ -62,4 +64,18 @@ public abstract class AbstractConstraint implements Constraint {
     public boolean isActive() {
         return active.value();
     }
+
+    public void registerDelta(DeltaInt delta) {
+        if (deltas == null) {
+            deltas = new StateStack<>(cp.getStateManager());
+            cp.enableDeltas();
+        }
+        deltas.push(delta);
+    }
+
+    public void updateDeltas() {
+        if (deltas != null)
+            for (int i = 0, n = deltas.size(); i < n; i++)
+                deltas.get(i).update();
+    }
 }
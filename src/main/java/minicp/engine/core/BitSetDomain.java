@@ -0,0 +1,299 @@
+/*
+ * mini-cp is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License  v3
+ * as published by the Free Software Foundation.
+ *
+ * mini-cp is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY.
+ * See the GNU Lesser General Public License  for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with mini-cp. If not, see http://www.gnu.org/licenses/lgpl-3.0.en.html
+ *
+ * Copyright (c)  2018. by Laurent Michel, Pierre Schaus, Pascal Van Hentenryck
+ */
+
+package minicp.engine.core;
+
+
+import minicp.state.StateLong;
+import minicp.state.StateManager;
+
+import java.util.NoSuchElementException;
+
+/**
+ * Implementation of a domain with reversible words of 64 bits,
+ * bit {@code i} of the domain being set if the value
+ * {@code offset() + i} is present.
+ * It is intended for small domains (one or two words):
+ * the bounds are obtained with {@link Long#numberOfTrailingZeros(long)}
+ * and {@link Long#numberOfLeadingZeros(long)}, the size with
+ * {@link Long#bitCount(long)} and a single value is stored per word
+ * and per level on the trail.
+ *
+ * Besides the {@link IntDomain} operations, propagators can read
+ * the words with {@link #word(int)} and prune the whole domain
+ * at once with {@link #retainAll(int, long[], DomainListener)}
+ * and {@link #removeAll(int, long[], DomainListener)}, that
+ * are reached through {@link IntVar#retainAll(int, long[])}
+ * and {@link IntVar#removeAll(int, long[])}.
+ *
+ * @see SparseSetDomain
+ */
+public class BitSetDomain implements IntDomain {
+
+    private final StateLong[] words;
+    private final int ofs;
+    private final int n;
+
+    /**
+     * Creates a domain with all the values in {@code [min..max]}
+     *
+     * @param sm the state manager in which the words are created
+     * @param min the minimum value of the domain
+     * @param max the maximum value of the domain, {@code max >= min}
+     */
+    public BitSetDomain(StateManager sm, int min, int max) {
+        ofs = min;
+        n = max - min + 1;
+        words = new StateLong[(n + 63) >>> 6];
+        for (int i = 0; i < words.length; i++) {
+            int bits = Math.min(64, n - (i << 6));
+            words[i] = sm.makeStateLong(bits == 64 ? -1L : (1L << bits) - 1);
+        }
+    }
+
+    /**
+     * Returns the value represented by the first bit of the first word
+     *
+     * @return the value of bit 0
+     */
+    public int offset() {
+        return ofs;
+    }
+
+    /**
+     * Returns the number of words of the domain
+     *
+     * @return the number of words
+     */
+    public int nWords() {
+        return words.length;
+    }
+
+    /**
+     * Returns a word of the domain
+     *
+     * @param i the index of the word, {@code 0 <= i < nWords()}
+     * @return the word representing the values {@code offset()+64*i}
+     *         to {@code offset()+64*i+63}
+     */
+    public long word(int i) {
+        return words[i].value();
+    }
+
+    @Override
+    public void retainAll(int offset, long[] mask, DomainListener l) {
+        int oldSize = size();
+        if (oldSize == 0) return;
+        int oldMin = min(), oldMax = max();
+        for (int i = 0; i < words.length; i++) {
+            long w = words[i].value();
+            long nw = w & bits(mask, (long) ofs - offset + ((long) i << 6));
+            if (nw != w) words[i].setValue(nw);
+        }
+        notify(oldMin, oldMax, oldSize, l);
+    }
+
+    @Override
+    public void removeAll(int offset, long[] mask, DomainListener l) {
+        int oldSize = size();
+        if (oldSize == 0) return;
+        int oldMin = min(), oldMax = max();
+        for (int i = 0; i < words.length; i++) {
+            long w = words[i].value();
+            long nw = w & ~bits(mask, (long) ofs - offset + ((long) i << 6));
+            if (nw != w) words[i].setValue(nw);
+        }
+        notify(oldMin, oldMax, oldSize, l);
+    }
+
+    /**
+     * Returns the 64 bits of the mask starting at a given bit,
+     * the bits outside of the mask being zero.
+     */
+    private static long bits(long[] mask, long from) {
+        long q = Math.floorDiv(from, 64);
+        int r = Math.floorMod(from, 64);
+        long lo = q >= 0 && q < mask.length ? mask[(int) q] : 0L;
+        if (r == 0) return lo;
+        long hi = q + 1 >= 0 && q + 1 < mask.length ? mask[(int) q + 1] : 0L;
+        return (lo >>> r) | (hi << (64 - r));
+    }
+
+    private void notify(int oldMin, int oldMax, int oldSize, DomainListener l) {
+        int sz = size();
+        if (sz == oldSize) return;
+        if (sz == 0) {
+            l.empty();
+            return;
+        }
+        if (sz == 1) l.fix();
+        l.change();
+        if (max() != oldMax) l.changeMax();
+        if (min() != oldMin) l.changeMin();
+    }
+
+    @Override
+    public int fillArray(int[] dest) {
+        int k = 0;
+        for (int i = 0; i < words.length; i++) {
+            long w = words[i].value();
+            int base = ofs + (i << 6);
+            while (w != 0) {
+                dest[k++] = base + Long.numberOfTrailingZeros(w);
+                w &= w - 1;
+            }
+        }
+        return k;
+    }
+
+    @Override
+    public int min() {
+        for (int i = 0; i < words.length; i++) {
+            long w = words[i].value();
+            if (w != 0) return ofs + (i << 6) + Long.numberOfTrailingZeros(w);
+        }
+        throw new NoSuchElementException();
+    }
+
+    @Override
+    public int max() {
+        for (int i = words.length - 1; i >= 0; i--) {
+            long w = words[i].value();
+            if (w != 0) return ofs + (i << 6) + 63 - Long.numberOfLeadingZeros(w);
+        }
+        throw new NoSuchElementException();
+    }
+
+    @Override
+    public int size() {
+        int s = 0;
+        for (StateLong w : words)
+            s += Long.bitCount(w.value());
+        return s;
+    }
+
+    @Override
+    public boolean contains(int v) {
+        long i = (long) v - ofs;
+        if (i < 0 || i >= n) return false;
+        return (words[(int) i >>> 6].value() & (1L << i)) != 0;
+    }
+
+    @Override
+    public boolean isSingleton() {
+        return size() == 1;
+    }
+
+    @Override
+    public void remove(int v, DomainListener l) {
+        if (contains(v)) {
+            boolean maxChanged = max() == v;
+            boolean minChanged = min() == v;
+            int i = v - ofs;
+            StateLong w = words[i >>> 6];
+            w.setValue(w.value() & ~(1L << i));
+            int sz = size();
+            if (sz == 0)
+                l.empty();
+            l.change();
+            if (maxChanged) l.changeMax();
+            if (minChanged) l.changeMin();
+            if (sz == 1) l.fix();
+        }
+    }
+
+    @Override
+    public void removeAllBut(int v, DomainListener l) {
+        if (contains(v)) {
+            if (size() != 1) {
+                boolean maxChanged = max() != v;
+                boolean minChanged = min() != v;
+                int i = v - ofs;
+                for (int j = 0; j < words.length; j++) {
+                    long nw = j == i >>> 6 ? 1L << i : 0L;
+                    if (words[j].value() != nw) words[j].setValue(nw);
+                }
+                l.fix();
+                l.change();
+                if (maxChanged) l.changeMax();
+                if (minChanged) l.changeMin();
+            }
+        } else {
+            for (StateLong w : words)
+                if (w.value() != 0) w.setValue(0L);
+            l.empty();
+        }
+    }
+
+    @Override
+    public void removeBelow(int value, DomainListener l) {
+        if (min() < value) {
+            long i = (long) value - ofs; // i > 0 since min() >= ofs
+            for (int j = 0; j < words.length; j++) {
+                long lo = (long) j << 6;
+                if (lo >= i) break;
+                long w = words[j].value();
+                long nw = i - lo >= 64 ? 0L : w & (-1L << (i - lo));
+                if (nw != w) words[j].setValue(nw);
+            }
+            int sz = size();
+            if (sz == 0) {
+                l.empty();
+            } else {
+                if (sz == 1) l.fix();
+                l.changeMin();
+                l.change();
+            }
+        }
+    }
+
+    @Override
+    public void removeAbove(int value, DomainListener l) {
+        if (max() > value) {
+            long i = (long) value - ofs; // i < n - 1 since max() <= ofs + n - 1
+            for (int j = words.length - 1; j >= 0; j--) {
+                long lo = (long) j << 6;
+                long w = words[j].value();
+                long nw;
+                if (i < lo) nw = 0L;
+                else if (i - lo >= 63) break;
+                else nw = w & (-1L >>> (63 - (i - lo)));
+                if (nw != w) words[j].setValue(nw);
+            }
+            int sz = size();
+            if (sz == 0) {
+                l.empty();
+            } else {
+                if (sz == 1) l.fix();
+                l.changeMax();
+                l.change();
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        if (size() == 0) return "{}";
+        StringBuilder b = new StringBuilder();
+        b.append("{");
+        for (int i = min(); i < max(); i++)
+            if (contains((i)))
+                b.append(i).append(',');
+        b.append(max());
+        b.append("}");
+        return b.toString();
+    }
+
+}
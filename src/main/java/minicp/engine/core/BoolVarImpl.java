@@ -76,6 +76,11 @@ public class BoolVarImpl implements BoolVar {
         binaryVar.propagateOnDomainChange(c);
     }
 
+    @Override
+    public DeltaInt delta(Constraint c) {
+        return new DeltaIntView(this, binaryVar.delta(c), 1, 0);
+    }
+
     @Override
     public void propagateOnFix(Constraint c) {
         binaryVar.propagateOnFix(c);
@@ -0,0 +1,276 @@
+/*
+ * mini-cp is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License  v3
+ * as published by the Free Software Foundation.
+ *
+ * mini-cp is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY.
+ * See the GNU Lesser General Public License  for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with mini-cp. If not, see http://www.gnu.org/licenses/lgpl-3.0.en.html
+ *
+ * Copyright (c)  2018. by Laurent Michel, Pierre Schaus, Pascal Van Hentenryck
+ */
+
+package minicp.engine.core;
+
+import minicp.state.StateInt;
+import minicp.state.StateSparseStack;
+import minicp.util.Procedure;
+import minicp.util.exception.InconsistencyException;
+
+/**
+ * Lightweight implementation of a boolean variable.
+ * The domain is a single reversible int whose bit 0 (resp. bit 1)
+ * is set if the value 0 (resp. 1) is present.
+ * Since any modification of a boolean domain fixes it,
+ * all the constraints and closures listening to the variable
+ * share a single list, scheduled when the variable is fixed.
+ *
+ * @see BoolVarImpl for a boolean view on a 0-1 {@link IntVar}
+ */
+public final class BoolVarLight implements BoolVar {
+
+    private static final int FALSE = 1;
+    private static final int TRUE = 2;
+    private static final int BOTH = 3;
+
+    private final Solver cp;
+    private final StateInt dom;
+    private final StateSparseStack<Constraint> onFix;
+
+    /**
+     * Creates an unfixed boolean variable
+     *
+     * @param cp the solver in which the variable is created
+     */
+    public BoolVarLight(Solver cp) {
+        this.cp = cp;
+        this.dom = cp.getStateManager().makeStateInt(BOTH);
+        this.onFix = new StateSparseStack<>(cp.getStateManager());
+    }
+
+    @Override
+    public boolean isTrue() {
+        return dom.value() == TRUE;
+    }
+
+    @Override
+    public boolean isFalse() {
+        return dom.value() == FALSE;
+    }
+
+    @Override
+    public void fix(boolean b) {
+        fix(b ? 1 : 0);
+    }
+
+    @Override
+    public Solver getSolver() {
+        return cp;
+    }
+
+    @Override
+    public void whenFixed(Procedure f) {
+        onFix.push(constraintClosure(f));
+    }
+
+    @Override
+    public void whenBoundChange(Procedure f) {
+        whenFixed(f);
+    }
+
+    @Override
+    public void whenDomainChange(Procedure f) {
+        whenFixed(f);
+    }
+
+    private Constraint constraintClosure(Procedure f) {
+        Constraint c = new ConstraintClosure(cp, f);
+        cp.post(c, false);
+        return c;
+    }
+
+    @Override
+    public void propagateOnDomainChange(Constraint c) {
+        onFix.push(c);
+    }
+
+    @Override
+    public void propagateOnFix(Constraint c) {
+        onFix.push(c);
+    }
+
+    @Override
+    public void propagateOnBoundChange(Constraint c) {
+        onFix.push(c);
+    }
+
+    /**
+     * Delta of the domain relying on a reversible
+     * copy of the domain bits.
+     */
+    private class Delta implements DeltaInt {
+        private final StateInt old;
+
+        Delta() {
+            old = cp.getStateManager().makeStateInt(dom.value());
+        }
+
+        @Override
+        public IntVar variable() {
+            return BoolVarLight.this;
+        }
+
+        @Override
+        public boolean changed() {
+            return dom.value() != old.value();
+        }
+
+        @Override
+        public int size() {
+            return Integer.bitCount(old.value()) - Integer.bitCount(dom.value());
+        }
+
+        @Override
+        public int oldMin() {
+            return (old.value() & FALSE) != 0 ? 0 : 1;
+        }
+
+        @Override
+        public int oldMax() {
+            return (old.value() & TRUE) != 0 ? 1 : 0;
+        }
+
+        @Override
+        public int min() {
+            return BoolVarLight.this.min();
+        }
+
+        @Override
+        public int max() {
+            return BoolVarLight.this.max();
+        }
+
+        @Override
+        public boolean minChanged() {
+            return min() != oldMin();
+        }
+
+        @Override
+        public boolean maxChanged() {
+            return max() != oldMax();
+        }
+
+        @Override
+        public int fillArray(int[] dest) {
+            int removed = old.value() & ~dom.value();
+            int k = 0;
+            if ((removed & FALSE) != 0) dest[k++] = 0;
+            if ((removed & TRUE) != 0) dest[k++] = 1;
+            return k;
+        }
+
+        @Override
+        public void update() {
+            old.setValue(dom.value());
+        }
+    }
+
+    @Override
+    public DeltaInt delta(Constraint c) {
+        DeltaInt delta = new Delta();
+        c.registerDelta(delta);
+        return delta;
+    }
+
+    @Override
+    public int min() {
+        return dom.value() == TRUE ? 1 : 0;
+    }
+
+    @Override
+    public int max() {
+        return dom.value() == FALSE ? 0 : 1;
+    }
+
+    @Override
+    public int size() {
+        return dom.value() == BOTH ? 2 : 1;
+    }
+
+    @Override
+    public int fillArray(int[] dest) {
+        int d = dom.value();
+        int k = 0;
+        if ((d & FALSE) != 0) dest[k++] = 0;
+        if ((d & TRUE) != 0) dest[k++] = 1;
+        return k;
+    }
+
+    @Override
+    public boolean isFixed() {
+        return dom.value() != BOTH;
+    }
+
+    @Override
+    public boolean contains(int v) {
+        return (v == 0 || v == 1) && (dom.value() & (1 << v)) != 0;
+    }
+
+    @Override
+    public void remove(int v) {
+        if (contains(v)) {
+            if (isFixed())
+                throw InconsistencyException.INCONSISTENCY;
+            set(v == 0 ? TRUE : FALSE);
+        }
+    }
+
+    @Override
+    public void fix(int v) {
+        if (!contains(v))
+            throw InconsistencyException.INCONSISTENCY;
+        if (!isFixed())
+            set(v == 0 ? FALSE : TRUE);
+    }
+
+    @Override
+    public void removeBelow(int v) {
+        if (v > 1)
+            throw InconsistencyException.INCONSISTENCY;
+        if (v == 1)
+            remove(0);
+    }
+
+    @Override
+    public void removeAbove(int v) {
+        if (v < 0)
+            throw InconsistencyException.INCONSISTENCY;
+        if (v == 0)
+            remove(1);
+    }
+
+    private void set(int d) {
+        dom.setValue(d);
+        int n = onFix.size();
+        for (int i = 0; i < n; ) {
+            Constraint c = onFix.get(i);
+            if (c.isActive()) {
+                cp.schedule(c);
+                i++;
+            } else {
+                onFix.remove(i);
+                n--;
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        if (isTrue()) return "true";
+        else if (isFalse()) return "false";
+        else return "{false,true}";
+    }
+}
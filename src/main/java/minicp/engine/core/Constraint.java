@@ -25,6 +25,24 @@ import java.util.Queue;
  */
 public interface Constraint {
 
+    /**
+     * Cost class of the constraints propagated in constant time
+     * or in the size of a few domains (binary constraints, reifications).
+     */
+    int PRIORITY_CHEAP = 0;
+
+    /**
+     * Cost class of the constraints propagated in linear time
+     * in the number of variables (sums, element).
+     */
+    int PRIORITY_DEFAULT = 1;
+
+    /**
+     * Cost class of the global constraints with a costly filtering
+     * (matching, scheduling, tables).
+     */
+    int PRIORITY_EXPENSIVE = 2;
+
     /**
      * Initializes the constraint when it is posted to the solver.
      */
@@ -74,5 +92,42 @@ public interface Constraint {
      */
     boolean isActive();
 
+    /**
+     * Returns the cost class of the propagation of the constraint.
+     * The fix-point propagates the scheduled constraints
+     * of a cheaper class first, such that the expensive ones
+     * are propagated once the cheap ones have stabilized.
+     *
+     * @return one of {@link #PRIORITY_CHEAP}, {@link #PRIORITY_DEFAULT}
+     *         or {@link #PRIORITY_EXPENSIVE}
+     * @see Solver#fixPoint()
+     */
+    default int priority() {
+        return PRIORITY_DEFAULT;
+    }
+
+    /**
+     * Registers a delta to be updated after each propagation
+     * of the constraint.
+     * Called by {@link IntVar#delta(Constraint)}
+     * and not intended to be called by the user.
+     * By default the delta is kept by the solver of its variable,
+     * {@link AbstractConstraint} keeps its deltas itself.
+     *
+     * @param delta the delta consumed by the constraint
+     * @see Solver#registerDelta(Constraint, DeltaInt)
+     */
+    default void registerDelta(DeltaInt delta) {
+        delta.variable().getSolver().registerDelta(this, delta);
+    }
+
+    /**
+     * Takes a new snapshot of the deltas registered
+     * in the constraint itself.
+     * Called by the solver after each propagation of the constraint.
+     */
+    default void updateDeltas() {
+    }
+
 
 }
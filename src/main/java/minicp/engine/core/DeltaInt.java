@@ -0,0 +1,110 @@
+/*
+ * mini-cp is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License  v3
+ * as published by the Free Software Foundation.
+ *
+ * mini-cp is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY.
+ * See the GNU Lesser General Public License  for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with mini-cp. If not, see http://www.gnu.org/licenses/lgpl-3.0.en.html
+ *
+ * Copyright (c)  2018. by Laurent Michel, Pierre Schaus, Pascal Van Hentenryck
+ */
+
+package minicp.engine.core;
+
+/**
+ * The changes of the domain of a variable
+ * since the last propagation of a constraint.
+ * <p>
+ * A delta is created for a constraint with {@link IntVar#delta(Constraint)},
+ * typically in {@link Constraint#post()}.
+ * The solver takes a new snapshot of the domain ({@link #update()})
+ * after each propagation of the constraint
+ * such that an incremental propagator only considers the values
+ * removed since its last run instead of the whole domain.
+ * The snapshot is reversible: after a backtrack,
+ * the delta is the one of the restored state.
+ */
+public interface DeltaInt {
+
+    /**
+     * Returns the variable of the delta.
+     *
+     * @return the variable whose domain changes are recorded
+     */
+    IntVar variable();
+
+    /**
+     * Returns true if the domain changed since the last snapshot.
+     *
+     * @return true if at least one value was removed
+     */
+    boolean changed();
+
+    /**
+     * Returns the number of values removed since the last snapshot.
+     *
+     * @return the number of removed values
+     */
+    int size();
+
+    /**
+     * Returns the minimum of the domain at the last snapshot.
+     *
+     * @return the previous minimum
+     */
+    int oldMin();
+
+    /**
+     * Returns the maximum of the domain at the last snapshot.
+     *
+     * @return the previous maximum
+     */
+    int oldMax();
+
+    /**
+     * Returns the current minimum of the domain.
+     *
+     * @return the new minimum
+     */
+    int min();
+
+    /**
+     * Returns the current maximum of the domain.
+     *
+     * @return the new maximum
+     */
+    int max();
+
+    /**
+     * Returns true if the minimum changed since the last snapshot.
+     *
+     * @return true if {@code min() != oldMin()}
+     */
+    boolean minChanged();
+
+    /**
+     * Returns true if the maximum changed since the last snapshot.
+     *
+     * @return true if {@code max() != oldMax()}
+     */
+    boolean maxChanged();
+
+    /**
+     * Sets the first values of <code>dest</code> to the ones
+     * removed since the last snapshot.
+     *
+     * @param dest an array large enough {@code dest.length >= size()}
+     * @return the number of removed values
+     */
+    int fillArray(int[] dest);
+
+    /**
+     * Takes a new snapshot of the domain.
+     * Called by the solver after each propagation of the constraint.
+     */
+    void update();
+}
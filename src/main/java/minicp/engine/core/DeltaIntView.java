@@ -0,0 +1,101 @@
+/*
+ * mini-cp is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License  v3
+ * as published by the Free Software Foundation.
+ *
+ * mini-cp is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY.
+ * See the GNU Lesser General Public License  for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with mini-cp. If not, see http://www.gnu.org/licenses/lgpl-3.0.en.html
+ *
+ * Copyright (c)  2018. by Laurent Michel, Pierre Schaus, Pascal Van Hentenryck
+ */
+
+package minicp.engine.core;
+
+/**
+ * The delta of a view {@code a*x+b} on a variable x,
+ * obtained by mapping the delta of x.
+ */
+class DeltaIntView implements DeltaInt {
+
+    private final IntVar view;
+    private final DeltaInt delta;
+    private final int a;
+    private final int b;
+
+    /**
+     * Creates the delta of a view.
+     *
+     * @param view the view
+     * @param delta the delta of the viewed variable
+     * @param a the non zero coefficient of the view
+     * @param b the offset of the view
+     */
+    DeltaIntView(IntVar view, DeltaInt delta, int a, int b) {
+        this.view = view;
+        this.delta = delta;
+        this.a = a;
+        this.b = b;
+    }
+
+    @Override
+    public IntVar variable() {
+        return view;
+    }
+
+    @Override
+    public boolean changed() {
+        return delta.changed();
+    }
+
+    @Override
+    public int size() {
+        return delta.size();
+    }
+
+    @Override
+    public int oldMin() {
+        return a > 0 ? a * delta.oldMin() + b : a * delta.oldMax() + b;
+    }
+
+    @Override
+    public int oldMax() {
+        return a > 0 ? a * delta.oldMax() + b : a * delta.oldMin() + b;
+    }
+
+    @Override
+    public int min() {
+        return view.min();
+    }
+
+    @Override
+    public int max() {
+        return view.max();
+    }
+
+    @Override
+    public boolean minChanged() {
+        return a > 0 ? delta.minChanged() : delta.maxChanged();
+    }
+
+    @Override
+    public boolean maxChanged() {
+        return a > 0 ? delta.maxChanged() : delta.minChanged();
+    }
+
+    @Override
+    public int fillArray(int[] dest) {
+        int s = delta.fillArray(dest);
+        for (int i = 0; i < s; i++)
+            dest[i] = a * dest[i] + b;
+        return s;
+    }
+
+    @Override
+    public void update() {
+        delta.update();
+    }
+}
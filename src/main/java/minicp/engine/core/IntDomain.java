@@ -141,6 +141,47 @@ public interface IntDomain {
      */
     void removeAbove(int v, DomainListener l);
 
+    /**
+     * Removes every value whose bit is not set in a mask
+     * and notifies appropriately the listener.
+     * By default the values are removed one by one.
+     *
+     * @param offset the value represented by bit 0 of {@code mask[0]}
+     * @param mask the values to keep, bit {@code i} of {@code mask[k]}
+     *             representing the value {@code offset+64*k+i}.
+     *             The values outside of the mask are removed.
+     * @param l the listener notified as in {@link #remove(int, DomainListener)}
+     */
+    default void retainAll(int offset, long[] mask, DomainListener l) {
+        int[] values = new int[size()];
+        int n = fillArray(values);
+        for (int k = 0; k < n; k++)
+            if (!isSet(mask, (long) values[k] - offset))
+                remove(values[k], l);
+    }
+
+    /**
+     * Removes every value whose bit is set in a mask
+     * and notifies appropriately the listener.
+     * By default the values are removed one by one.
+     *
+     * @param offset the value represented by bit 0 of {@code mask[0]}
+     * @param mask the values to remove, bit {@code i} of {@code mask[k]}
+     *             representing the value {@code offset+64*k+i}
+     * @param l the listener notified as in {@link #remove(int, DomainListener)}
+     */
+    default void removeAll(int offset, long[] mask, DomainListener l) {
+        int[] values = new int[size()];
+        int n = fillArray(values);
+        for (int k = 0; k < n; k++)
+            if (isSet(mask, (long) values[k] - offset))
+                remove(values[k], l);
+    }
+
+    private static boolean isSet(long[] mask, long i) {
+        return i >= 0 && (i >>> 6) < mask.length && (mask[(int) (i >>> 6)] & (1L << i)) != 0;
+    }
+
     /**
      * Copies the values of the domain into an array.
      *
@@ -150,6 +191,28 @@ public interface IntDomain {
      */
     int fillArray(int[] dest);
 
+    /**
+     * Sets the first values of <code>dest</code> to the ones
+     * removed since the domain had the given bounds and size.
+     * By default the values of the previous bounds
+     * that are not in the domain are returned, which is only correct
+     * if the domain had no hole when it had these bounds.
+     *
+     * @param oldMin the previous minimum
+     * @param oldMax the previous maximum
+     * @param oldSize the previous size, {@code oldSize >= size()}
+     * @param dest an array large enough {@code dest.length >= oldSize - size()}
+     * @return the number of removed values
+     */
+    default int fillRemovedArray(int oldMin, int oldMax, int oldSize, int[] dest) {
+        int n = oldSize - size();
+        int k = 0;
+        for (int v = oldMin; v <= oldMax && k < n; v++)
+            if (!contains(v))
+                dest[k++] = v;
+        return k;
+    }
+
     @Override
     String toString();
 }
@@ -83,6 +83,18 @@ public interface IntVar {
      */
     void propagateOnBoundChange(Constraint c);
 
+    /**
+     * Creates the delta of the domain of the variable
+     * for a given constraint, updated after each of its propagations.
+     * It gives the values removed and the bounds changes since the last
+     * propagation of the constraint.
+     *
+     * @param c the constraint that consumes the delta
+     * @return the delta of the variable for c
+     * @see DeltaInt
+     */
+    DeltaInt delta(Constraint c);
+
 
     /**
      * Returns the minimum of the domain of the variable
@@ -162,4 +174,61 @@ public interface IntVar {
      *            is thrown if the domain becomes empty
      */
     void removeAbove(int v);
+
+    /**
+     * Tells if {@link #retainAll(int, long[])} and {@link #removeAll(int, long[])}
+     * prune a whole word of the mask at once, which is the case
+     * for the variables with a {@link BitSetDomain}.
+     *
+     * @return true if the domain is pruned bitwise by a mask,
+     *         false if the values are removed one by one
+     */
+    default boolean hasBitSetDomain() {
+        return false;
+    }
+
+    /**
+     * Removes all the values whose bit is not set in a mask.
+     * By default the values are removed one by one,
+     * variables with a {@link BitSetDomain} prune
+     * a whole word at once.
+     *
+     * @param offset the value represented by bit 0 of {@code mask[0]}
+     * @param mask the values to keep, bit {@code i} of {@code mask[k]}
+     *             representing the value {@code offset+64*k+i}.
+     *             The values outside of the mask are removed.
+     * @exception InconsistencyException
+     *            is thrown if the domain becomes empty
+     */
+    default void retainAll(int offset, long[] mask) {
+        int[] values = new int[size()];
+        int n = fillArray(values);
+        for (int k = 0; k < n; k++)
+            if (!isSet(mask, (long) values[k] - offset))
+                remove(values[k]);
+    }
+
+    /**
+     * Removes all the values whose bit is set in a mask.
+     * By default the values are removed one by one,
+     * variables with a {@link BitSetDomain} prune
+     * a whole word at once.
+     *
+     * @param offset the value represented by bit 0 of {@code mask[0]}
+     * @param mask the values to remove, bit {@code i} of {@code mask[k]}
+     *             representing the value {@code offset+64*k+i}
+     * @exception InconsistencyException
+     *            is thrown if the domain becomes empty
+     */
+    default void removeAll(int offset, long[] mask) {
+        int[] values = new int[size()];
+        int n = fillArray(values);
+        for (int k = 0; k < n; k++)
+            if (isSet(mask, (long) values[k] - offset))
+                remove(values[k]);
+    }
+
+    private static boolean isSet(long[] mask, long i) {
+        return i >= 0 && (i >>> 6) < mask.length && (mask[(int) (i >>> 6)] & (1L << i)) != 0;
+    }
 }
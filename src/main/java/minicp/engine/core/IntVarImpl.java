@@ -15,7 +15,10 @@
 
 package minicp.engine.core;
 
-import minicp.state.StateStack;
+import minicp.state.StateInt;
+import minicp.state.StateLong;
+import minicp.state.StateManager;
+import minicp.state.StateSparseStack;
 import minicp.util.Procedure;
 import minicp.util.exception.InconsistencyException;
 import minicp.util.exception.NotImplementedException;
@@ -25,15 +28,17 @@ import java.util.Set;
 
 /**
  * Implementation of a variable
- * with a {@link SparseSetDomain}.
+ * with an {@link IntDomain}: a {@link SparseSetDomain} by default,
+ * a {@link BitSetDomain} or a {@link LazySparseSetDomain}
+ * when chosen by {@link minicp.cp.Factory#makeIntVar(Solver, int, int)}.
  */
 public class IntVarImpl implements IntVar {
 
     private final Solver cp;
     private final IntDomain domain;
-    private final StateStack<Constraint> onDomain;
-    private final StateStack<Constraint> onFix;
-    private final StateStack<Constraint> onBound;
+    private final StateSparseStack<Constraint> onDomain;
+    private final StateSparseStack<Constraint> onFix;
+    private final StateSparseStack<Constraint> onBound;
 
     private final DomainListener domListener = new DomainListener() {
         @Override
@@ -86,13 +91,28 @@ public class IntVarImpl implements IntVar {
         if (min > max) throw new InvalidParameterException("at least one setValue in the domain");
         this.cp = cp;
         domain = new SparseSetDomain(cp.getStateManager(), min, max);
-        onDomain = new StateStack<>(cp.getStateManager());
-        onFix = new StateStack<>(cp.getStateManager());
-        onBound = new StateStack<>(cp.getStateManager());
+        onDomain = new StateSparseStack<>(cp.getStateManager());
+        onFix = new StateSparseStack<>(cp.getStateManager());
+        onBound = new StateSparseStack<>(cp.getStateManager());
     }
 
 
 
+    /**
+     * Creates a variable with a given domain.
+     *
+     * @param cp the solver in which the variable is created
+     * @param domain the initial domain, it must be nonempty
+     */
+    public IntVarImpl(Solver cp, IntDomain domain) {
+        if (domain.min() == Integer.MIN_VALUE || domain.max() == Integer.MAX_VALUE) throw new InvalidParameterException("consider reducing the domains, Integer.MIN _VALUE and Integer.MAX_VALUE not allowed");
+        this.cp = cp;
+        this.domain = domain;
+        onDomain = new StateSparseStack<>(cp.getStateManager());
+        onFix = new StateSparseStack<>(cp.getStateManager());
+        onBound = new StateSparseStack<>(cp.getStateManager());
+    }
+
     /**
      * Creates a variable with a given set of values as initial domain.
      *
@@ -154,10 +174,148 @@ public class IntVarImpl implements IntVar {
         onBound.push(c);
     }
 
+    /**
+     * Delta of the domain relying on a reversible snapshot
+     * of its bounds and size.
+     */
+    private class Delta implements DeltaInt {
+        private final StateInt oldMin;
+        private final StateInt oldMax;
+        private final StateInt oldSize;
+
+        Delta() {
+            StateManager sm = cp.getStateManager();
+            oldMin = sm.makeStateInt(domain.min());
+            oldMax = sm.makeStateInt(domain.max());
+            oldSize = sm.makeStateInt(domain.size());
+        }
+
+        @Override
+        public IntVar variable() {
+            return IntVarImpl.this;
+        }
+
+        @Override
+        public boolean changed() {
+            return domain.size() != oldSize.value();
+        }
+
+        @Override
+        public int size() {
+            return oldSize.value() - domain.size();
+        }
+
+        @Override
+        public int oldMin() {
+            return oldMin.value();
+        }
+
+        @Override
+        public int oldMax() {
+            return oldMax.value();
+        }
+
+        @Override
+        public int min() {
+            return domain.min();
+        }
+
+        @Override
+        public int max() {
+            return domain.max();
+        }
+
+        @Override
+        public boolean minChanged() {
+            return domain.min() != oldMin.value();
+        }
+
+        @Override
+        public boolean maxChanged() {
+            return domain.max() != oldMax.value();
+        }
 
-    protected void scheduleAll(StateStack<Constraint> constraints) {
-        for (int i = 0; i < constraints.size(); i++)
-            cp.schedule(constraints.get(i));
+        @Override
+        public int fillArray(int[] dest) {
+            return domain.fillRemovedArray(oldMin.value(), oldMax.value(), oldSize.value(), dest);
+        }
+
+        @Override
+        public void update() {
+            oldMin.setValue(domain.min());
+            oldMax.setValue(domain.max());
+            oldSize.setValue(domain.size());
+        }
+    }
+
+    /**
+     * Delta of a {@link BitSetDomain} that also keeps
+     * a reversible snapshot of its words, the removed values
+     * being the bits cleared since the snapshot.
+     */
+    private class BitSetDelta extends Delta {
+        private final BitSetDomain bits;
+        private final StateLong[] oldWords;
+
+        BitSetDelta(BitSetDomain bits) {
+            this.bits = bits;
+            StateManager sm = cp.getStateManager();
+            oldWords = new StateLong[bits.nWords()];
+            for (int i = 0; i < oldWords.length; i++)
+                oldWords[i] = sm.makeStateLong(bits.word(i));
+        }
+
+        @Override
+        public int fillArray(int[] dest) {
+            int k = 0;
+            for (int i = 0; i < oldWords.length; i++) {
+                long removed = oldWords[i].value() & ~bits.word(i);
+                int base = bits.offset() + (i << 6);
+                while (removed != 0) {
+                    dest[k++] = base + Long.numberOfTrailingZeros(removed);
+                    removed &= removed - 1;
+                }
+            }
+            return k;
+        }
+
+        @Override
+        public void update() {
+            super.update();
+            for (int i = 0; i < oldWords.length; i++) {
+                long w = bits.word(i);
+                if (oldWords[i].value() != w)
+                    oldWords[i].setValue(w);
+            }
+        }
+    }
+
+    @Override
+    public DeltaInt delta(Constraint c) {
+        DeltaInt delta = domain instanceof BitSetDomain ? new BitSetDelta((BitSetDomain) domain) : new Delta();
+        c.registerDelta(delta);
+        return delta;
+    }
+
+
+    /**
+     * Schedules the active constraints of a listener list
+     * and reversibly removes the inactive ones from the list.
+     *
+     * @param constraints the listeners
+     */
+    protected void scheduleAll(StateSparseStack<Constraint> constraints) {
+        int n = constraints.size();
+        for (int i = 0; i < n; ) {
+            Constraint c = constraints.get(i);
+            if (c.isActive()) {
+                cp.schedule(c);
+                i++;
+            } else {
+                constraints.remove(i);
+                n--;
+            }
+        }
     }
 
     @Override
@@ -177,7 +335,7 @@ public class IntVarImpl implements IntVar {
 
     @Override
     public int fillArray(int[] dest) {
-         throw new NotImplementedException();
+        return domain.fillArray(dest);
     }
 
     @Override
@@ -190,6 +348,21 @@ public class IntVarImpl implements IntVar {
         domain.remove(v, domListener);
     }
 
+    @Override
+    public boolean hasBitSetDomain() {
+        return domain instanceof BitSetDomain;
+    }
+
+    @Override
+    public void retainAll(int offset, long[] mask) {
+        domain.retainAll(offset, mask, domListener);
+    }
+
+    @Override
+    public void removeAll(int offset, long[] mask) {
+        domain.removeAll(offset, mask, domListener);
+    }
+
     @Override
     public void fix(int v) {
         domain.removeAllBut(v, domListener);
@@ -0,0 +1,208 @@
+/*
+ * mini-cp is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License  v3
+ * as published by the Free Software Foundation.
+ *
+ * mini-cp is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY.
+ * See the GNU Lesser General Public License  for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with mini-cp. If not, see http://www.gnu.org/licenses/lgpl-3.0.en.html
+ *
+ * Copyright (c)  2018. by Laurent Michel, Pierre Schaus, Pascal Van Hentenryck
+ */
+
+package minicp.engine.core;
+
+
+import minicp.util.Procedure;
+import minicp.util.exception.InconsistencyException;
+import minicp.util.exception.IntOverFlowException;
+
+/**
+ * A view on a variable of type {@code a*x+b} with {@code a != 0}.
+ * Composing affine views (see {@link minicp.cp.Factory#mul(IntVar, int)},
+ * {@link minicp.cp.Factory#plus(IntVar, int)} and
+ * {@link minicp.cp.Factory#minus(IntVar)}) yields a single view on the
+ * original variable, so that a domain query costs one indirection
+ * whatever the depth of the expression.
+ */
+public class IntVarViewAffine implements IntVar {
+
+    private final IntVar x;
+    private final int a;
+    private final int b;
+
+    public IntVarViewAffine(IntVar x, int a, int b) { // y = a * x + b
+        if (a == 0)
+            throw new IllegalArgumentException("the coefficient of an affine view must be non zero");
+        long lo = Math.min((long) a * x.min(), (long) a * x.max()) + b;
+        long hi = Math.max((long) a * x.min(), (long) a * x.max()) + b;
+        if (lo <= (long) Integer.MIN_VALUE)
+            throw new IntOverFlowException("consider applying smaller constants as the min domain on this view is <= Integer.MIN _VALUE");
+        if (hi >= (long) Integer.MAX_VALUE)
+            throw new IntOverFlowException("consider applying smaller constants as the max domain on this view is >= Integer.MAX _VALUE");
+        this.x = x;
+        this.a = a;
+        this.b = b;
+    }
+
+    /**
+     * Returns the variable x of the view {@code a*x+b}
+     *
+     * @return the viewed variable
+     */
+    public IntVar variable() {
+        return x;
+    }
+
+    /**
+     * Returns the coefficient a of the view {@code a*x+b}
+     *
+     * @return the non zero coefficient
+     */
+    public int coefficient() {
+        return a;
+    }
+
+    /**
+     * Returns the offset b of the view {@code a*x+b}
+     *
+     * @return the offset
+     */
+    public int offset() {
+        return b;
+    }
+
+    @Override
+    public Solver getSolver() {
+        return x.getSolver();
+    }
+
+    @Override
+    public void whenFixed(Procedure f) {
+        x.whenFixed(f);
+    }
+
+    @Override
+    public void whenBoundChange(Procedure f) {
+        x.whenBoundChange(f);
+    }
+
+    @Override
+    public void whenDomainChange(Procedure f) {
+        x.whenDomainChange(f);
+    }
+
+    @Override
+    public void propagateOnDomainChange(Constraint c) {
+        x.propagateOnDomainChange(c);
+    }
+
+    @Override
+    public void propagateOnFix(Constraint c) {
+        x.propagateOnFix(c);
+    }
+
+    @Override
+    public void propagateOnBoundChange(Constraint c) {
+        x.propagateOnBoundChange(c);
+    }
+
+    @Override
+    public DeltaInt delta(Constraint c) {
+        return new DeltaIntView(this, x.delta(c), a, b);
+    }
+
+    @Override
+    public int min() {
+        return a > 0 ? a * x.min() + b : a * x.max() + b;
+    }
+
+    @Override
+    public int max() {
+        return a > 0 ? a * x.max() + b : a * x.min() + b;
+    }
+
+    @Override
+    public int size() {
+        return x.size();
+    }
+
+    @Override
+    public int fillArray(int[] dest) {
+        int s = x.fillArray(dest);
+        for (int i = 0; i < s; i++) {
+            dest[i] = a * dest[i] + b;
+        }
+        return s;
+    }
+
+    @Override
+    public boolean isFixed() {
+        return x.isFixed();
+    }
+
+    @Override
+    public boolean contains(int v) {
+        long t = (long) v - b;
+        return t % a == 0 && inRange(t / a) && x.contains((int) (t / a));
+    }
+
+    @Override
+    public void remove(int v) {
+        long t = (long) v - b;
+        if (t % a == 0 && inRange(t / a)) {
+            x.remove((int) (t / a));
+        }
+    }
+
+    @Override
+    public void fix(int v) {
+        long t = (long) v - b;
+        if (t % a == 0 && inRange(t / a)) {
+            x.fix((int) (t / a));
+        } else {
+            throw InconsistencyException.INCONSISTENCY;
+        }
+    }
+
+    @Override
+    public void removeBelow(int v) {
+        long t = (long) v - b;
+        if (a > 0) x.removeBelow(clamp(Math.ceilDiv(t, a)));
+        else x.removeAbove(clamp(Math.floorDiv(t, a)));
+    }
+
+    @Override
+    public void removeAbove(int v) {
+        long t = (long) v - b;
+        if (a > 0) x.removeAbove(clamp(Math.floorDiv(t, a)));
+        else x.removeBelow(clamp(Math.ceilDiv(t, a)));
+    }
+
+    private static boolean inRange(long v) {
+        return v >= Integer.MIN_VALUE && v <= Integer.MAX_VALUE;
+    }
+
+    private static int clamp(long v) {
+        return (int) Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, v));
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder b = new StringBuilder();
+        b.append("{");
+        for (int i = min(); i <= max() - 1; i++) {
+            if (contains((i))) {
+                b.append(i);
+                b.append(',');
+            }
+        }
+        if (size() > 0) b.append(max());
+        b.append("}");
+        return b.toString();
+
+    }
+}
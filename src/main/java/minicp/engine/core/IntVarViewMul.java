@@ -74,6 +74,11 @@ public class IntVarViewMul implements IntVar {
         x.propagateOnBoundChange(c);
     }
 
+    @Override
+    public DeltaInt delta(Constraint c) {
+        return new DeltaIntView(this, x.delta(c), a, 0);
+    }
+
     @Override
     public int min() {
         if (a >= 0)
@@ -72,6 +72,11 @@ public class IntVarViewOffset implements IntVar {
         x.propagateOnBoundChange(c);
     }
 
+    @Override
+    public DeltaInt delta(Constraint c) {
+        return new DeltaIntView(this, x.delta(c), 1, o);
+    }
+
     @Override
     public int min() {
         return x.min() + o;
@@ -64,6 +64,11 @@ public class IntVarViewOpposite implements IntVar {
         x.propagateOnBoundChange(c);
     }
 
+    @Override
+    public DeltaInt delta(Constraint c) {
+        return new DeltaIntView(this, x.delta(c), -1, 0);
+    }
+
     @Override
     public int min() {
         return -x.max();
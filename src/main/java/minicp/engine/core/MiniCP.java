@@ -17,29 +17,45 @@ package minicp.engine.core;
 
 import minicp.cp.Factory;
 import minicp.search.Objective;
+import minicp.state.StateInt;
 import minicp.state.StateManager;
 import minicp.state.StateStack;
 import minicp.util.exception.InconsistencyException;
 import minicp.util.Procedure;
 
 import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.Queue;
+import java.util.Map;
 
 
 public class MiniCP implements Solver {
 
-    private Queue<Constraint> propagationQueue = new ArrayDeque<>();
+    // one FIFO queue per priority, the cheapest first
+    private final List<ArrayDeque<Constraint>> propagationQueues = new ArrayList<>();
+    private int nScheduled = 0;
     private List<Procedure> fixPointListeners = new LinkedList<>();
 
     private final StateManager sm;
 
+    // the deltas of the constraints that do not keep them
+    private final Map<Constraint, StateStack<DeltaInt>> deltas = new IdentityHashMap<>();
+    // false as long as no constraint registered a delta
+    private boolean deltasEnabled = false;
+    private PropagationProfiler profiler = null;
+    // the variables owning their domain, observed once the profiling is enabled
     private final StateStack<IntVar> vars;
+    // the observed variables whose domain changed during the profiled propagation
+    private final List<DomainWatcher> changed = new ArrayList<>();
+    private boolean profiling = false;
 
     public MiniCP(StateManager sm) {
         this.sm = sm;
         vars = new StateStack<>(sm);
+        for (int p = Constraint.PRIORITY_CHEAP; p <= Constraint.PRIORITY_EXPENSIVE; p++)
+            propagationQueues.add(new ArrayDeque<>());
     }
 
     @Override
@@ -50,7 +66,8 @@ public class MiniCP implements Solver {
     public void schedule(Constraint c) {
         if (c.isActive() && !c.isScheduled()) {
             c.setScheduled(true);
-            propagationQueue.add(c);
+            propagationQueues.get(c.priority()).add(c);
+            nScheduled++;
         }
     }
 
@@ -67,21 +84,189 @@ public class MiniCP implements Solver {
     public void fixPoint() {
         try {
             notifyFixPoint();
-            while (!propagationQueue.isEmpty()) {
-                propagate(propagationQueue.remove());
+            while (nScheduled > 0) {
+                propagate(nextScheduled());
             }
         } catch (InconsistencyException e) {
-            // empty the queue and unset the scheduled status
-            while (!propagationQueue.isEmpty())
-                propagationQueue.remove().setScheduled(false);
+            // empty the queues and unset the scheduled status
+            for (ArrayDeque<Constraint> queue : propagationQueues)
+                while (!queue.isEmpty())
+                    queue.remove().setScheduled(false);
+            nScheduled = 0;
             throw e;
         }
     }
 
+    /**
+     * Dequeues the first constraint of the cheapest non empty queue.
+     */
+    private Constraint nextScheduled() {
+        nScheduled--;
+        int p = 0;
+        while (propagationQueues.get(p).isEmpty())
+            p++;
+        return propagationQueues.get(p).remove();
+    }
+
     private void propagate(Constraint c) {
         c.setScheduled(false);
-        if (c.isActive())
+        if (c.isActive()) {
+            if (profiler == null) c.propagate();
+            else profiledPropagate(c);
+            if (deltasEnabled) updateDeltas(c);
+        }
+    }
+
+    @Override
+    public void registerDelta(Constraint c, DeltaInt delta) {
+        deltas.computeIfAbsent(c, k -> new StateStack<>(sm)).push(delta);
+        enableDeltas();
+    }
+
+    @Override
+    public void enableDeltas() {
+        deltasEnabled = true;
+    }
+
+    private void updateDeltas(Constraint c) {
+        c.updateDeltas();
+        if (!deltas.isEmpty()) {
+            StateStack<DeltaInt> ds = deltas.get(c);
+            if (ds != null)
+                for (int i = 0, n = ds.size(); i < n; i++)
+                    ds.get(i).update();
+        }
+    }
+
+    private void profiledPropagate(Constraint c) {
+        long t0 = System.nanoTime();
+        profiling = true;
+        try {
             c.propagate();
+        } catch (InconsistencyException e) {
+            profiler.record(c, System.nanoTime() - t0, 0, true);
+            for (DomainWatcher w : changed)
+                w.changed = false;
+            changed.clear();
+            throw e;
+        } finally {
+            profiling = false;
+        }
+        long t = System.nanoTime() - t0;
+        profiler.record(c, t, readChangedSizes(), false);
+    }
+
+    /**
+     * Reads the sizes of the domains that changed
+     * during the profiled propagation.
+     *
+     * @return the number of values removed from these domains
+     */
+    private long readChangedSizes() {
+        long removed = 0;
+        for (DomainWatcher w : changed) {
+            int size = w.x.size();
+            removed += w.size.value() - size;
+            w.size.setValue(size);
+            w.changed = false;
+        }
+        changed.clear();
+        return removed;
+    }
+
+    /**
+     * Registers a variable owning its domain, such that the profiler
+     * counts the values removed from it. The variables created
+     * by the {@link Factory} are registered.
+     *
+     * @param x a variable that is not a view
+     */
+    public void registerVar(IntVar x) {
+        vars.push(x);
+        if (profiler != null) watch(x);
+    }
+
+    private void watch(IntVar x) {
+        x.propagateOnDomainChange(new DomainWatcher(x));
+    }
+
+    /**
+     * Listener of a variable observed by the profiler. The variables
+     * check if their listeners are active when their domain changes,
+     * which records the change. It is never scheduled.
+     * The size is read in the state where the domain changed:
+     * at once outside of a profiled propagation,
+     * at its end otherwise.
+     */
+    private final class DomainWatcher implements Constraint {
+        private final IntVar x;
+        // the size of the domain when it was last read
+        private final StateInt size;
+        // if the domain changed during the profiled propagation
+        private boolean changed = false;
+
+        DomainWatcher(IntVar x) {
+            this.x = x;
+            this.size = sm.makeStateInt(x.size());
+        }
+
+        @Override
+        public boolean isActive() {
+            if (!profiling)
+                size.setValue(x.size());
+            else if (!changed) {
+                changed = true;
+                MiniCP.this.changed.add(this);
+            }
+            return true;
+        }
+
+        @Override
+        public boolean isScheduled() {
+            return true;
+        }
+
+        @Override
+        public void setScheduled(boolean scheduled) {
+        }
+
+        @Override
+        public void setActive(boolean active) {
+        }
+
+        @Override
+        public void post() {
+        }
+
+        @Override
+        public void propagate() {
+        }
+    }
+
+    /**
+     * Enables the profiling of the propagation.
+     * The registered variables are observed from now on,
+     * the profiling is expected to be enabled at the root.
+     *
+     * @return the profiler collecting the statistics
+     * @see PropagationProfiler
+     */
+    public PropagationProfiler enableProfiling() {
+        if (profiler == null) {
+            profiler = new PropagationProfiler();
+            for (int i = 0, n = vars.size(); i < n; i++)
+                watch(vars.get(i));
+        }
+        return profiler;
+    }
+
+    /**
+     * Returns the profiler enabled with {@link #enableProfiling()}.
+     *
+     * @return the profiler or null if the profiling is not enabled
+     */
+    public PropagationProfiler getProfiler() {
+        return profiler;
     }
 
     @Override
@@ -102,6 +287,7 @@ public class MiniCP implements Solver {
     @Override
     public void post(Constraint c, boolean enforceFixPoint) {
         c.post();
+        if (deltasEnabled) updateDeltas(c);
         if (enforceFixPoint) fixPoint();
     }
 
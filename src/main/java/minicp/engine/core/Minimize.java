@@ -16,7 +16,7 @@
 package minicp.engine.core;
 
 import minicp.search.Objective;
-import minicp.util.exception.InconsistencyException;
+import minicp.search.SharedObjective;
 
 /**
  * Minimization objective function
@@ -24,15 +24,34 @@ import minicp.util.exception.InconsistencyException;
 public class Minimize implements Objective {
     private int bound = Integer.MAX_VALUE;
     private final IntVar x;
+    private SharedObjective shared;
 
     public Minimize(IntVar x) {
         this.x = x;
-        x.getSolver().onFixPoint(() -> x.removeAbove(bound));
+        x.getSolver().onFixPoint(() -> x.removeAbove(bound()));
+    }
+
+    /**
+     * Shares the bound with the objectives of other solvers,
+     * possibly running on other threads:
+     * each fixpoint also removes the values that do not improve
+     * the best solution found by any of them.
+     *
+     * @param shared the best value of the solvers minimizing the same function
+     */
+    public void share(SharedObjective shared) {
+        this.shared = shared;
+    }
+
+    private int bound() {
+        return shared == null ? bound : Math.min(bound, shared.best() - 1);
     }
 
     public void tighten() {
         if (!x.isFixed()) throw new RuntimeException("objective not fixed");
         this.bound = x.max() - 1;
+        if (shared != null)
+            shared.improve(x.max());
     }
 
     @Override
@@ -0,0 +1,230 @@
+/*
+ * mini-cp is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License  v3
+ * as published by the Free Software Foundation.
+ *
+ * mini-cp is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY.
+ * See the GNU Lesser General Public License  for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with mini-cp. If not, see http://www.gnu.org/licenses/lgpl-3.0.en.html
+ *
+ * Copyright (c)  2018. by Laurent Michel, Pierre Schaus, Pascal Van Hentenryck
+ */
+
+package minicp.engine.core;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Profile of the propagation collected by a {@link MiniCP} solver
+ * once enabled with {@link MiniCP#enableProfiling()}.
+ * When it is not enabled, nothing is collected.
+ * <p>
+ * For each call to {@link Constraint#propagate()} from the fix-point,
+ * the profiler records the time spent, whether the call removed values
+ * and whether it failed. The number of removed values is read
+ * on the registered variables (see {@link MiniCP#registerVar(IntVar)})
+ * whose domain changed during the call, through listeners attached
+ * only once the profiling is enabled, such that its cost does not
+ * depend on the size of the model.
+ * Profiles are available per constraint instance and
+ * aggregated per constraint class, and can be dumped in CSV or JSON.
+ */
+public class PropagationProfiler {
+
+    /**
+     * The counters of a constraint or of a class of constraints
+     */
+    public static class Profile {
+        private final String name;
+        private long calls = 0;
+        private long nanos = 0;
+        private long pruningCalls = 0;
+        private long failures = 0;
+        private long removedValues = 0;
+
+        private Profile(String name) {
+            this.name = name;
+        }
+
+        /**
+         * @return the name of the constraint instance
+         *         (its class followed by {@code #} and a number)
+         *         or of the constraint class
+         */
+        public String name() {
+            return name;
+        }
+
+        /**
+         * @return the number of calls to propagate
+         */
+        public long calls() {
+            return calls;
+        }
+
+        /**
+         * @return the time spent in propagate, in nanoseconds
+         */
+        public long timeNanos() {
+            return nanos;
+        }
+
+        /**
+         * @return the number of calls that removed at least one value
+         *         or failed
+         */
+        public long pruningCalls() {
+            return pruningCalls;
+        }
+
+        /**
+         * @return the number of calls that threw an
+         *         {@link minicp.util.exception.InconsistencyException}
+         */
+        public long failures() {
+            return failures;
+        }
+
+        /**
+         * @return the number of values removed by the successful calls
+         */
+        public long removedValues() {
+            return removedValues;
+        }
+
+        private void add(Profile p) {
+            calls += p.calls;
+            nanos += p.nanos;
+            pruningCalls += p.pruningCalls;
+            failures += p.failures;
+            removedValues += p.removedValues;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%-32s %10d %12.3f %10d %10d %12d",
+                    name, calls, nanos / 1e6, pruningCalls, failures, removedValues);
+        }
+    }
+
+    private final Map<Constraint, Profile> profiles = new IdentityHashMap<>();
+    private final Map<Class<?>, Integer> instances = new IdentityHashMap<>();
+
+    PropagationProfiler() {
+    }
+
+    void record(Constraint c, long nanos, long removed, boolean failed) {
+        Profile p = profiles.get(c);
+        if (p == null) {
+            int i = instances.merge(c.getClass(), 1, Integer::sum);
+            p = new Profile(className(c.getClass()) + "#" + i);
+            profiles.put(c, p);
+        }
+        p.calls++;
+        p.nanos += nanos;
+        if (failed) p.failures++;
+        else p.removedValues += removed;
+        if (failed || removed > 0) p.pruningCalls++;
+    }
+
+    private static String className(Class<?> c) {
+        return c.getSimpleName().isEmpty() ? c.getName() : c.getSimpleName();
+    }
+
+    /**
+     * Returns the profiles of the constraint instances
+     *
+     * @return the profiles of the constraints that were propagated,
+     *         by decreasing time spent
+     */
+    public List<Profile> byConstraint() {
+        List<Profile> res = new ArrayList<>(profiles.values());
+        res.sort(Comparator.comparingLong(Profile::timeNanos).reversed());
+        return res;
+    }
+
+    /**
+     * Returns the profiles aggregated by constraint class
+     *
+     * @return the profiles of the constraint classes that were propagated,
+     *         by decreasing time spent
+     */
+    public List<Profile> byClass() {
+        Map<String, Profile> classes = new LinkedHashMap<>();
+        profiles.forEach((c, p) ->
+                classes.computeIfAbsent(className(c.getClass()), Profile::new).add(p));
+        List<Profile> res = new ArrayList<>(classes.values());
+        res.sort(Comparator.comparingLong(Profile::timeNanos).reversed());
+        return res;
+    }
+
+    /**
+     * Clears all the profiles
+     */
+    public void reset() {
+        profiles.clear();
+        instances.clear();
+    }
+
+    /**
+     * Returns the profiles in CSV format, one line per constraint instance
+     *
+     * @return the CSV with a header line
+     */
+    public String toCsv() {
+        StringBuilder b = new StringBuilder("constraint,class,calls,time_ns,pruning_calls,failures,removed_values\n");
+        profiles.forEach((c, p) -> b.append(p.name).append(',')
+                .append(className(c.getClass())).append(',')
+                .append(p.calls).append(',')
+                .append(p.nanos).append(',')
+                .append(p.pruningCalls).append(',')
+                .append(p.failures).append(',')
+                .append(p.removedValues).append('\n'));
+        return b.toString();
+    }
+
+    /**
+     * Returns the profiles in JSON format
+     *
+     * @return a JSON object with the arrays {@code "classes"}
+     *         and {@code "constraints"} of profiles
+     */
+    public String toJson() {
+        StringBuilder b = new StringBuilder("{\"classes\":[");
+        appendJson(b, byClass());
+        b.append("],\"constraints\":[");
+        appendJson(b, byConstraint());
+        return b.append("]}").toString();
+    }
+
+    private static void appendJson(StringBuilder b, List<Profile> profiles) {
+        for (int i = 0; i < profiles.size(); i++) {
+            Profile p = profiles.get(i);
+            if (i > 0) b.append(',');
+            b.append("{\"name\":\"").append(p.name.replace("\\", "\\\\").replace("\"", "\\\""))
+                    .append("\",\"calls\":").append(p.calls)
+                    .append(",\"timeNanos\":").append(p.nanos)
+                    .append(",\"pruningCalls\":").append(p.pruningCalls)
+                    .append(",\"failures\":").append(p.failures)
+                    .append(",\"removedValues\":").append(p.removedValues)
+                    .append('}');
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder b = new StringBuilder(String.format("%-32s %10s %12s %10s %10s %12s%n",
+                "class", "calls", "time (ms)", "pruning", "failures", "removed"));
+        for (Profile p : byClass())
+            b.append(p).append(System.lineSeparator());
+        return b.toString();
+    }
+}
@@ -38,6 +38,26 @@ public interface Solver {
      */
     void schedule(Constraint c);
 
+    /**
+     * Registers a delta to be updated after each propagation
+     * of a constraint that does not keep its deltas itself.
+     * Called by the default {@link Constraint#registerDelta(DeltaInt)}
+     * and not intended to be called by the user.
+     *
+     * @param c the constraint consuming the delta
+     * @param delta the delta to update after the propagations of c
+     */
+    void registerDelta(Constraint c, DeltaInt delta);
+
+    /**
+     * Enables the update of the deltas after the propagations,
+     * such that the models without deltas do not pay for them.
+     * Called by {@link #registerDelta(Constraint, DeltaInt)}
+     * and by the constraints that keep their deltas themselves
+     * when they register their first delta.
+     */
+    void enableDeltas();
+
     /**
      * Posts the constraint that is call {@link Constraint#post()}
      * and optionally computes the fix-point.
@@ -50,6 +70,9 @@ public interface Solver {
 
     /**
      * Computes the fix-point with all the scheduled constraints.
+     * The constraints are propagated by increasing cost class
+     * (see {@link Constraint#priority()}) and in their scheduling order
+     * within a class.
      */
     void fixPoint();
 
@@ -36,6 +36,11 @@ public class SparseSetDomain implements IntDomain {
         return domain.fillArray(dest);
     }
 
+    @Override
+    public int fillRemovedArray(int oldMin, int oldMax, int oldSize, int[] dest) {
+        return domain.fillRemovedArray(oldSize, dest);
+    }
+
     @Override
     public int min() {
         return domain.min();
@@ -2,6 +2,7 @@ package minicp.examples;
 
 import minicp.search.DFSearch;
 import minicp.search.Objective;
+import minicp.search.Portfolio;
 import minicp.search.SearchStatistics;
 
 import java.util.function.Predicate;
@@ -57,4 +58,27 @@ public abstract class OptimizationProblem {
         return dfs.optimize(objective, limit);
     }
 
+    /**
+     * Returns this problem as a member of a {@link Portfolio}.
+     * The model must be built, {@link OptimizationProblem#dfs} may be replaced
+     * beforehand to diversify the members.
+     * <pre>
+     * {@code
+     * Portfolio portfolio = new Portfolio();
+     * for (int i = 0; i < 4; i++)
+     *     portfolio.add(() -> {
+     *         QAP qap = new QAP("data/qap.txt");
+     *         qap.buildModel();
+     *         return qap.portfolioMember();
+     *     });
+     * portfolio.optimize();
+     * }
+     * </pre>
+     *
+     * @return the search and the objective of the model
+     */
+    public Portfolio.Member portfolioMember() {
+        return new Portfolio.Member(dfs, objective);
+    }
+
 }
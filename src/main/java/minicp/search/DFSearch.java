@@ -17,17 +17,20 @@ package minicp.search;
 
 import minicp.state.StateManager;
 import minicp.util.exception.InconsistencyException;
-import minicp.util.exception.NotImplementedException;
 import minicp.util.Procedure;
 
+import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Predicate;
 import java.util.function.Supplier;
 
 /**
  * Depth First Search Branch and Bound implementation
+ * <p>
+ * The search is iterative: the nodes of the current path
+ * are kept on an explicit stack with their pending alternatives,
+ * such that the depth of the tree is not limited by the call stack.
  */
 public class DFSearch {
 
@@ -40,6 +43,16 @@ public class DFSearch {
 
     private int currNodeIdId;
 
+    // the stack of the open nodes of the current path, from the root:
+    // their alternatives, the position of the next one to explore,
+    // their id, the id of their parent and the level of their state
+    private Procedure[][] branches = new Procedure[64][];
+    private int[] positions = new int[64];
+    private int[] nodeIds = new int[64];
+    private int[] parentIds = new int[64];
+    private int[] levels = new int[64];
+    private int depth;
+
     /**
      * Creates a Depth First Search object with a given branching
      * that defines the search tree dynamically.
@@ -107,15 +120,27 @@ public class DFSearch {
         dfsListeners.forEach(l -> l.branch(parentId, nodeId, position, nChilds));
     }
 
-    private SearchStatistics solve(SearchStatistics statistics, Predicate<SearchStatistics> limit) {
-        currNodeIdId = 0;
+    SearchStatistics solve(SearchStatistics statistics, Predicate<SearchStatistics> limit) {
+        return solve(statistics, limit, true);
+    }
+
+    /**
+     * Runs the search, numbering the nodes from 0
+     * or after the nodes of the previous run,
+     * such that the node ids seen by the {@link DFSListener}
+     * are unique over successive runs, as in a {@link RestartSearch}.
+     */
+    SearchStatistics solve(SearchStatistics statistics, Predicate<SearchStatistics> limit, boolean resetNodeIds) {
+        if (resetNodeIds)
+            currNodeIdId = 0;
         sm.withNewState(() -> {
             try {
-                dfs(statistics, limit , -1, -1);
+                dfs(statistics, limit);
                 statistics.setCompleted();
             } catch (StopSearchException ignored) {
-            } catch (StackOverflowError e) {
-                throw new NotImplementedException("dfs with explicit stack needed to pass this test");
+            } finally {
+                Arrays.fill(branches, 0, depth, null);
+                depth = 0;
             }
         });
         return statistics;
@@ -167,6 +192,7 @@ public class DFSearch {
         SearchStatistics statistics = new SearchStatistics();
         sm.withNewState(() -> {
             try {
+                sm.recordDecision(subjectTo);
                 subjectTo.call();
                 solve(statistics, limit);
             } catch (InconsistencyException e) {
@@ -225,45 +251,109 @@ public class DFSearch {
      * @return an object with the statistics on the search
      */
     public SearchStatistics optimizeSubjectTo(Objective obj, Predicate<SearchStatistics> limit, Procedure subjectTo) {
-        AtomicReference<SearchStatistics> statistics = new AtomicReference<>();
-        statistics.set(new SearchStatistics());
+        SearchStatistics statistics = new SearchStatistics();
         sm.withNewState(() -> {
             try {
+                sm.recordDecision(subjectTo);
                 subjectTo.call();
-                statistics.set(optimize(obj, limit));
+                onSolution(() -> obj.tighten());
+                solve(statistics, limit);
             } catch (InconsistencyException e) {
+                // also thrown when the state after subjectTo is recomputed
+                // under the tightened objective
             }
         });
-        return statistics.get();
+        return statistics;
     }
 
 
-    private void dfs(SearchStatistics statistics, Predicate<SearchStatistics> limit, int parentId, int position) {
+    private void dfs(SearchStatistics statistics, Predicate<SearchStatistics> limit) {
+        depth = 0;
+        expand(statistics, limit, -1, -1);
+        while (depth > 0) {
+            final int top = depth - 1;
+            final int p = positions[top];
+            if (p == branches[top].length) {
+                // all the children are explored
+                branches[top] = null;
+                depth--;
+                backtrack(statistics);
+                continue;
+            }
+            Procedure b = branches[top][p];
+            positions[top] = p + 1;
+            sm.saveState();
+            try {
+                statistics.incrNodes();
+                sm.recordDecision(b);
+                b.call();
+                if (expand(statistics, limit, nodeIds[top], p))
+                    continue;
+            } catch (InconsistencyException e) {
+                currNodeIdId++;
+                statistics.incrFailures();
+                notifyFailure(parentIds[top], nodeIds[top], p);
+            }
+            backtrack(statistics);
+        }
+    }
+
+    /**
+     * Visits the node reached in the current state.
+     *
+     * @return true if the node has children,
+     *         it is then pushed on the stack
+     */
+    private boolean expand(SearchStatistics statistics, Predicate<SearchStatistics> limit, int parentId, int position) {
         if (limit.test(statistics))
             throw new StopSearchException();
-        Procedure[] branches = branching.get();
+        Procedure[] alternatives = branching.get();
         final int nodeId = currNodeIdId++;
 
-        if (branches.length == 0) {
+        if (alternatives.length == 0) {
             statistics.incrSolutions();
-            notifySolution(parentId,nodeId, position);
-        } else {
-            notifyBranch(parentId,nodeId, position, branches.length);
-            int pos = 0;
-            for (Procedure b : branches) {
-                final int p = pos;
-                sm.withNewState(() -> {
-                    try {
-                        statistics.incrNodes();
-                        b.call();
-                        dfs(statistics, limit, nodeId, p);
-                    } catch (InconsistencyException e) {
-                        currNodeIdId++;
-                        statistics.incrFailures();
-                        notifyFailure(parentId,nodeId, p);
-                    }
-                });
-                pos += 1;
+            notifySolution(parentId, nodeId, position);
+            return false;
+        }
+        notifyBranch(parentId, nodeId, position, alternatives.length);
+        if (depth == branches.length) {
+            branches = Arrays.copyOf(branches, depth * 2);
+            positions = Arrays.copyOf(positions, depth * 2);
+            nodeIds = Arrays.copyOf(nodeIds, depth * 2);
+            parentIds = Arrays.copyOf(parentIds, depth * 2);
+            levels = Arrays.copyOf(levels, depth * 2);
+        }
+        branches[depth] = alternatives;
+        positions[depth] = 0;
+        nodeIds[depth] = nodeId;
+        parentIds[depth] = parentId;
+        levels[depth] = sm.getLevel();
+        depth++;
+        return true;
+    }
+
+    /**
+     * Restores the state of the node on top of the stack
+     * once one of its children is explored.
+     * If the restoration fails, as it may when the state is recomputed,
+     * the node is inconsistent: it is popped
+     * and counted as a failed child of its parent, whose state is restored in turn.
+     */
+    private void backtrack(SearchStatistics statistics) {
+        while (depth > 0) {
+            final int top = depth - 1;
+            try {
+                sm.restoreStateUntil(levels[top]);
+                return;
+            } catch (InconsistencyException e) {
+                branches[top] = null;
+                depth--;
+                if (depth == 0)
+                    throw e;
+                final int parent = depth - 1;
+                currNodeIdId++;
+                statistics.incrFailures();
+                notifyFailure(parentIds[parent], nodeIds[parent], positions[parent] - 1);
             }
         }
     }
@@ -0,0 +1,227 @@
+/*
+ * mini-cp is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License  v3
+ * as published by the Free Software Foundation.
+ *
+ * mini-cp is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY.
+ * See the GNU Lesser General Public License  for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with mini-cp. If not, see http://www.gnu.org/licenses/lgpl-3.0.en.html
+ *
+ * Copyright (c)  2018. by Laurent Michel, Pierre Schaus, Pascal Van Hentenryck
+ */
+
+package minicp.search;
+
+import minicp.engine.core.Solver;
+import minicp.state.StateManager;
+import minicp.util.Procedure;
+import minicp.util.exception.InconsistencyException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Embarrassingly Parallel Search (EPS).
+ * <p>
+ * The search tree is first explored up to a given depth
+ * on a model built by the factory.
+ * Each open node at this depth is a subproblem,
+ * stored as the path of the alternatives leading to it from the root.
+ * The subproblems are then solved in this order by a pool of workers:
+ * each worker builds its own model with the factory,
+ * replays the path of a subproblem and runs a {@link DFSearch} below it.
+ * <p>
+ * If the model has an objective, the search is a branch and bound
+ * whose bound is shared by the workers through a {@link SharedObjective}.
+ * The path of a subproblem is replayed without this bound,
+ * such that the branching gives the same alternatives as during the decomposition.
+ */
+public class EmbarrassinglyParallelSearch {
+
+    private final Supplier<SearchModel> modelFactory;
+    private final int nWorkers;
+    private final int depth;
+
+    private SharedObjective objective;
+    private int nSubproblems;
+
+    /**
+     * Creates an embarrassingly parallel search.
+     *
+     * @param modelFactory builds the model, called once for the decomposition
+     *                     and once by each worker. The models must be identical.
+     * @param nWorkers the number of threads solving the subproblems
+     * @param depth the depth of the subproblems in the search tree
+     */
+    public EmbarrassinglyParallelSearch(Supplier<SearchModel> modelFactory, int nWorkers, int depth) {
+        if (nWorkers < 1) throw new IllegalArgumentException("nWorkers must be at least 1");
+        if (depth < 0) throw new IllegalArgumentException("depth must be non negative");
+        this.modelFactory = modelFactory;
+        this.nWorkers = nWorkers;
+        this.depth = depth;
+    }
+
+    /**
+     * Returns the number of subproblems of the last search.
+     *
+     * @return the number of open nodes at the decomposition depth
+     */
+    public int numberOfSubproblems() {
+        return nSubproblems;
+    }
+
+    /**
+     * Returns the best objective value found by the last search.
+     *
+     * @return the best value of the minimized variable,
+     *         {@link Integer#MAX_VALUE} if there is none
+     */
+    public int best() {
+        return objective.best();
+    }
+
+    /**
+     * Effectively start the search looking for every solution,
+     * or for an optimal one if the model has an objective.
+     *
+     * @return an object with the statistics on the search,
+     *         summed over the decomposition and the workers
+     */
+    public SearchStatistics solve() {
+        return solve(stats -> false);
+    }
+
+    /**
+     * Effectively start the search
+     * with a given predicate called at each node
+     * to stop the search when it becomes true.
+     * The predicate is evaluated on the statistics of each worker:
+     * once it is true for one of them, all the workers stop.
+     *
+     * @param limit a predicate called at each node of the workers
+     *             that stops the search when it becomes true
+     * @return an object with the statistics on the search,
+     *         summed over the decomposition and the workers
+     */
+    public SearchStatistics solve(Predicate<SearchStatistics> limit) {
+        objective = new SharedObjective();
+        SearchStatistics statistics = new SearchStatistics();
+        List<int[]> subproblems = new ArrayList<>();
+        SearchModel master = modelFactory.get();
+        StateManager sm = master.getSolver().getStateManager();
+        sm.withNewState(() -> decompose(master, new int[depth], 0, subproblems, statistics));
+        nSubproblems = subproblems.size();
+
+        AtomicInteger next = new AtomicInteger();
+        AtomicBoolean stop = new AtomicBoolean();
+        List<Callable<SearchStatistics>> workers = new ArrayList<>();
+        for (int w = 0; w < Math.min(nWorkers, subproblems.size()); w++)
+            workers.add(() -> work(subproblems, next, stop, limit));
+        for (SearchStatistics s : ParallelSearch.invokeAll(nWorkers, workers))
+            statistics.add(s);
+        if (!stop.get())
+            statistics.setCompleted();
+        return statistics;
+    }
+
+    private void decompose(SearchModel model, int[] path, int d, List<int[]> subproblems, SearchStatistics statistics) {
+        Procedure[] branches = model.getBranching().get();
+        if (branches.length == 0) {
+            statistics.incrSolutions();
+            solutionFound(model);
+            return;
+        }
+        if (d == depth) {
+            subproblems.add(Arrays.copyOf(path, d));
+            return;
+        }
+        StateManager sm = model.getSolver().getStateManager();
+        for (int i = 0; i < branches.length; i++) {
+            final Procedure b = branches[i];
+            path[d] = i;
+            sm.withNewState(() -> {
+                try {
+                    statistics.incrNodes();
+                    sm.recordDecision(b);
+                    b.call();
+                    decompose(model, path, d + 1, subproblems, statistics);
+                } catch (InconsistencyException e) {
+                    statistics.incrFailures();
+                }
+            });
+        }
+    }
+
+    private SearchStatistics work(List<int[]> subproblems, AtomicInteger next, AtomicBoolean stop,
+                                  Predicate<SearchStatistics> limit) {
+        try {
+            SearchStatistics statistics = new SearchStatistics();
+            SearchModel model = modelFactory.get();
+            Solver cp = model.getSolver();
+            StateManager sm = cp.getStateManager();
+            SharedObjective.Local bound = model.getObjective() == null ? null : objective.minimize(model.getObjective());
+            DFSearch dfs = new DFSearch(sm, model.getBranching());
+            dfs.onSolution(() -> solutionFound(model));
+            Predicate<SearchStatistics> workerLimit = stats -> {
+                if (limit.test(stats))
+                    stop.set(true);
+                return stop.get();
+            };
+
+            for (int i = next.getAndIncrement(); i < subproblems.size() && !stop.get(); i = next.getAndIncrement()) {
+                final int[] path = subproblems.get(i);
+                Procedure subproblem = () -> {
+                    replay(model, path, bound);
+                    cp.fixPoint();
+                };
+                sm.withNewState(() -> {
+                    try {
+                        sm.recordDecision(subproblem);
+                        subproblem.call();
+                        dfs.solve(statistics, workerLimit);
+                    } catch (InconsistencyException e) {
+                        statistics.incrFailures();
+                    }
+                });
+            }
+            return statistics;
+        } catch (RuntimeException | Error e) {
+            // the other workers would go on with the remaining subproblems
+            stop.set(true);
+            throw e;
+        }
+    }
+
+    /**
+     * Applies the alternatives of a path from the root
+     * without the shared bound.
+     */
+    private static void replay(SearchModel model, int[] path, SharedObjective.Local bound) {
+        if (bound != null)
+            bound.pin(Integer.MAX_VALUE);
+        try {
+            for (int p : path) {
+                Procedure[] branches = model.getBranching().get();
+                if (p >= branches.length)
+                    throw new IllegalStateException("the branching is not deterministic");
+                branches[p].call();
+            }
+        } finally {
+            if (bound != null)
+                bound.unpin();
+        }
+    }
+
+    private void solutionFound(SearchModel model) {
+        ParallelSearch.solutionFound(objective, model);
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * mini-cp is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License  v3
+ * as published by the Free Software Foundation.
+ *
+ * mini-cp is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY.
+ * See the GNU Lesser General Public License  for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with mini-cp. If not, see http://www.gnu.org/licenses/lgpl-3.0.en.html
+ *
+ * Copyright (c)  2018. by Laurent Michel, Pierre Schaus, Pascal Van Hentenryck
+ */
+
+package minicp.search;
+
+import minicp.engine.core.IntVar;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Helpers shared by the parallel searches:
+ * {@link EmbarrassinglyParallelSearch}, {@link WorkStealingSearch}
+ * and {@link Portfolio}.
+ */
+final class ParallelSearch {
+
+    private ParallelSearch() {
+    }
+
+    /**
+     * Runs tasks on their own pool of threads and waits for all of them.
+     * A task that fails is expected to stop the other ones
+     * before its exception is rethrown here.
+     *
+     * @param parallelism the number of threads
+     * @param tasks the tasks to run
+     * @param <T> the type of the results
+     * @return the results of the tasks, in the order of the tasks
+     */
+    static <T> List<T> invokeAll(int parallelism, Collection<? extends Callable<T>> tasks) {
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            List<T> results = new ArrayList<>(tasks.size());
+            for (Future<T> f : pool.invokeAll(tasks))
+                results.add(f.get());
+            return results;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException)
+                throw (RuntimeException) e.getCause();
+            if (e.getCause() instanceof Error)
+                throw (Error) e.getCause();
+            throw new RuntimeException(e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Notifies the solution listeners of a model if it has no objective
+     * or if its solution improves the shared best value.
+     * The listeners of the models sharing the objective
+     * are called by one thread at a time.
+     *
+     * @param objective the objective shared by the models
+     * @param model the model whose solver is on a solution
+     */
+    static void solutionFound(SharedObjective objective, SearchModel model) {
+        synchronized (objective) {
+            IntVar x = model.getObjective();
+            if (x == null || objective.improve(x.min()))
+                model.notifySolution();
+        }
+    }
+}
@@ -0,0 +1,184 @@
+/*
+ * mini-cp is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License  v3
+ * as published by the Free Software Foundation.
+ *
+ * mini-cp is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY.
+ * See the GNU Lesser General Public License  for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with mini-cp. If not, see http://www.gnu.org/licenses/lgpl-3.0.en.html
+ *
+ * Copyright (c)  2018. by Laurent Michel, Pierre Schaus, Pascal Van Hentenryck
+ */
+
+package minicp.search;
+
+import minicp.engine.core.Minimize;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Parallel portfolio of branch and bound searches.
+ * <p>
+ * Each member is built by its own factory in its own thread:
+ * a solver with its model, its {@link DFSearch} and its objective,
+ * for instance the same model searched with different heuristics.
+ * The members minimize the same function and share their bound:
+ * each {@link Minimize} sees the best value found by any member at its next fixpoint.
+ * The portfolio stops as soon as a member completes its search,
+ * which proves that the best value found is optimal.
+ */
+public class Portfolio {
+
+    /**
+     * A search of the portfolio.
+     */
+    public static class Member {
+        private final DFSearch dfs;
+        private final Objective objective;
+        private final boolean complete;
+
+        /**
+         * Creates a member whose search explores the whole tree.
+         *
+         * @param dfs the search, its solution listeners may be called
+         *            concurrently with the ones of the other members
+         * @param objective the objective created by the solver of the search,
+         *                  a {@link Minimize}
+         */
+        public Member(DFSearch dfs, Objective objective) {
+            this(dfs, objective, true);
+        }
+
+        /**
+         * Creates a member.
+         *
+         * @param dfs the search, its solution listeners may be called
+         *            concurrently with the ones of the other members
+         * @param objective the objective created by the solver of the search,
+         *                  a {@link Minimize}
+         * @param complete false if the search may end without proving optimality,
+         *                 as with a {@link LimitedDiscrepancyBranching}
+         */
+        public Member(DFSearch dfs, Objective objective, boolean complete) {
+            if (!(objective instanceof Minimize))
+                throw new IllegalArgumentException("the objective must be a Minimize");
+            this.dfs = dfs;
+            this.objective = objective;
+            this.complete = complete;
+        }
+    }
+
+    private final List<Supplier<Member>> factories = new ArrayList<>();
+
+    private SharedObjective shared;
+    private int winner = -1;
+    private SearchStatistics[] statistics;
+
+    /**
+     * Adds a member to the portfolio.
+     *
+     * @param factory builds the member, it is called in the thread of the member
+     * @return this portfolio
+     */
+    public Portfolio add(Supplier<Member> factory) {
+        factories.add(factory);
+        return this;
+    }
+
+    /**
+     * Returns the best objective value found by the last search.
+     *
+     * @return the best value of the minimized variable,
+     *         {@link Integer#MAX_VALUE} if there is none
+     */
+    public int best() {
+        return shared.best();
+    }
+
+    /**
+     * Returns the member that proved optimality in the last search.
+     *
+     * @return the index of the member in the order of {@link #add(Supplier)},
+     *         -1 if none completed
+     */
+    public int winner() {
+        return winner;
+    }
+
+    /**
+     * Returns the statistics of a member in the last search.
+     *
+     * @param member the index of the member in the order of {@link #add(Supplier)}
+     * @return the statistics of its search
+     */
+    public SearchStatistics statistics(int member) {
+        return statistics[member];
+    }
+
+    /**
+     * Effectively start the searches of all the members.
+     *
+     * @return an object with the statistics on the searches, summed over the members,
+     *         that is completed if optimality is proved
+     */
+    public SearchStatistics optimize() {
+        return optimize(stats -> false);
+    }
+
+    /**
+     * Effectively start the searches of all the members
+     * with a given predicate called at each node
+     * to stop the search of a member when it becomes true.
+     *
+     * @param limit a predicate called at each node of a member with its statistics
+     *             that stops its search when it becomes true
+     * @return an object with the statistics on the searches, summed over the members,
+     *         that is completed if optimality is proved
+     */
+    public SearchStatistics optimize(Predicate<SearchStatistics> limit) {
+        shared = new SharedObjective();
+        statistics = new SearchStatistics[factories.size()];
+        AtomicInteger proved = new AtomicInteger(-1);
+        AtomicBoolean stop = new AtomicBoolean();
+        List<Callable<SearchStatistics>> tasks = new ArrayList<>();
+        for (int i = 0; i < factories.size(); i++) {
+            final int id = i;
+            tasks.add(() -> {
+                try {
+                    Member member = factories.get(id).get();
+                    ((Minimize) member.objective).share(shared);
+                    SearchStatistics stats = member.dfs.optimize(member.objective,
+                            s -> stop.get() || limit.test(s));
+                    // the first member that completes proves optimality,
+                    // whether or not the search was stopped meanwhile
+                    if (stats.isCompleted() && member.complete && proved.compareAndSet(-1, id))
+                        stop.set(true);
+                    return stats;
+                } catch (RuntimeException | Error e) {
+                    stop.set(true);
+                    throw e;
+                }
+            });
+        }
+
+        SearchStatistics total = new SearchStatistics();
+        List<SearchStatistics> results = ParallelSearch.invokeAll(Math.max(1, factories.size()), tasks);
+        for (int i = 0; i < results.size(); i++) {
+            statistics[i] = results.get(i);
+            total.add(statistics[i]);
+        }
+        winner = proved.get();
+        if (winner >= 0)
+            total.setCompleted();
+        return total;
+    }
+}
@@ -0,0 +1,244 @@
+/*
+ * mini-cp is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License  v3
+ * as published by the Free Software Foundation.
+ *
+ * mini-cp is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY.
+ * See the GNU Lesser General Public License  for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with mini-cp. If not, see http://www.gnu.org/licenses/lgpl-3.0.en.html
+ *
+ * Copyright (c)  2018. by Laurent Michel, Pierre Schaus, Pascal Van Hentenryck
+ */
+
+package minicp.search;
+
+import minicp.state.StateManager;
+import minicp.util.Procedure;
+
+import java.util.LinkedList;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Depth First Search restarted from the root
+ * each time a number of failures given by a {@link Schedule} is reached.
+ * <p>
+ * Each run is a {@link DFSearch} with the same branching.
+ * Between two runs, the state is restored to the root at once
+ * while everything that is not stored in the state manager is kept:
+ * the bound of the {@link Objective}, the incumbent recorded
+ * by the solution listeners and what the heuristics learned,
+ * for instance from the failures reported to {@link #onFailure(Procedure)}.
+ * The search ends when a run explores its whole tree or
+ * when the limit given to the search is reached,
+ * see {@link #constant(int)} for a schedule that may never end.
+ */
+public class RestartSearch {
+
+    /**
+     * The number of failures allowed for each run.
+     */
+    @FunctionalInterface
+    public interface Schedule {
+        /**
+         * Returns the failure limit of a run.
+         *
+         * @param restart the index of the run, starting at 0
+         * @return the number of failures after which the run is restarted
+         */
+        int failureLimit(int restart);
+    }
+
+    /**
+     * Returns the schedule allowing the same number of failures to each run.
+     * <p>
+     * The search is only complete if the runs differ:
+     * with a deterministic branching that learns nothing from the
+     * previous runs, each run explores the same tree, so the search never
+     * ends if it needs more failures than the limit, unless a limit is
+     * given to {@link #solve(Predicate)} or {@link #optimize(Objective, Predicate)}.
+     * Use it with a randomized branching, or prefer {@link #geometric(int, double)}
+     * or {@link #luby(int)} whose limit grows without bound.
+     *
+     * @param limit the number of failures of each run
+     * @return a constant schedule
+     */
+    public static Schedule constant(int limit) {
+        if (limit < 1) throw new IllegalArgumentException("limit must be at least 1");
+        return restart -> limit;
+    }
+
+    /**
+     * Returns the schedule multiplying the failure limit by a constant factor at each run:
+     * scale, scale * growth, scale * growth^2, ...
+     *
+     * @param scale the failure limit of the first run
+     * @param growth the factor applied at each restart, at least 1
+     * @return a geometric schedule
+     */
+    public static Schedule geometric(int scale, double growth) {
+        if (scale < 1) throw new IllegalArgumentException("scale must be at least 1");
+        if (growth < 1) throw new IllegalArgumentException("growth must be at least 1");
+        return restart -> (int) Math.min(Integer.MAX_VALUE, Math.ceil(scale * Math.pow(growth, restart)));
+    }
+
+    /**
+     * Returns the schedule of Luby et al. multiplied by a constant:
+     * scale * (1, 1, 2, 1, 1, 2, 4, 1, 1, 2, 1, 1, 2, 4, 8, ...).
+     *
+     * @param scale the failure limit of a unit run
+     * @return a Luby schedule
+     */
+    public static Schedule luby(int scale) {
+        if (scale < 1) throw new IllegalArgumentException("scale must be at least 1");
+        return restart -> (int) Math.min(Integer.MAX_VALUE, (long) scale * lubyTerm(restart + 1));
+    }
+
+    /**
+     * Returns the i-th term of the Luby sequence.
+     *
+     * @param i the index of the term, starting at 1
+     * @return 2^(k-1) if i = 2^k - 1, lubyTerm(i - 2^(k-1) + 1) if 2^(k-1) &lt;= i &lt; 2^k - 1
+     */
+    static long lubyTerm(int i) {
+        while (true) {
+            int k = 1;
+            while ((1L << k) - 1 < i)
+                k++;
+            if ((1L << k) - 1 == i)
+                return 1L << (k - 1);
+            i -= (1 << (k - 1)) - 1;
+        }
+    }
+
+    private final StateManager sm;
+    private final DFSearch dfs;
+    private final Schedule schedule;
+    private final List<Procedure> restartListeners = new LinkedList<>();
+
+    /**
+     * Creates a restarted Depth First Search with a given branching.
+     *
+     * @param sm the state manager that will be saved and restored
+     *           at each node of the search tree
+     * @param branching a generator of closures in charge of defining the ordered
+     *                  children nodes at each node of the depth-first-search tree,
+     *                  as for {@link DFSearch}
+     * @param schedule the failure limit of each run
+     */
+    public RestartSearch(StateManager sm, Supplier<Procedure[]> branching, Schedule schedule) {
+        this.sm = sm;
+        this.dfs = new DFSearch(sm, branching);
+        this.schedule = schedule;
+    }
+
+    /**
+     * Adds a listener that is called on each solution.
+     *
+     * @param listener the closure to be called whenever a solution is found
+     */
+    public void onSolution(Procedure listener) {
+        dfs.onSolution(listener);
+    }
+
+    /**
+     * Adds a listener that is called whenever a failure occurs
+     * and the search backtracks.
+     *
+     * @param listener the closure to be called whenever a failure occurs
+     */
+    public void onFailure(Procedure listener) {
+        dfs.onFailure(listener);
+    }
+
+    /**
+     * Adds a listener that is called at each restart,
+     * once the state is restored to the root.
+     *
+     * @param listener the closure to be called before each run but the first one
+     */
+    public void onRestart(Procedure listener) {
+        restartListeners.add(listener);
+    }
+
+    public void addListener(DFSListener listener) {
+        dfs.addListener(listener);
+    }
+
+    /**
+     * Effectively start the restarted search
+     * looking for a solution.
+     *
+     * @return an object with the statistics on the search
+     */
+    public SearchStatistics solve() {
+        return solve(stats -> stats.numberOfSolutions() >= 1);
+    }
+
+    /**
+     * Effectively start the restarted search
+     * with a given predicate called at each node
+     * to stop the search when it becomes true.
+     * Since each run starts again from the root, a solution
+     * may be found several times unless the predicate stops the search.
+     *
+     * @param limit a predicate called at each node
+     *             that stops the search when it becomes true
+     * @return an object with the statistics on the search,
+     *         summed over the runs
+     */
+    public SearchStatistics solve(Predicate<SearchStatistics> limit) {
+        SearchStatistics statistics = new SearchStatistics();
+        final int level = sm.getLevel();
+        for (int restart = 0; ; restart++) {
+            if (restart > 0) {
+                statistics.incrRestarts();
+                restartListeners.forEach(Procedure::call);
+            }
+            final long start = statistics.numberOfFailures();
+            final long failureLimit = schedule.failureLimit(restart);
+            // the node ids keep increasing over the runs
+            dfs.solve(statistics, stats -> limit.test(stats) || stats.numberOfFailures() - start >= failureLimit,
+                    restart == 0);
+            // the run restores its state with a single restoreStateUntil
+            assert sm.getLevel() == level;
+            if (statistics.isCompleted() || limit.test(statistics))
+                return statistics;
+        }
+    }
+
+    /**
+     * Effectively start a restarted branch and bound
+     * depth first search with a given objective.
+     * It ends when a run proves that no better solution exists.
+     *
+     * @param obj the objective to optimize that is tightened each
+     *            time a new solution is found
+     * @return an object with the statistics on the search
+     */
+    public SearchStatistics optimize(Objective obj) {
+        return optimize(obj, stats -> false);
+    }
+
+    /**
+     * Effectively start a restarted branch and bound
+     * depth first search with a given objective
+     * and with a given predicate called at each node
+     * to stop the search when it becomes true.
+     *
+     * @param obj the objective to optimize that is tightened each
+     *            time a new solution is found
+     * @param limit a predicate called at each node
+     *             that stops the search when it becomes true
+     * @return an object with the statistics on the search,
+     *         summed over the runs
+     */
+    public SearchStatistics optimize(Objective obj, Predicate<SearchStatistics> limit) {
+        dfs.onSolution(() -> obj.tighten());
+        return solve(limit);
+    }
+}
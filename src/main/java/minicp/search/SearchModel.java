@@ -0,0 +1,109 @@
+/*
+ * mini-cp is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License  v3
+ * as published by the Free Software Foundation.
+ *
+ * mini-cp is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY.
+ * See the GNU Lesser General Public License  for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with mini-cp. If not, see http://www.gnu.org/licenses/lgpl-3.0.en.html
+ *
+ * Copyright (c)  2018. by Laurent Michel, Pierre Schaus, Pascal Van Hentenryck
+ */
+
+package minicp.search;
+
+import minicp.cp.Factory;
+import minicp.engine.core.IntVar;
+import minicp.engine.core.Solver;
+import minicp.util.Procedure;
+
+import java.util.LinkedList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * A model as seen by the parallel searches:
+ * a solver with its branching, an optional objective to minimize
+ * and the listeners to call on the solutions.
+ * <p>
+ * Each thread builds its own model with a factory,
+ * the variables of a model must only be read from its solution listeners.
+ */
+public class SearchModel {
+
+    private final Solver cp;
+    private final Supplier<Procedure[]> branching;
+    private IntVar objective;
+    private final List<Procedure> solutionListeners = new LinkedList<>();
+
+    /**
+     * Creates a model.
+     *
+     * @param cp the solver holding the variables and the constraints
+     * @param branching the branching defining the search tree, as for {@link DFSearch}.
+     *                  It must be deterministic: the same state must always give
+     *                  the same alternatives
+     */
+    public SearchModel(Solver cp, Supplier<Procedure[]> branching) {
+        this.cp = cp;
+        this.branching = branching;
+    }
+
+    /**
+     * Sets the variable to minimize.
+     *
+     * @param x the objective variable
+     * @return this model
+     */
+    public SearchModel minimize(IntVar x) {
+        this.objective = x;
+        return this;
+    }
+
+    /**
+     * Sets the variable to maximize.
+     *
+     * @param x the objective variable
+     * @return this model
+     */
+    public SearchModel maximize(IntVar x) {
+        return minimize(Factory.minus(x));
+    }
+
+    /**
+     * Adds a listener that is called on each solution of this model
+     * kept by the search.
+     * The listeners of the different models are never called concurrently.
+     *
+     * @param listener the closure to be called on the solutions
+     * @return this model
+     */
+    public SearchModel onSolution(Procedure listener) {
+        solutionListeners.add(listener);
+        return this;
+    }
+
+    public Solver getSolver() {
+        return cp;
+    }
+
+    public Supplier<Procedure[]> getBranching() {
+        return branching;
+    }
+
+    /**
+     * Returns the variable to minimize.
+     *
+     * @return the objective variable, or null for a satisfaction problem
+     */
+    public IntVar getObjective() {
+        return objective;
+    }
+
+    void notifySolution() {
+        solutionListeners.forEach(Procedure::call);
+    }
+}
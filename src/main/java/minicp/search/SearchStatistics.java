@@ -26,12 +26,14 @@ public class SearchStatistics {
     private int nFailures = 0;
     private int nNodes = 0;
     private int nSolutions = 0;
+    private int nRestarts = 0;
     private boolean completed = false;
 
     public String toString() {
         return "\n\t#choice: " + nNodes
                 + "\n\t#fail: " + nFailures
                 + "\n\t#sols : " + nSolutions
+                + "\n\t#restarts : " + nRestarts
                 + "\n\tcompleted : " + completed + "\n";
     }
 
@@ -47,6 +49,23 @@ public class SearchStatistics {
         nSolutions++;
     }
 
+    public void incrRestarts() {
+        nRestarts++;
+    }
+
+    /**
+     * Adds the counts of another search,
+     * its completion is ignored.
+     *
+     * @param other the statistics to add
+     */
+    void add(SearchStatistics other) {
+        nFailures += other.nFailures;
+        nNodes += other.nNodes;
+        nSolutions += other.nSolutions;
+        nRestarts += other.nRestarts;
+    }
+
     public void setCompleted() {
         completed = true;
     }
@@ -63,6 +82,10 @@ public class SearchStatistics {
         return nSolutions;
     }
 
+    public int numberOfRestarts() {
+        return nRestarts;
+    }
+
     public boolean isCompleted() {
         return completed;
     }
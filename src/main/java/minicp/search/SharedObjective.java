@@ -0,0 +1,124 @@
+/*
+ * mini-cp is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License  v3
+ * as published by the Free Software Foundation.
+ *
+ * mini-cp is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY.
+ * See the GNU Lesser General Public License  for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with mini-cp. If not, see http://www.gnu.org/licenses/lgpl-3.0.en.html
+ *
+ * Copyright (c)  2018. by Laurent Michel, Pierre Schaus, Pascal Van Hentenryck
+ */
+
+package minicp.search;
+
+import minicp.engine.core.IntVar;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Minimization objective whose bound is shared
+ * by solvers running on different threads.
+ * <p>
+ * Each solver gets its own {@link Objective} with {@link #minimize(IntVar)}:
+ * like {@link minicp.engine.core.Minimize}, it removes from its variable
+ * the values that do not improve the best solution,
+ * but it reads the best value found by any solver at each fixpoint.
+ */
+public class SharedObjective {
+
+    private final AtomicInteger best = new AtomicInteger(Integer.MAX_VALUE);
+
+    /**
+     * Returns the best objective value found so far.
+     *
+     * @return the best value, {@link Integer#MAX_VALUE} if none
+     */
+    public int best() {
+        return best.get();
+    }
+
+    /**
+     * Records a solution.
+     *
+     * @param value the objective value of the solution
+     * @return true if the value is better than the best one
+     */
+    public boolean improve(int value) {
+        int b = best.get();
+        while (value < b) {
+            if (best.compareAndSet(b, value))
+                return true;
+            b = best.get();
+        }
+        return false;
+    }
+
+    /**
+     * Creates the objective of a solver minimizing x
+     * under the shared bound.
+     *
+     * @param x the variable to minimize
+     * @return an objective to be used in the {@link DFSearch#optimize(Objective)}
+     *         of the solver of x
+     */
+    public Local minimize(IntVar x) {
+        return new Local(x);
+    }
+
+    /**
+     * The objective of one of the solvers.
+     */
+    public class Local implements Objective {
+
+        private final IntVar x;
+        private boolean pinned = false;
+        private int pinnedBound;
+
+        private Local(IntVar x) {
+            this.x = x;
+            x.getSolver().onFixPoint(() -> x.removeAbove(bound() - 1));
+        }
+
+        /**
+         * Makes the fixpoints use a given best value instead of the shared one,
+         * for instance to replay a decision path exactly as it was first applied.
+         *
+         * @param best the value to use until {@link #unpin()} or the next pin
+         */
+        public void pin(int best) {
+            pinned = true;
+            pinnedBound = best;
+        }
+
+        /**
+         * Makes the fixpoints use the shared best value again.
+         */
+        public void unpin() {
+            pinned = false;
+        }
+
+        /**
+         * Returns the best value used by the fixpoints.
+         *
+         * @return the pinned value if any, the shared one otherwise
+         */
+        public int bound() {
+            return pinned ? pinnedBound : best.get();
+        }
+
+        @Override
+        public void tighten() {
+            if (!x.isFixed()) throw new RuntimeException("objective not fixed");
+            improve(x.max());
+        }
+
+        @Override
+        public String toString() {
+            return String.format("objective: %s", x.min());
+        }
+    }
+}
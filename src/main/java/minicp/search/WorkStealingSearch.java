@@ -0,0 +1,391 @@
+/*
+ * mini-cp is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License  v3
+ * as published by the Free Software Foundation.
+ *
+ * mini-cp is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY.
+ * See the GNU Lesser General Public License  for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with mini-cp. If not, see http://www.gnu.org/licenses/lgpl-3.0.en.html
+ *
+ * Copyright (c)  2018. by Laurent Michel, Pierre Schaus, Pascal Van Hentenryck
+ */
+
+package minicp.search;
+
+import minicp.state.StateManager;
+import minicp.util.Procedure;
+import minicp.util.exception.InconsistencyException;
+
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Parallel Depth First Search with work stealing.
+ * <p>
+ * Each worker builds its own model with the factory
+ * and explores its part of the tree as {@link DFSearch} does,
+ * with an explicit stack of the open nodes of its current path.
+ * The first worker starts at the root.
+ * An idle worker steals the last pending alternative of the oldest open node
+ * of another worker: the alternative is sent as the path of the alternatives
+ * leading to it from the root, that the thief replays on its own solver
+ * before exploring the subtree.
+ * Each alternative is applied by exactly one worker,
+ * such that the nodes, failures and solutions add up to the ones of a sequential search.
+ * An idle worker only locks the workers that have open nodes
+ * and backs off exponentially between unsuccessful rounds of steals,
+ * from spinning to parking up to a millisecond.
+ * <p>
+ * If the model has an objective, the search is a branch and bound
+ * whose bound is shared by the workers through a {@link SharedObjective}.
+ * The bound used when applying an alternative is pinned and recorded in the path,
+ * such that the replay gives the same states, hence the same alternatives, as the original.
+ * <p>
+ * The exploration loop is the one of {@link DFSearch}
+ * but the hooks of the workers are limited to {@link SearchModel#onSolution(Procedure)},
+ * called by one worker at a time: there are no failure listeners
+ * and no {@link DFSListener} since node ids are not shared between the workers.
+ */
+public class WorkStealingSearch {
+
+    // the idle workers spin for the first unsuccessful rounds of steals
+    // then park for a time doubling from MIN_PARK_NANOS to MAX_PARK_NANOS
+    private static final int SPINS = 8;
+    private static final long MIN_PARK_NANOS = 1_000;
+    private static final long MAX_PARK_NANOS = 1_000_000;
+
+    private final Supplier<SearchModel> modelFactory;
+    private final int nWorkers;
+
+    private SharedObjective objective;
+    private AtomicInteger nSteals;
+
+    /**
+     * Creates a work stealing search.
+     *
+     * @param modelFactory builds the model, called once by each worker.
+     *                     The models must be identical.
+     * @param nWorkers the number of threads
+     */
+    public WorkStealingSearch(Supplier<SearchModel> modelFactory, int nWorkers) {
+        if (nWorkers < 1) throw new IllegalArgumentException("nWorkers must be at least 1");
+        this.modelFactory = modelFactory;
+        this.nWorkers = nWorkers;
+    }
+
+    /**
+     * Returns the number of subtrees stolen during the last search.
+     *
+     * @return the number of successful steals
+     */
+    public int numberOfSteals() {
+        return nSteals.get();
+    }
+
+    /**
+     * Returns the best objective value found by the last search.
+     *
+     * @return the best value of the minimized variable,
+     *         {@link Integer#MAX_VALUE} if there is none
+     */
+    public int best() {
+        return objective.best();
+    }
+
+    /**
+     * Effectively start the search looking for every solution,
+     * or for an optimal one if the model has an objective.
+     *
+     * @return an object with the statistics on the search,
+     *         summed over the workers
+     */
+    public SearchStatistics solve() {
+        return solve(stats -> false);
+    }
+
+    /**
+     * Effectively start the search
+     * with a given predicate called at each node
+     * to stop the search when it becomes true.
+     * The predicate is evaluated on the statistics of each worker:
+     * once it is true for one of them, all the workers stop.
+     *
+     * @param limit a predicate called at each node
+     *             that stops the search when it becomes true
+     * @return an object with the statistics on the search,
+     *         summed over the workers
+     */
+    public SearchStatistics solve(Predicate<SearchStatistics> limit) {
+        objective = new SharedObjective();
+        nSteals = new AtomicInteger();
+        AtomicBoolean stop = new AtomicBoolean();
+        // the number of workers with a subtree, the first one has the root
+        AtomicInteger busy = new AtomicInteger(1);
+        Worker[] workers = new Worker[nWorkers];
+        for (int w = 0; w < nWorkers; w++)
+            workers[w] = new Worker(w, workers, busy, stop, limit);
+
+        SearchStatistics statistics = new SearchStatistics();
+        for (SearchStatistics s : ParallelSearch.invokeAll(nWorkers, Arrays.asList(workers)))
+            statistics.add(s);
+        if (!stop.get())
+            statistics.setCompleted();
+        return statistics;
+    }
+
+    private void solutionFound(SearchModel model) {
+        ParallelSearch.solutionFound(objective, model);
+    }
+
+    /**
+     * A subtree: the alternatives from the root and the bounds they were applied with.
+     */
+    private static class Path {
+        final int[] alternatives;
+        final int[] bounds;
+
+        Path(int[] alternatives, int[] bounds) {
+            this.alternatives = alternatives;
+            this.bounds = bounds;
+        }
+    }
+
+    private class Worker implements Callable<SearchStatistics> {
+
+        private final int id;
+        private final Worker[] workers;
+        private final AtomicInteger busy;
+        private final AtomicBoolean stop;
+        private final Predicate<SearchStatistics> limit;
+        private final SearchStatistics statistics = new SearchStatistics();
+
+        private SearchModel model;
+        private StateManager sm;
+        private Supplier<Procedure[]> branching;
+        private SharedObjective.Local bound;
+
+        // guarded by this: the root of the current subtree
+        // and the stack of its open nodes, as in DFSearch
+        private Path root;
+        private Procedure[][] branches = new Procedure[64][];
+        private int[] positions = new int[64];
+        private int[] ends = new int[64];
+        private int[] bounds = new int[64];
+        private int[] levels = new int[64];
+        // also read without the lock by the thieves, to skip workers without open nodes
+        private volatile int depth;
+
+        Worker(int id, Worker[] workers, AtomicInteger busy, AtomicBoolean stop, Predicate<SearchStatistics> limit) {
+            this.id = id;
+            this.workers = workers;
+            this.busy = busy;
+            this.stop = stop;
+            this.limit = limit;
+        }
+
+        @Override
+        public SearchStatistics call() {
+            try {
+                return work();
+            } catch (RuntimeException | Error e) {
+                // the other workers would wait for this one forever
+                stop.set(true);
+                throw e;
+            }
+        }
+
+        private SearchStatistics work() {
+            model = modelFactory.get();
+            sm = model.getSolver().getStateManager();
+            branching = model.getBranching();
+            bound = model.getObjective() == null ? null : objective.minimize(model.getObjective());
+            Path path = id == 0 ? new Path(new int[0], new int[0]) : null;
+            while (true) {
+                if (path != null) {
+                    explore(path);
+                    busy.decrementAndGet();
+                }
+                path = null;
+                for (int attempt = 0; path == null; attempt++) {
+                    if (stop.get() || busy.get() == 0)
+                        return statistics;
+                    path = steal();
+                    if (path == null)
+                        backoff(attempt);
+                }
+            }
+        }
+
+        private void backoff(int attempt) {
+            if (attempt < SPINS)
+                Thread.onSpinWait();
+            else
+                LockSupport.parkNanos(Math.min(MAX_PARK_NANOS, MIN_PARK_NANOS << Math.min(attempt - SPINS, 10)));
+        }
+
+        /**
+         * Steals the last pending alternative of the oldest open node of another worker.
+         * The busy count is increased before the victim can finish.
+         */
+        private Path steal() {
+            int start = ThreadLocalRandom.current().nextInt(workers.length);
+            for (int i = 0; i < workers.length; i++) {
+                Worker victim = workers[(start + i) % workers.length];
+                if (victim == this || victim.depth == 0)
+                    continue;
+                Path path = victim.giveAway();
+                if (path != null) {
+                    nSteals.incrementAndGet();
+                    return path;
+                }
+            }
+            return null;
+        }
+
+        private synchronized Path giveAway() {
+            int f = 0;
+            while (f < depth && positions[f] >= ends[f])
+                f++;
+            if (f == depth)
+                return null;
+            busy.incrementAndGet();
+            int n = root.alternatives.length;
+            int[] alternatives = Arrays.copyOf(root.alternatives, n + f + 1);
+            int[] pathBounds = Arrays.copyOf(root.bounds, n + f + 1);
+            for (int k = 0; k < f; k++) {
+                alternatives[n + k] = positions[k] - 1;
+                pathBounds[n + k] = bounds[k];
+            }
+            alternatives[n + f] = --ends[f];
+            // set by the thief when it applies the alternative
+            pathBounds[n + f] = Integer.MAX_VALUE;
+            return new Path(alternatives, pathBounds);
+        }
+
+        private void explore(Path path) {
+            final int n = path.alternatives.length;
+            if (n > 0 && bound != null)
+                path.bounds[n - 1] = objective.best();
+            synchronized (this) {
+                root = path;
+            }
+            Procedure replay = () -> {
+                for (int k = 0; k < n; k++) {
+                    if (bound != null)
+                        bound.pin(path.bounds[k]);
+                    branching.get()[path.alternatives[k]].call();
+                }
+            };
+            sm.withNewState(() -> {
+                try {
+                    if (n > 0) {
+                        // the last alternative of the path is the stolen node
+                        statistics.incrNodes();
+                        sm.recordDecision(replay);
+                        replay.call();
+                    }
+                    dfs();
+                } catch (InconsistencyException e) {
+                    statistics.incrFailures();
+                } catch (StopSearchException ignored) {
+                } finally {
+                    synchronized (this) {
+                        Arrays.fill(branches, 0, depth, null);
+                        depth = 0;
+                    }
+                }
+            });
+        }
+
+        private void dfs() {
+            expand();
+            while (true) {
+                final int top;
+                final int p;
+                final int b;
+                synchronized (this) {
+                    if (depth == 0)
+                        return;
+                    top = depth - 1;
+                    if (positions[top] < ends[top]) {
+                        p = positions[top]++;
+                        b = bound == null ? 0 : objective.best();
+                        bounds[top] = b;
+                    } else {
+                        // all the children are explored or given away
+                        branches[top] = null;
+                        depth--;
+                        p = -1;
+                        b = 0;
+                    }
+                }
+                if (p < 0) {
+                    if (top > 0)
+                        sm.restoreStateUntil(levels[top - 1]);
+                    continue;
+                }
+                Procedure alternative = branches[top][p];
+                Procedure decision = bound == null ? alternative : () -> {
+                    bound.pin(b);
+                    alternative.call();
+                };
+                sm.saveState();
+                try {
+                    statistics.incrNodes();
+                    sm.recordDecision(decision);
+                    decision.call();
+                    if (expand())
+                        continue;
+                } catch (InconsistencyException e) {
+                    statistics.incrFailures();
+                }
+                sm.restoreStateUntil(levels[top]);
+            }
+        }
+
+        /**
+         * Visits the node reached in the current state.
+         *
+         * @return true if the node has children,
+         *         it is then pushed on the stack
+         */
+        private boolean expand() {
+            if (stop.get())
+                throw new StopSearchException();
+            if (limit.test(statistics)) {
+                stop.set(true);
+                throw new StopSearchException();
+            }
+            Procedure[] alternatives = branching.get();
+            if (alternatives.length == 0) {
+                statistics.incrSolutions();
+                solutionFound(model);
+                return false;
+            }
+            synchronized (this) {
+                if (depth == branches.length) {
+                    branches = Arrays.copyOf(branches, depth * 2);
+                    positions = Arrays.copyOf(positions, depth * 2);
+                    ends = Arrays.copyOf(ends, depth * 2);
+                    bounds = Arrays.copyOf(bounds, depth * 2);
+                    levels = Arrays.copyOf(levels, depth * 2);
+                }
+                branches[depth] = alternatives;
+                positions[depth] = 0;
+                ends[depth] = alternatives.length;
+                levels[depth] = sm.getLevel();
+                depth++;
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * mini-cp is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License  v3
+ * as published by the Free Software Foundation.
+ *
+ * mini-cp is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY.
+ * See the GNU Lesser General Public License  for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with mini-cp. If not, see http://www.gnu.org/licenses/lgpl-3.0.en.html
+ *
+ * Copyright (c)  2018. by Laurent Michel, Pierre Schaus, Pascal Van Hentenryck
+ */
+
+package minicp.state;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing index of the int keys of a map.
+ * <p>
+ * The keys are numbered in insertion order and the values
+ * are stored by subclasses in arrays indexed by this number,
+ * that never changes, even when the hash table grows.
+ * The hash table uses linear probing and is only rebuilt
+ * in insertion order, such that the last inserted key can always
+ * be removed by clearing its slot. This is what makes the
+ * insertions reversible: they are undone in reverse order.
+ */
+abstract class AbstractIntKeyMap {
+
+    protected int[] keys;  // keys in insertion order
+    protected int count;   // number of keys
+    private int[] table;   // 1 + the insertion number of the key, 0 if the slot is empty
+    private int mask;
+
+    protected AbstractIntKeyMap() {
+        keys = new int[8];
+        table = new int[16];
+        mask = table.length - 1;
+        count = 0;
+    }
+
+    private static int hash(int k) {
+        int h = k * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Returns the insertion number of a key.
+     *
+     * @param k the key
+     * @return the insertion number of k, -1 if k is not in the map
+     */
+    protected int indexOf(int k) {
+        int h = hash(k) & mask;
+        while (table[h] != 0) {
+            int i = table[h] - 1;
+            if (keys[i] == k)
+                return i;
+            h = (h + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * Inserts a key that is not in the map.
+     *
+     * @param k the key, {@code indexOf(k) == -1}
+     * @return the insertion number of k
+     */
+    protected int insert(int k) {
+        if (count == keys.length) {
+            keys = Arrays.copyOf(keys, count * 2);
+            growValues(count * 2);
+        }
+        if (2 * (count + 1) > table.length) {
+            table = new int[table.length * 2];
+            mask = table.length - 1;
+            for (int i = 0; i < count; i++)
+                place(keys[i], i);
+        }
+        keys[count] = k;
+        place(k, count);
+        return count++;
+    }
+
+    private void place(int k, int i) {
+        int h = hash(k) & mask;
+        while (table[h] != 0)
+            h = (h + 1) & mask;
+        table[h] = i + 1;
+    }
+
+    /**
+     * Removes the last inserted key.
+     */
+    protected void removeLast() {
+        count--;
+        int h = hash(keys[count]) & mask;
+        while (table[h] != count + 1)
+            h = (h + 1) & mask;
+        table[h] = 0;
+    }
+
+    /**
+     * Grows the arrays of values.
+     *
+     * @param capacity the new capacity of the arrays of values
+     */
+    protected abstract void growValues(int capacity);
+
+    public boolean containsKey(int k) {
+        return indexOf(k) >= 0;
+    }
+
+    public int size() {
+        return count;
+    }
+}
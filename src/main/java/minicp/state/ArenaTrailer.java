@@ -0,0 +1,369 @@
+/*
+ * mini-cp is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License  v3
+ * as published by the Free Software Foundation.
+ *
+ * mini-cp is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY.
+ * See the GNU Lesser General Public License  for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with mini-cp. If not, see http://www.gnu.org/licenses/lgpl-3.0.en.html
+ *
+ * Copyright (c)  2018. by Laurent Michel, Pierre Schaus, Pascal Van Hentenryck
+ */
+
+package minicp.state;
+
+
+import minicp.util.Procedure;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * StateManager that keeps the primitive states
+ * ({@link StateInt}, {@link StateLong}, {@link StateBool}, {@link StateLongArray})
+ * off-heap, in an arena of direct memory addressed by cell index.
+ * <p>
+ * Each primitive state is a cell of 8 bytes in the arena.
+ * As with the {@link Trailer}, a cell is trailed at most once per level
+ * and the trail entries are plain (cell, old value) pairs,
+ * also kept off-heap.
+ * The arrays of {@link #makeStateLongArray(int, long)} do not use
+ * any heap memory beyond their handle,
+ * such that models with millions of primitive states run with a much smaller heap
+ * and put less pressure on the garbage collector.
+ * <p>
+ * The other states (references, maps) are delegated to an internal {@link Trailer}
+ * saved and restored with the arena.
+ * The arena holds at most {@code Integer.MAX_VALUE / 8} cells
+ * and its trail at most {@code Integer.MAX_VALUE / 12} entries.
+ */
+public class ArenaTrailer implements StateManager {
+
+    private static final int CELL_BYTES = 8;
+    private static final int TRAIL_ENTRY_BYTES = 12; // the cell (int) and its old value (long)
+    private static final int MAX_CELLS = Integer.MAX_VALUE / CELL_BYTES;
+    private static final int MAX_TRAIL_ENTRIES = Integer.MAX_VALUE / TRAIL_ENTRY_BYTES;
+
+    // the states that are not primitive
+    private final Trailer heap = new Trailer();
+
+    // the value of each cell and the magic of its last trailing
+    private ByteBuffer cells = allocate(1024 * CELL_BYTES);
+    private ByteBuffer stamps = allocate(1024 * CELL_BYTES);
+    private int nCells = 0;
+
+    private ByteBuffer trail = allocate(1024 * TRAIL_ENTRY_BYTES);
+    private int trailSize = 0;
+
+    // level markers
+    private int[] trailMark = new int[64];
+
+    private long magic = 0L;
+
+    private ArrayList<Procedure> onRestoreListeners;
+    private ArrayList<Procedure> onRestoreLevelListeners;
+
+    private class ArenaInt implements StateInt {
+        private final int cell;
+
+        ArenaInt(int initValue) {
+            cell = allocateCells(1, initValue);
+        }
+
+        @Override
+        public int setValue(int v) {
+            if (v != (int) get(cell))
+                set(cell, v);
+            return v;
+        }
+
+        @Override
+        public Integer value() {
+            return (int) get(cell);
+        }
+
+        @Override
+        public String toString() {
+            return "" + (int) get(cell);
+        }
+    }
+
+    private class ArenaLong implements StateLong {
+        private final int cell;
+
+        ArenaLong(long initValue) {
+            cell = allocateCells(1, initValue);
+        }
+
+        @Override
+        public long setValue(long v) {
+            if (v != get(cell))
+                set(cell, v);
+            return v;
+        }
+
+        @Override
+        public Long value() {
+            return get(cell);
+        }
+
+        @Override
+        public String toString() {
+            return "" + get(cell);
+        }
+    }
+
+    private class ArenaBool implements StateBool {
+        private final int cell;
+
+        ArenaBool(boolean initValue) {
+            cell = allocateCells(1, initValue ? 1L : 0L);
+        }
+
+        @Override
+        public boolean setValue(boolean v) {
+            long l = v ? 1L : 0L;
+            if (l != get(cell))
+                set(cell, l);
+            return v;
+        }
+
+        @Override
+        public Boolean value() {
+            return get(cell) != 0L;
+        }
+
+        @Override
+        public String toString() {
+            return "" + (get(cell) != 0L);
+        }
+    }
+
+    private class ArenaLongArray implements StateLongArray {
+        private final int base;
+        private final int length;
+
+        ArenaLongArray(int n, long initValue) {
+            base = allocateCells(n, initValue);
+            length = n;
+        }
+
+        @Override
+        public int length() {
+            return length;
+        }
+
+        @Override
+        public long get(int i) {
+            return ArenaTrailer.this.get(base + i);
+        }
+
+        @Override
+        public void set(int i, long v) {
+            if (v != ArenaTrailer.this.get(base + i))
+                ArenaTrailer.this.set(base + i, v);
+        }
+    }
+
+    public ArenaTrailer() {
+        onRestoreListeners = new ArrayList<Procedure>();
+        onRestoreLevelListeners = new ArrayList<Procedure>();
+    }
+
+    private static ByteBuffer allocate(int bytes) {
+        return ByteBuffer.allocateDirect(bytes).order(ByteOrder.nativeOrder());
+    }
+
+    private static ByteBuffer grow(ByteBuffer buffer, int bytes) {
+        ByteBuffer b = allocate(bytes);
+        b.put(0, buffer, 0, buffer.capacity());
+        return b;
+    }
+
+    /**
+     * Returns the number of cells of the arena in use.
+     *
+     * @return the number of primitive states created so far
+     */
+    public int arenaSize() {
+        return nCells;
+    }
+
+    private int allocateCells(int n, long initValue) {
+        if (n < 0 || n > MAX_CELLS - nCells)
+            throw new IllegalStateException("the arena cannot hold more than " + MAX_CELLS + " cells");
+        int required = nCells + n;
+        if ((long) required * CELL_BYTES > cells.capacity()) {
+            int capacity = (int) Math.min((long) MAX_CELLS, Math.max(required, 2L * cells.capacity() / CELL_BYTES));
+            cells = grow(cells, capacity * CELL_BYTES);
+            stamps = grow(stamps, capacity * CELL_BYTES);
+        }
+        int first = nCells;
+        for (int c = first; c < required; c++) {
+            cells.putLong(c * CELL_BYTES, initValue);
+            // a fresh cell was never trailed
+            stamps.putLong(c * CELL_BYTES, -1L);
+        }
+        nCells = required;
+        return first;
+    }
+
+    private long get(int cell) {
+        return cells.getLong(cell * CELL_BYTES);
+    }
+
+    private void set(int cell, long v) {
+        int ofs = cell * CELL_BYTES;
+        if (stamps.getLong(ofs) != magic) {
+            stamps.putLong(ofs, magic);
+            pushState(cell, cells.getLong(ofs));
+        }
+        cells.putLong(ofs, v);
+    }
+
+    private void pushState(int cell, long value) {
+        if (trailSize == MAX_TRAIL_ENTRIES)
+            throw new IllegalStateException("the trail cannot hold more than " + MAX_TRAIL_ENTRIES + " entries");
+        // trailSize < MAX_TRAIL_ENTRIES: the offsets do not overflow
+        if ((trailSize + 1) * TRAIL_ENTRY_BYTES > trail.capacity()) {
+            int capacity = (int) Math.min((long) MAX_TRAIL_ENTRIES, 2L * trail.capacity() / TRAIL_ENTRY_BYTES);
+            trail = grow(trail, capacity * TRAIL_ENTRY_BYTES);
+        }
+        int ofs = trailSize * TRAIL_ENTRY_BYTES;
+        trail.putInt(ofs, cell);
+        trail.putLong(ofs + 4, value);
+        trailSize++;
+    }
+
+    private static void notify(ArrayList<Procedure> listeners) {
+        for (int i = 0; i < listeners.size(); i++) {
+            listeners.get(i).call();
+        }
+    }
+
+    @Override
+    public void onRestore(Procedure listener) {
+        onRestoreListeners.add(listener);
+    }
+
+    @Override
+    public void onRestoreLevel(Procedure listener) {
+        onRestoreLevelListeners.add(listener);
+    }
+
+    @Override
+    public int getLevel() {
+        return heap.getLevel();
+    }
+
+    @Override
+    public void saveState() {
+        heap.saveState();
+        int level = heap.getLevel();
+        if (level == trailMark.length)
+            trailMark = Arrays.copyOf(trailMark, level * 2);
+        trailMark[level] = trailSize;
+        magic++;
+    }
+
+    /**
+     * Unwinds the trail of the arena down to the mark of the given level.
+     */
+    private void restore(int to) {
+        int mark = trailMark[to];
+        while (trailSize > mark) {
+            trailSize--;
+            int ofs = trailSize * TRAIL_ENTRY_BYTES;
+            cells.putLong(trail.getInt(ofs) * CELL_BYTES, trail.getLong(ofs + 4));
+        }
+    }
+
+    @Override
+    public void restoreState() {
+        restore(heap.getLevel());
+        heap.restoreState();
+        magic++;
+        notify(onRestoreLevelListeners);
+        notify(onRestoreListeners);
+    }
+
+    @Override
+    public void withNewState(Procedure body) {
+        final int level = getLevel();
+        saveState();
+        body.call();
+        restoreStateUntil(level);
+    }
+
+    @Override
+    public void restoreStateUntil(int level) {
+        if (getLevel() <= level)
+            return;
+        if (getLevel() == level + 1) {
+            restoreState();
+            return;
+        }
+        if (onRestoreLevelListeners.isEmpty()) {
+            restore(level + 1);
+            heap.restoreStateUntil(level);
+        } else {
+            while (getLevel() > level) {
+                restore(getLevel());
+                heap.restoreState();
+                notify(onRestoreLevelListeners);
+            }
+        }
+        magic++;
+        notify(onRestoreListeners);
+    }
+
+    @Override
+    public <T> State<T> makeStateRef(T initValue) {
+        return heap.makeStateRef(initValue);
+    }
+
+    @Override
+    public StateInt makeStateInt(int initValue) {
+        return new ArenaInt(initValue);
+    }
+
+    @Override
+    public StateLong makeStateLong(long initValue) {
+        return new ArenaLong(initValue);
+    }
+
+    @Override
+    public StateBool makeStateBool(boolean initValue) {
+        return new ArenaBool(initValue);
+    }
+
+    @Override
+    public StateLongArray makeStateLongArray(int n, long initValue) {
+        return new ArenaLongArray(n, initValue);
+    }
+
+    @Override
+    public StateMap<?, ?> makeStateMap() {
+        return heap.makeStateMap();
+    }
+
+    @Override
+    public StateIntIntMap makeStateIntIntMap() {
+        return heap.makeStateIntIntMap();
+    }
+
+    @Override
+    public StateIntLongMap makeStateIntLongMap() {
+        return heap.makeStateIntLongMap();
+    }
+
+    @Override
+    public String toString() {
+        return "ArenaTrailer";
+    }
+}
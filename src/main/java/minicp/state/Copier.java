@@ -47,15 +47,26 @@ public class Copier implements StateManager {
     private Stack<Storage> store;
     private Stack<Backup> prior;
     private List<Procedure> onRestoreListeners;
+    private List<Procedure> onRestoreLevelListeners;
+
+    // the number of copies in the backups
+    private long nCopies = 0;
+
+    // estimated size of a copy and of its reference in the backup
+    private static final int COPY_BYTES = 28;
+
+    // null unless enabled, such that nothing is collected by default
+    private StateManagerStatistics statistics = null;
 
     public Copier() {
         store = new Stack<Storage>();
         prior = new Stack<Backup>();
         onRestoreListeners = new LinkedList<Procedure>();
+        onRestoreLevelListeners = new LinkedList<Procedure>();
     }
 
-    private void notifyRestore() {
-        for (Procedure l: onRestoreListeners) {
+    private static void notify(List<Procedure> listeners) {
+        for (Procedure l: listeners) {
             l.call();
         }
     }
@@ -65,6 +76,11 @@ public class Copier implements StateManager {
         onRestoreListeners.add(listener);
     }
 
+    @Override
+    public void onRestoreLevel(Procedure listener) {
+        onRestoreLevelListeners.add(listener);
+    }
+
     public int getLevel() {
         return prior.size() - 1;
     }
@@ -76,13 +92,29 @@ public class Copier implements StateManager {
 
     @Override
     public void saveState() {
-        prior.add(new Backup());
+        Backup b = new Backup();
+        prior.add(b);
+        nCopies += b.size();
+        if (statistics != null)
+            statistics.saved(nCopies, retainedBytes());
+    }
+
+    private Backup pop() {
+        Backup b = prior.pop();
+        nCopies -= b.size();
+        if (statistics != null)
+            statistics.levelRestored(b.size());
+        return b;
     }
 
     @Override
     public void restoreState() {
-        prior.pop().restore();
-        notifyRestore();
+        long t0 = statistics != null ? System.nanoTime() : 0;
+        pop().restore();
+        if (statistics != null)
+            statistics.restored(System.nanoTime() - t0, nCopies, retainedBytes());
+        notify(onRestoreLevelListeners);
+        notify(onRestoreListeners);
     }
 
     @Override
@@ -95,28 +127,113 @@ public class Copier implements StateManager {
 
     @Override
     public void restoreStateUntil(int level) {
-        while (getLevel() > level)
+        if (getLevel() <= level)
+            return;
+        if (getLevel() == level + 1) {
             restoreState();
+            return;
+        }
+        long t0 = statistics != null ? System.nanoTime() : 0;
+        if (onRestoreLevelListeners.isEmpty()) {
+            // the backup of the level above the target is a full copy of its state
+            while (getLevel() > level + 1)
+                pop();
+            pop().restore();
+        } else {
+            while (getLevel() > level) {
+                pop().restore();
+                notify(onRestoreLevelListeners);
+            }
+        }
+        if (statistics != null)
+            statistics.restored(System.nanoTime() - t0, nCopies, retainedBytes());
+        notify(onRestoreListeners);
+    }
+
+    private long retainedBytes() {
+        return nCopies * COPY_BYTES + prior.size() * 32L;
+    }
+
+    /**
+     * Starts collecting statistics on the backups
+     * and on the states created from now on.
+     *
+     * @return the statistics, updated at each save and restoration
+     */
+    public StateManagerStatistics enableStatistics() {
+        if (statistics == null)
+            statistics = new StateManagerStatistics();
+        return statistics;
+    }
+
+    /**
+     * Returns the statistics collected since {@link #enableStatistics()}.
+     *
+     * @return the statistics, null if they are not enabled
+     */
+    public StateManagerStatistics getStatistics() {
+        return statistics;
+    }
+
+    private void add(Storage s) {
+        store.add(s);
+        if (statistics != null)
+            statistics.stateCreated(s);
     }
 
     @Override
     public <T> State<T> makeStateRef(T initValue) {
         Copy r = new Copy(initValue);
-        store.add(r);
+        add(r);
         return r;
     }
 
     @Override
     public StateInt makeStateInt(int initValue) {
         CopyInt s = new CopyInt(initValue);
-        store.add(s);
+        add(s);
+        return s;
+    }
+
+    @Override
+    public StateLong makeStateLong(long initValue) {
+        CopyLong s = new CopyLong(initValue);
+        add(s);
+        return s;
+    }
+
+    @Override
+    public StateBool makeStateBool(boolean initValue) {
+        CopyBool s = new CopyBool(initValue);
+        add(s);
+        return s;
+    }
+
+    @Override
+    public StateLongArray makeStateLongArray(int n, long initValue) {
+        CopyLongArray s = new CopyLongArray(n, initValue);
+        add(s);
         return s;
     }
 
     @Override
     public StateMap makeStateMap() {
         CopyMap s = new CopyMap<>();
-        store.add(s);
+        add(s);
+        return s;
+    }
+
+    @Override
+    public StateIntIntMap makeStateIntIntMap() {
+        CopyIntIntMap s = new CopyIntIntMap();
+        add(s);
+        return s;
+    }
+
+    @Override
+    public StateIntLongMap makeStateIntLongMap() {
+        CopyIntLongMap s = new CopyIntLongMap();
+        add(s);
         return s;
     }
 
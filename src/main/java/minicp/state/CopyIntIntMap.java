@@ -0,0 +1,71 @@
+/*
+ * mini-cp is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License  v3
+ * as published by the Free Software Foundation.
+ *
+ * mini-cp is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY.
+ * See the GNU Lesser General Public License  for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with mini-cp. If not, see http://www.gnu.org/licenses/lgpl-3.0.en.html
+ *
+ * Copyright (c)  2018. by Laurent Michel, Pierre Schaus, Pascal Van Hentenryck
+ */
+
+package minicp.state;
+
+import java.util.Arrays;
+
+/**
+ * Implementation of {@link StateIntIntMap} with copy strategy
+ * @see Copier
+ * @see StateManager#makeStateIntIntMap()
+ */
+public class CopyIntIntMap extends AbstractIntKeyMap implements Storage, StateIntIntMap {
+
+    class CopyIntIntMapStateEntry implements StateEntry {
+        private final int[] values;
+
+        CopyIntIntMapStateEntry(int[] values) {
+            this.values = values;
+        }
+
+        @Override public void restore() {
+            // the keys are numbered in insertion order
+            while (count > values.length)
+                removeLast();
+            System.arraycopy(values, 0, CopyIntIntMap.this.values, 0, values.length);
+        }
+    }
+
+    private int[] values;
+
+    protected CopyIntIntMap() {
+        values = new int[keys.length];
+    }
+
+    @Override
+    protected void growValues(int capacity) {
+        values = Arrays.copyOf(values, capacity);
+    }
+
+    @Override
+    public void put(int k, int v) {
+        int i = indexOf(k);
+        if (i < 0)
+            i = insert(k);
+        values[i] = v;
+    }
+
+    @Override
+    public int get(int k, int defaultValue) {
+        int i = indexOf(k);
+        return i < 0 ? defaultValue : values[i];
+    }
+
+    @Override
+    public StateEntry save() {
+        return new CopyIntIntMapStateEntry(Arrays.copyOf(values, count));
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * mini-cp is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License  v3
+ * as published by the Free Software Foundation.
+ *
+ * mini-cp is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY.
+ * See the GNU Lesser General Public License  for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with mini-cp. If not, see http://www.gnu.org/licenses/lgpl-3.0.en.html
+ *
+ * Copyright (c)  2018. by Laurent Michel, Pierre Schaus, Pascal Van Hentenryck
+ */
+
+package minicp.state;
+
+import java.util.Arrays;
+
+/**
+ * Implementation of {@link StateLongArray} with copy strategy
+ * @see Copier
+ * @see StateManager#makeStateLongArray(int, long)
+ */
+public class CopyLongArray implements Storage, StateLongArray {
+
+    class CopyLongArrayStateEntry implements StateEntry {
+        private final long[] values;
+
+        CopyLongArrayStateEntry(long[] values) {
+            this.values = values;
+        }
+
+        @Override public void restore() {
+            System.arraycopy(values, 0, CopyLongArray.this.values, 0, values.length);
+        }
+    }
+
+    private long[] values;
+
+    protected CopyLongArray(int n, long initial) {
+        values = new long[n];
+        Arrays.fill(values, initial);
+    }
+
+    @Override
+    public int length() {
+        return values.length;
+    }
+
+    @Override
+    public long get(int i) {
+        return values[i];
+    }
+
+    @Override
+    public void set(int i, long v) {
+        values[i] = v;
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(values);
+    }
+
+    @Override
+    public StateEntry save() {
+        return new CopyLongArrayStateEntry(values.clone());
+    }
+}
@@ -0,0 +1,379 @@
+/*
+ * mini-cp is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License  v3
+ * as published by the Free Software Foundation.
+ *
+ * mini-cp is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY.
+ * See the GNU Lesser General Public License  for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with mini-cp. If not, see http://www.gnu.org/licenses/lgpl-3.0.en.html
+ *
+ * Copyright (c)  2018. by Laurent Michel, Pierre Schaus, Pascal Van Hentenryck
+ */
+
+package minicp.state;
+
+import minicp.util.Procedure;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * StateManager with a copy strategy that only
+ * copies, at each {@link #saveState()} call,
+ * the storages modified since the previous call.
+ * <p>
+ * The copy of every storage taken at the last {@link #saveState()}
+ * is kept in a shadow array. A bitset marks the storages modified since then.
+ * Saving the state replaces the shadow copy of the modified storages only
+ * (the replaced copies are recorded for the level)
+ * such that the cost of a save is proportional to the
+ * number of storages that changed, not to the size of the model.
+ * Restoring the state restores the modified storages from their shadow copy
+ * and then reinstates the shadow copies recorded for the level, whose storages
+ * become the modified ones of the previous level.
+ * <p>
+ * Like for the {@link Copier}, every storage is saved as a whole
+ * (for instance a {@link CopyMap} is copied entirely when it was modified).
+ */
+public class IncrementalCopier implements StateManager {
+
+    private class DirtyCopy<T> extends Copy<T> {
+        private final int id;
+
+        DirtyCopy(T initial) {
+            super(initial);
+            id = store(this);
+        }
+
+        @Override
+        public T setValue(T v) {
+            if (v != value()) markDirty(id);
+            return super.setValue(v);
+        }
+    }
+
+    private class DirtyCopyInt extends CopyInt {
+        private final int id;
+
+        DirtyCopyInt(int initial) {
+            super(initial);
+            id = store(this);
+        }
+
+        @Override
+        public int setValue(int v) {
+            if (v != value()) markDirty(id);
+            return super.setValue(v);
+        }
+    }
+
+    private class DirtyCopyLong extends CopyLong {
+        private final int id;
+
+        DirtyCopyLong(long initial) {
+            super(initial);
+            id = store(this);
+        }
+
+        @Override
+        public long setValue(long v) {
+            if (v != value()) markDirty(id);
+            return super.setValue(v);
+        }
+    }
+
+    private class DirtyCopyBool extends CopyBool {
+        private final int id;
+
+        DirtyCopyBool(boolean initial) {
+            super(initial);
+            id = store(this);
+        }
+
+        @Override
+        public boolean setValue(boolean v) {
+            if (v != value()) markDirty(id);
+            return super.setValue(v);
+        }
+    }
+
+    private class DirtyCopyLongArray extends CopyLongArray {
+        private final int id;
+
+        DirtyCopyLongArray(int n, long initial) {
+            super(n, initial);
+            id = store(this);
+        }
+
+        @Override
+        public void set(int i, long v) {
+            if (v != get(i)) markDirty(id);
+            super.set(i, v);
+        }
+    }
+
+    private class DirtyCopyMap<K, V> extends CopyMap<K, V> {
+        private final int id;
+
+        DirtyCopyMap() {
+            super();
+            id = store(this);
+        }
+
+        @Override
+        public void put(K k, V v) {
+            markDirty(id);
+            super.put(k, v);
+        }
+    }
+
+    private class DirtyCopyIntIntMap extends CopyIntIntMap {
+        private final int id;
+
+        DirtyCopyIntIntMap() {
+            super();
+            id = store(this);
+        }
+
+        @Override
+        public void put(int k, int v) {
+            if (!containsKey(k) || get(k, v) != v) markDirty(id);
+            super.put(k, v);
+        }
+    }
+
+    private class DirtyCopyIntLongMap extends CopyIntLongMap {
+        private final int id;
+
+        DirtyCopyIntLongMap() {
+            super();
+            id = store(this);
+        }
+
+        @Override
+        public void put(int k, long v) {
+            if (!containsKey(k) || get(k, v) != v) markDirty(id);
+            super.put(k, v);
+        }
+    }
+
+    // the storages and their copy at the last save
+    private Storage[] store = new Storage[1024];
+    private StateEntry[] shadow = new StateEntry[1024];
+    private int storeSize = 0;
+
+    // storages modified since the last save
+    private long[] dirty = new long[16];
+    private int[] dirtyIds = new int[1024];
+    private int nDirty = 0;
+
+    // shadow copies replaced at each level
+    private int[] recordIds = new int[1024];
+    private StateEntry[] recordShadows = new StateEntry[1024];
+    private int nRecords = 0;
+
+    // level markers
+    private int[] recordsMark = new int[64];
+    private int[] storeSizeMark = new int[64];
+    private int level = -1;
+
+    private ArrayList<Procedure> onRestoreListeners;
+    private ArrayList<Procedure> onRestoreLevelListeners;
+
+    public IncrementalCopier() {
+        onRestoreListeners = new ArrayList<Procedure>();
+        onRestoreLevelListeners = new ArrayList<Procedure>();
+    }
+
+    private static void notify(ArrayList<Procedure> listeners) {
+        for (int i = 0; i < listeners.size(); i++) {
+            listeners.get(i).call();
+        }
+    }
+
+    @Override
+    public void onRestore(Procedure listener) {
+        onRestoreListeners.add(listener);
+    }
+
+    @Override
+    public void onRestoreLevel(Procedure listener) {
+        onRestoreLevelListeners.add(listener);
+    }
+
+    @Override
+    public int getLevel() {
+        return level;
+    }
+
+    public int storeSize() {
+        return storeSize;
+    }
+
+    /**
+     * Returns the number of storages modified since the last {@link #saveState()}.
+     *
+     * @return the number of storages that the next save will copy
+     */
+    public int dirtySize() {
+        return nDirty;
+    }
+
+    private int store(Storage s) {
+        if (storeSize == store.length) {
+            store = Arrays.copyOf(store, storeSize * 2);
+            shadow = Arrays.copyOf(shadow, storeSize * 2);
+        }
+        store[storeSize] = s;
+        // a new storage has no copy yet
+        markDirty(storeSize);
+        return storeSize++;
+    }
+
+    private void markDirty(int id) {
+        int w = id >>> 6;
+        if (w >= dirty.length)
+            dirty = Arrays.copyOf(dirty, Math.max(w + 1, dirty.length * 2));
+        long bit = 1L << id;
+        if ((dirty[w] & bit) == 0) {
+            dirty[w] |= bit;
+            if (nDirty == dirtyIds.length)
+                dirtyIds = Arrays.copyOf(dirtyIds, nDirty * 2);
+            dirtyIds[nDirty++] = id;
+        }
+    }
+
+    private void clearDirty() {
+        for (int i = 0; i < nDirty; i++)
+            dirty[dirtyIds[i] >>> 6] = 0L;
+        nDirty = 0;
+    }
+
+    @Override
+    public void saveState() {
+        level++;
+        if (level == recordsMark.length) {
+            recordsMark = Arrays.copyOf(recordsMark, level * 2);
+            storeSizeMark = Arrays.copyOf(storeSizeMark, level * 2);
+        }
+        recordsMark[level] = nRecords;
+        storeSizeMark[level] = storeSize;
+        for (int i = 0; i < nDirty; i++) {
+            int id = dirtyIds[i];
+            if (nRecords == recordIds.length) {
+                recordIds = Arrays.copyOf(recordIds, nRecords * 2);
+                recordShadows = Arrays.copyOf(recordShadows, nRecords * 2);
+            }
+            recordIds[nRecords] = id;
+            recordShadows[nRecords] = shadow[id];
+            nRecords++;
+            shadow[id] = store[id].save();
+        }
+        clearDirty();
+    }
+
+    @Override
+    public void restoreState() {
+        restore();
+        notify(onRestoreLevelListeners);
+        notify(onRestoreListeners);
+    }
+
+    private void restore() {
+        int sz = storeSizeMark[level];
+        for (int i = 0; i < nDirty; i++) {
+            int id = dirtyIds[i];
+            if (id < sz)
+                shadow[id].restore();
+        }
+        clearDirty();
+        // forget the storages created since the save
+        for (int id = sz; id < storeSize; id++) {
+            store[id] = null;
+            shadow[id] = null;
+        }
+        storeSize = sz;
+        // the storages copied by the save differ from the copy of the previous level
+        int rm = recordsMark[level];
+        while (nRecords > rm) {
+            nRecords--;
+            int id = recordIds[nRecords];
+            shadow[id] = recordShadows[nRecords];
+            recordShadows[nRecords] = null;
+            markDirty(id);
+        }
+        level--;
+    }
+
+    @Override
+    public void withNewState(Procedure body) {
+        final int level = getLevel();
+        saveState();
+        body.call();
+        restoreStateUntil(level);
+    }
+
+    @Override
+    public void restoreStateUntil(int level) {
+        if (this.level <= level)
+            return;
+        if (this.level == level + 1) {
+            restoreState();
+            return;
+        }
+        while (this.level > level) {
+            restore();
+            notify(onRestoreLevelListeners);
+        }
+        notify(onRestoreListeners);
+    }
+
+    @Override
+    public <T> State<T> makeStateRef(T initValue) {
+        return new DirtyCopy<>(initValue);
+    }
+
+    @Override
+    public StateInt makeStateInt(int initValue) {
+        return new DirtyCopyInt(initValue);
+    }
+
+    @Override
+    public StateLong makeStateLong(long initValue) {
+        return new DirtyCopyLong(initValue);
+    }
+
+    @Override
+    public StateBool makeStateBool(boolean initValue) {
+        return new DirtyCopyBool(initValue);
+    }
+
+    @Override
+    public StateLongArray makeStateLongArray(int n, long initValue) {
+        return new DirtyCopyLongArray(n, initValue);
+    }
+
+    @Override
+    public StateMap<Object, Object> makeStateMap() {
+        return new DirtyCopyMap<>();
+    }
+
+    @Override
+    public StateIntIntMap makeStateIntIntMap() {
+        return new DirtyCopyIntIntMap();
+    }
+
+    @Override
+    public StateIntLongMap makeStateIntLongMap() {
+        return new DirtyCopyIntLongMap();
+    }
+
+    @Override
+    public String toString() {
+        return "IncrementalCopier";
+    }
+
+}
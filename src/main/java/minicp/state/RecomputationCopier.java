@@ -0,0 +1,320 @@
+/*
+ * mini-cp is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License  v3
+ * as published by the Free Software Foundation.
+ *
+ * mini-cp is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY.
+ * See the GNU Lesser General Public License  for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with mini-cp. If not, see http://www.gnu.org/licenses/lgpl-3.0.en.html
+ *
+ * Copyright (c)  2018. by Laurent Michel, Pierre Schaus, Pascal Van Hentenryck
+ */
+
+package minicp.state;
+
+import minicp.util.Procedure;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Stack;
+
+/**
+ * StateManager that stores a copy of every created element
+ * only every k levels, as the {@link Copier} does at each level,
+ * and recomputes the states of the levels in between
+ * by replaying the decisions recorded with {@link #recordDecision(Procedure)}.
+ * <p>
+ * At each {@link #saveState()}, a full copy is taken if
+ * <ul>
+ *     <li>no decision was recorded at the current level,
+ *         its state is then not recomputable,</li>
+ *     <li>the last copy is k levels below,</li>
+ *     <li>or, in adaptive mode, the state of the current level was already recomputed:
+ *         the nodes where the search backtracks often are recomputed at most once.</li>
+ * </ul>
+ * Restoring a level without a copy restores the closest copy below
+ * and replays the decisions recorded from this level up.
+ * The decisions must be deterministic and be the only modifications
+ * of the states between two {@link #saveState()}.
+ * <p>
+ * A decision may throw an {@link minicp.util.exception.InconsistencyException}
+ * when it is replayed, for instance when the bound of an objective
+ * was tightened since it was first applied.
+ * The restoration then completes (the level is decreased)
+ * but the exception is propagated:
+ * the state of the level reached is inconsistent and must be restored in turn.
+ * <p>
+ * A small k saves time and a large k saves memory:
+ * with k = 1 this is a {@link Copier}.
+ */
+public class RecomputationCopier implements StateManager {
+
+    class Backup {
+        private final int sz;
+        private final StateEntry[] entries;
+
+        Backup() {
+            sz = store.size();
+            entries = new StateEntry[sz];
+            for (int i = 0; i < sz; i++)
+                entries[i] = store.get(i).save();
+        }
+
+        void restore() {
+            store.setSize(sz);
+            for (StateEntry se : entries)
+                se.restore();
+        }
+    }
+
+    private final int k;
+    private final boolean adaptive;
+
+    private Stack<Storage> store;
+
+    // per level: the copy taken by the saveState that created it (or null),
+    // the level of the closest copy below, the decision applied at this level
+    // and whether its state was recomputed
+    private Backup[] backups = new Backup[64];
+    private int[] lastCopy = new int[64];
+    private Procedure[] decisions = new Procedure[64];
+    private boolean[] recomputed = new boolean[64];
+    private int level = -1;
+
+    private long nCopies = 0;
+    private long nRecomputations = 0;
+    private long nReplayedDecisions = 0;
+
+    private ArrayList<Procedure> onRestoreListeners;
+    private ArrayList<Procedure> onRestoreLevelListeners;
+
+    /**
+     * Creates a state manager copying the states
+     * every 8 levels, in adaptive mode.
+     */
+    public RecomputationCopier() {
+        this(8, true);
+    }
+
+    /**
+     * Creates a state manager copying the states every k levels.
+     *
+     * @param k the maximum number of levels between two copies, at least 1
+     * @param adaptive if true, the levels whose state had to be recomputed
+     *                 are also copied
+     */
+    public RecomputationCopier(int k, boolean adaptive) {
+        if (k < 1) throw new IllegalArgumentException("k must be at least 1");
+        this.k = k;
+        this.adaptive = adaptive;
+        store = new Stack<Storage>();
+        onRestoreListeners = new ArrayList<Procedure>();
+        onRestoreLevelListeners = new ArrayList<Procedure>();
+    }
+
+    private static void notify(ArrayList<Procedure> listeners) {
+        for (int i = 0; i < listeners.size(); i++) {
+            listeners.get(i).call();
+        }
+    }
+
+    @Override
+    public void onRestore(Procedure listener) {
+        onRestoreListeners.add(listener);
+    }
+
+    @Override
+    public void onRestoreLevel(Procedure listener) {
+        onRestoreLevelListeners.add(listener);
+    }
+
+    @Override
+    public int getLevel() {
+        return level;
+    }
+
+    public int storeSize() {
+        return store.size();
+    }
+
+    /**
+     * Returns the number of full copies taken so far.
+     *
+     * @return the number of {@link #saveState()} that copied the states
+     */
+    public long numberOfCopies() {
+        return nCopies;
+    }
+
+    /**
+     * Returns the number of restorations that replayed decisions.
+     *
+     * @return the number of recomputed states
+     */
+    public long numberOfRecomputations() {
+        return nRecomputations;
+    }
+
+    /**
+     * Returns the number of decisions replayed so far.
+     *
+     * @return the number of decisions replayed by the recomputations
+     */
+    public long numberOfReplayedDecisions() {
+        return nReplayedDecisions;
+    }
+
+    @Override
+    public void recordDecision(Procedure decision) {
+        if (level >= 0)
+            decisions[level] = decision;
+    }
+
+    @Override
+    public void saveState() {
+        boolean copy = level < 0
+                || decisions[level] == null
+                || level + 1 - lastCopy[level] >= k
+                || (adaptive && recomputed[level]);
+        level++;
+        if (level == backups.length) {
+            backups = Arrays.copyOf(backups, level * 2);
+            lastCopy = Arrays.copyOf(lastCopy, level * 2);
+            decisions = Arrays.copyOf(decisions, level * 2);
+            recomputed = Arrays.copyOf(recomputed, level * 2);
+        }
+        if (copy) {
+            backups[level] = new Backup();
+            lastCopy[level] = level;
+            nCopies++;
+        } else {
+            lastCopy[level] = lastCopy[level - 1];
+        }
+    }
+
+    /**
+     * Pops the levels down to the given one
+     * and sets the states as they were when the level above was created.
+     */
+    private void restore(int to) {
+        int l = to + 1;
+        int c = lastCopy[l];
+        Backup backup = backups[c];
+        for (int i = to + 1; i <= level; i++) {
+            backups[i] = null;
+            decisions[i] = null;
+            recomputed[i] = false;
+        }
+        level = to;
+        backup.restore();
+        if (c < l) {
+            nRecomputations++;
+            recomputed[to] = true;
+            for (int i = c; i < l; i++) {
+                nReplayedDecisions++;
+                decisions[i].call();
+            }
+        }
+    }
+
+    @Override
+    public void restoreState() {
+        try {
+            restore(level - 1);
+            notify(onRestoreLevelListeners);
+        } finally {
+            notify(onRestoreListeners);
+        }
+    }
+
+    @Override
+    public void withNewState(Procedure body) {
+        final int level = getLevel();
+        saveState();
+        body.call();
+        restoreStateUntil(level);
+    }
+
+    @Override
+    public void restoreStateUntil(int level) {
+        if (this.level <= level)
+            return;
+        try {
+            if (onRestoreLevelListeners.isEmpty()) {
+                // a single restoration, the levels in between need not be recomputed
+                restore(level);
+            } else {
+                while (this.level > level) {
+                    restore(this.level - 1);
+                    notify(onRestoreLevelListeners);
+                }
+            }
+        } finally {
+            notify(onRestoreListeners);
+        }
+    }
+
+    @Override
+    public <T> State<T> makeStateRef(T initValue) {
+        Copy<T> r = new Copy<>(initValue);
+        store.add(r);
+        return r;
+    }
+
+    @Override
+    public StateInt makeStateInt(int initValue) {
+        CopyInt s = new CopyInt(initValue);
+        store.add(s);
+        return s;
+    }
+
+    @Override
+    public StateLong makeStateLong(long initValue) {
+        CopyLong s = new CopyLong(initValue);
+        store.add(s);
+        return s;
+    }
+
+    @Override
+    public StateBool makeStateBool(boolean initValue) {
+        CopyBool s = new CopyBool(initValue);
+        store.add(s);
+        return s;
+    }
+
+    @Override
+    public StateLongArray makeStateLongArray(int n, long initValue) {
+        CopyLongArray s = new CopyLongArray(n, initValue);
+        store.add(s);
+        return s;
+    }
+
+    @Override
+    public StateMap<Object, Object> makeStateMap() {
+        CopyMap<Object, Object> s = new CopyMap<>();
+        store.add(s);
+        return s;
+    }
+
+    @Override
+    public StateIntIntMap makeStateIntIntMap() {
+        CopyIntIntMap s = new CopyIntIntMap();
+        store.add(s);
+        return s;
+    }
+
+    @Override
+    public StateIntLongMap makeStateIntLongMap() {
+        CopyIntLongMap s = new CopyIntLongMap();
+        store.add(s);
+        return s;
+    }
+
+    @Override
+    public String toString() {
+        return "RecomputationCopier";
+    }
+}
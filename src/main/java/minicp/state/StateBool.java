@@ -0,0 +1,40 @@
+/*
+ * mini-cp is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License  v3
+ * as published by the Free Software Foundation.
+ *
+ * mini-cp is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY.
+ * See the GNU Lesser General Public License  for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with mini-cp. If not, see http://www.gnu.org/licenses/lgpl-3.0.en.html
+ *
+ * Copyright (c)  2018. by Laurent Michel, Pierre Schaus, Pascal Van Hentenryck
+ */
+
+package minicp.state;
+
+/**
+ * Object that wraps a boolean value
+ * that can be saved and restored through
+ * the {@link StateManager#saveState()} / {@link StateManager#restoreState()}
+ * methods.
+ *
+ * @see StateManager#makeStateBool(boolean) for the creation.
+ */
+public interface StateBool extends State<Boolean> {
+
+    /**
+     * Set the value without boxing it
+     * @param v the value to set
+     * @return the new value that was set
+     */
+    boolean setValue(boolean v);
+
+    @Override
+    default Boolean setValue(Boolean v) {
+        return setValue(v.booleanValue());
+    }
+
+}
@@ -25,6 +25,18 @@ package minicp.state;
  */
 public interface StateInt extends State<Integer> {
 
+    /**
+     * Set the value without boxing it
+     * @param v the value to set
+     * @return the new value that was set
+     */
+    int setValue(int v);
+
+    @Override
+    default Integer setValue(Integer v) {
+        return setValue(v.intValue());
+    }
+
     /**
      * Increments the value
      * @return the new value
@@ -0,0 +1,61 @@
+/*
+ * mini-cp is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License  v3
+ * as published by the Free Software Foundation.
+ *
+ * mini-cp is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY.
+ * See the GNU Lesser General Public License  for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with mini-cp. If not, see http://www.gnu.org/licenses/lgpl-3.0.en.html
+ *
+ * Copyright (c)  2018. by Laurent Michel, Pierre Schaus, Pascal Van Hentenryck
+ */
+
+package minicp.state;
+
+/**
+ * A map from int keys to int values that can revert its state
+ * with {@link StateManager#saveState()} / {@link StateManager#restoreState()}
+ * methods, without boxing the keys nor the values.
+ *
+ * @see StateManager#makeStateIntIntMap() for the creation.
+ */
+public interface StateIntIntMap {
+
+    /**
+     * Inserts the key-value pair.
+     * It erases the existing ones
+     * if the map already contains an entry
+     * with the given key.
+     *
+     * @param k the key
+     * @param v the value
+     */
+    void put(int k, int v);
+
+    /**
+     * Retrieves the value for a given key.
+     *
+     * @param k the key
+     * @param defaultValue the value returned if the map has no entry for k
+     * @return the value v if the entry (k,v) was previously put, defaultValue otherwise
+     */
+    int get(int k, int defaultValue);
+
+    /**
+     * Checks if the map contains an entry with the given key.
+     *
+     * @param k the key
+     * @return true if an entry (k,v) was previously put
+     */
+    boolean containsKey(int k);
+
+    /**
+     * Returns the number of entries in the map.
+     *
+     * @return the number of keys in the map
+     */
+    int size();
+}
@@ -15,13 +15,251 @@
 
 package minicp.state;
 
+import java.util.NoSuchElementException;
+
 /**
  * A sparse-set that lazily switch
  * from an dense interval representation
  * to a sparse-set representation
  * when a hole is created in the interval.
+ * <p>
+ * The arrays of the sparse-set, of size {@code n},
+ * are only allocated the first time a hole is created,
+ * such that sets that are only bound-tightened
+ * use a constant amount of memory.
+ * The switch is reversible: when the state is restored
+ * before the creation of the hole, the set is an interval again.
  */
 public class StateLazySparseSet {
 
-    
+    private final StateInterval interval;
+    private final StateSparseSet sparse;
+    private final StateBool intervalRep;
+    // the interval when the sparse-set representation was last entered,
+    // valid while the set is not an interval
+    private int switchMin;
+    private int switchMax;
+
+    /**
+     * Creates a set containing the elements {@code {ofs,ofs+1,...,ofs+n-1}}.
+     *
+     * @param sm the state manager that will save and restore the set when
+     *        {@link StateManager#saveState()} / {@link StateManager#restoreState()}
+     *           methods are called
+     * @param n  the number of elements in the set
+     * @param ofs the minimum value in the set containing {@code {ofs,ofs+1,...,ofs+n-1}}
+     */
+    public StateLazySparseSet(StateManager sm, int n, int ofs) {
+        interval = new StateInterval(sm, ofs, ofs + n - 1);
+        sparse = new StateSparseSet(sm, n, ofs, true);
+        intervalRep = sm.makeStateBool(true);
+    }
+
+    /**
+     * Checks if the set is currently represented as an interval.
+     *
+     * @return true if no hole was created in the set
+     */
+    public boolean isInterval() {
+        return intervalRep.value();
+    }
+
+    private void switchToSparseSet() {
+        switchMin = interval.min();
+        switchMax = interval.max();
+        sparse.restrictTo(switchMin, switchMax);
+        intervalRep.setValue(false);
+    }
+
+    /**
+     * Returns an array with the values present in the set.
+     *
+     * @return an array representation of the values present in the set
+     */
+    public int[] toArray() {
+        int[] res = new int[size()];
+        fillArray(res);
+        return res;
+    }
+
+    /**
+     * Sets the first values of <code>dest</code> to the ones
+     * present in the set.
+     *
+     * @param dest, an array large enough {@code dest.length >= size()}
+     * @return the size of the set
+     */
+    public int fillArray(int[] dest) {
+        return isInterval() ? interval.fillArray(dest) : sparse.fillArray(dest);
+    }
+
+    /**
+     * Sets the first values of <code>dest</code> to the ones
+     * removed since the set had the given bounds and size,
+     * in a time linear in the number of removed values.
+     *
+     * @param oldMin a previous minimum of the set
+     * @param oldMax a previous maximum of the set
+     * @param oldSize the size of the set when it had these bounds,
+     *                in the current state or in an ancestor one
+     * @param dest an array large enough {@code dest.length >= oldSize - size()}
+     * @return the number of removed values
+     */
+    public int fillRemovedArray(int oldMin, int oldMax, int oldSize, int[] dest) {
+        int k = 0;
+        if (isInterval()) {
+            // the set was an interval since the previous bounds
+            for (int v = oldMin; v < interval.min(); v++)
+                dest[k++] = v;
+            for (int v = interval.max() + 1; v <= oldMax; v++)
+                dest[k++] = v;
+            return k;
+        }
+        int switchSize = switchMax - switchMin + 1;
+        if (oldSize <= switchSize)
+            // the previous size was taken after the switch
+            return sparse.fillRemovedArray(oldSize, dest);
+        // the set was the interval {oldMin..oldMax} before the switch
+        k = sparse.fillRemovedArray(switchSize, dest);
+        for (int v = oldMin; v < switchMin; v++)
+            dest[k++] = v;
+        for (int v = switchMax + 1; v <= oldMax; v++)
+            dest[k++] = v;
+        return k;
+    }
+
+    /**
+     * Checks if the set is empty
+     *
+     * @return true if the set is empty
+     */
+    public boolean isEmpty() {
+        return isInterval() ? interval.isEmpty() : sparse.isEmpty();
+    }
+
+    /**
+     * Returns the size of the set.
+     *
+     * @return the size of the set
+     */
+    public int size() {
+        return isInterval() ? interval.size() : sparse.size();
+    }
+
+    /**
+     * Returns the minimum value in the set.
+     *
+     * @return the minimum value in the set
+     */
+    public int min() {
+        if (isInterval()) {
+            if (interval.isEmpty())
+                throw new NoSuchElementException();
+            return interval.min();
+        }
+        return sparse.min();
+    }
+
+    /**
+     * Returns the maximum value in the set.
+     *
+     * @return the maximum value in the set
+     */
+    public int max() {
+        if (isInterval()) {
+            if (interval.isEmpty())
+                throw new NoSuchElementException();
+            return interval.max();
+        }
+        return sparse.max();
+    }
+
+    /**
+     * Checks if a value is in the set.
+     *
+     * @param val the value to check
+     * @return true if val is in the set
+     */
+    public boolean contains(int val) {
+        return isInterval() ? interval.contains(val) : sparse.contains(val);
+    }
+
+    /**
+     * Removes the given value from the set.
+     * Removing a value strictly inside the interval
+     * switches to the sparse-set representation.
+     *
+     * @param val the value to remove.
+     * @return true if val was in the set, false otherwise
+     */
+    public boolean remove(int val) {
+        if (!isInterval())
+            return sparse.remove(val);
+        if (!interval.contains(val))
+            return false;
+        if (val == interval.min())
+            interval.removeBelow(val + 1);
+        else if (val == interval.max())
+            interval.removeAbove(val - 1);
+        else {
+            switchToSparseSet();
+            sparse.remove(val);
+        }
+        return true;
+    }
+
+    /**
+     * Removes all the element from the set except the given value.
+     *
+     * @param v is an element in the set
+     */
+    public void removeAllBut(int v) {
+        if (isInterval())
+            interval.removeAllBut(v);
+        else
+            sparse.removeAllBut(v);
+    }
+
+    /**
+     * Removes all the values in the set.
+     */
+    public void removeAll() {
+        if (isInterval())
+            interval.removeAll();
+        else
+            sparse.removeAll();
+    }
+
+    /**
+     * Remove all the values less than the given value from the set
+     *
+     * @param value a value such that all the ones smaller are removed
+     */
+    public void removeBelow(int value) {
+        if (isEmpty())
+            return;
+        if (!isInterval())
+            sparse.removeBelow(value);
+        else if (value > interval.min())
+            interval.removeBelow(value);
+    }
+
+    /**
+     * Remove all the values larger than the given value from the set
+     *
+     * @param value a value such that all the ones greater are removed
+     */
+    public void removeAbove(int value) {
+        if (isEmpty())
+            return;
+        if (!isInterval())
+            sparse.removeAbove(value);
+        else if (value < interval.max())
+            interval.removeAbove(value);
+    }
+
+    @Override
+    public String toString() {
+        return isInterval() ? interval.toString() : sparse.toString();
+    }
 }
@@ -0,0 +1,52 @@
+/*
+ * mini-cp is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License  v3
+ * as published by the Free Software Foundation.
+ *
+ * mini-cp is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY.
+ * See the GNU Lesser General Public License  for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with mini-cp. If not, see http://www.gnu.org/licenses/lgpl-3.0.en.html
+ *
+ * Copyright (c)  2018. by Laurent Michel, Pierre Schaus, Pascal Van Hentenryck
+ */
+
+package minicp.state;
+
+/**
+ * Array of long values
+ * that can be saved and restored through
+ * the {@link StateManager#saveState()} / {@link StateManager#restoreState()}
+ * methods.
+ * It is intended for word-level data-structures such as {@link StateSparseBitSet}
+ * where each word is saved at most once per level, without boxing.
+ *
+ * @see StateManager#makeStateLongArray(int, long) for the creation.
+ */
+public interface StateLongArray {
+
+    /**
+     * Returns the number of values in the array.
+     *
+     * @return the length of the array
+     */
+    int length();
+
+    /**
+     * Retrieves a value.
+     *
+     * @param i the index of the value {@code 0 <= i < length()}
+     * @return the value at index i
+     */
+    long get(int i);
+
+    /**
+     * Set a value.
+     *
+     * @param i the index of the value {@code 0 <= i < length()}
+     * @param v the value to set
+     */
+    void set(int i, long v);
+}
@@ -42,6 +42,9 @@ public interface StateManager {
 
     /**
      * Restores the state up the the given level.
+     * All the levels above are unwound at once:
+     * the listeners registered with {@link #onRestore(Procedure)}
+     * are notified only once.
      *
      * @param level the level, a non negative number between 0 and {@link #getLevel()}
      */
@@ -49,12 +52,35 @@ public interface StateManager {
 
     /**
      * Add a listener that is notified each time the {@link #restoreState()}
-     * is called.
+     * or {@link #restoreStateUntil(int)} is called.
      *
      * @param listener the listener to be notified
      */
     void onRestore(Procedure listener);
 
+    /**
+     * Add a listener that is notified each time a level is restored,
+     * also for each of the levels unwound by {@link #restoreStateUntil(int)}.
+     * When notified, the state is the one of the level
+     * given by {@link #getLevel()}.
+     * Registering such a listener disables the batched unwinding.
+     *
+     * @param listener the listener to be notified
+     */
+    void onRestoreLevel(Procedure listener);
+
+    /**
+     * Records the closure applied at the current level,
+     * after the {@link #saveState()} that created it.
+     * A state manager may replay the decisions to recompute the states
+     * instead of storing them, as the {@link RecomputationCopier}.
+     * The others ignore them.
+     *
+     * @param decision the closure that modifies the states at the current level
+     */
+    default void recordDecision(Procedure decision) {
+    }
+
     /**
      * Returns the current level.
      * It is increased at each {@link #saveState()}
@@ -80,6 +106,31 @@ public interface StateManager {
      */
     StateInt makeStateInt(int initValue);
 
+    /**
+     * Creates a Stateful long (restorable)
+     *
+     * @param initValue the initial setValue
+     * @return a StateLong object wrapping the initValue
+     */
+    StateLong makeStateLong(long initValue);
+
+    /**
+     * Creates a Stateful boolean (restorable)
+     *
+     * @param initValue the initial setValue
+     * @return a StateBool object wrapping the initValue
+     */
+    StateBool makeStateBool(boolean initValue);
+
+    /**
+     * Creates a Stateful array of longs (restorable)
+     *
+     * @param n the length of the array
+     * @param initValue the initial value of every entry
+     * @return a StateLongArray object of length n
+     */
+    StateLongArray makeStateLongArray(int n, long initValue);
+
     /**
      * Creates a Stateful map (restorable)
      *
@@ -87,6 +138,20 @@ public interface StateManager {
      */
     StateMap makeStateMap();
 
+    /**
+     * Creates a Stateful map from int keys to int values (restorable)
+     *
+     * @return a reference to the map.
+     */
+    StateIntIntMap makeStateIntIntMap();
+
+    /**
+     * Creates a Stateful map from int keys to long values (restorable)
+     *
+     * @return a reference to the map.
+     */
+    StateIntLongMap makeStateIntLongMap();
+
     /**
      * Higher-order function that preserves the state prior to calling body and restores it after.
      *
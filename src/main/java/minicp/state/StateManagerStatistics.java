@@ -0,0 +1,127 @@
+/*
+ * mini-cp is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License  v3
+ * as published by the Free Software Foundation.
+ *
+ * mini-cp is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY.
+ * See the GNU Lesser General Public License  for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with mini-cp. If not, see http://www.gnu.org/licenses/lgpl-3.0.en.html
+ *
+ * Copyright (c)  2018. by Laurent Michel, Pierre Schaus, Pascal Van Hentenryck
+ */
+
+package minicp.state;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Statistics collected by a state manager
+ * once enabled with {@link Trailer#enableStatistics()}
+ * or {@link Copier#enableStatistics()}.
+ * When they are not enabled, nothing is collected.
+ * <p>
+ * The entries are the trail entries of a {@link Trailer}
+ * and the copies of the storages taken by a {@link Copier}.
+ * The retained bytes are an estimate assuming compressed references.
+ */
+public class StateManagerStatistics {
+
+    private long nSaves = 0;
+    private long nRestoredLevels = 0;
+    private long nEntries = 0;
+    private long maxEntriesPerLevel = 0;
+    private long peakEntries = 0;
+    private long bytes = 0;
+    private long peakBytes = 0;
+    private long restoreNanos = 0;
+    private final Map<String, Long> states = new TreeMap<>();
+
+    public String toString() {
+        return "\n\t#saves: " + nSaves
+                + "\n\t#restored levels: " + nRestoredLevels
+                + "\n\t#entries per level: " + String.format("%.1f", averageEntriesPerLevel())
+                + " (max " + maxEntriesPerLevel + ")"
+                + "\n\tpeak entries: " + peakEntries
+                + "\n\tretained bytes: " + bytes + " (peak " + peakBytes + ")"
+                + "\n\trestore time (ms): " + restoreNanos / 1000000
+                + "\n\tstates: " + states + "\n";
+    }
+
+    void stateCreated(Object state) {
+        states.merge(state.getClass().getSimpleName(), 1L, Long::sum);
+    }
+
+    void saved(long entries, long bytes) {
+        nSaves++;
+        retained(entries, bytes);
+    }
+
+    void levelRestored(long entries) {
+        nRestoredLevels++;
+        nEntries += entries;
+        maxEntriesPerLevel = Math.max(maxEntriesPerLevel, entries);
+    }
+
+    void restored(long nanos, long entries, long bytes) {
+        restoreNanos += nanos;
+        retained(entries, bytes);
+    }
+
+    void retained(long entries, long bytes) {
+        peakEntries = Math.max(peakEntries, entries);
+        this.bytes = bytes;
+        peakBytes = Math.max(peakBytes, bytes);
+    }
+
+    public long numberOfSaves() {
+        return nSaves;
+    }
+
+    public long numberOfRestoredLevels() {
+        return nRestoredLevels;
+    }
+
+    /**
+     * Returns the average number of entries pushed at a level,
+     * over the restored levels.
+     *
+     * @return the average number of entries per restored level
+     */
+    public double averageEntriesPerLevel() {
+        return nRestoredLevels == 0 ? 0 : (double) nEntries / nRestoredLevels;
+    }
+
+    public long maxEntriesPerLevel() {
+        return maxEntriesPerLevel;
+    }
+
+    public long peakEntries() {
+        return peakEntries;
+    }
+
+    public long retainedBytes() {
+        return bytes;
+    }
+
+    public long peakRetainedBytes() {
+        return peakBytes;
+    }
+
+    public long restoreTimeNanos() {
+        return restoreNanos;
+    }
+
+    /**
+     * Returns the number of state objects created, by class.
+     *
+     * @return the histogram of the created states by simple class name
+     */
+    public Map<String, Long> stateHistogram() {
+        return Collections.unmodifiableMap(states);
+    }
+}
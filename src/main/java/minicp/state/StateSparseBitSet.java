@@ -22,12 +22,15 @@ import minicp.util.exception.NotImplementedException;
 /**
  * Class to represent a bit-set that can be saved and restored through
  * the {@link StateManager#saveState()} / {@link StateManager#restoreState()}
+ * <p>
+ * The words are stored in a {@link StateLongArray} such that
+ * each word is saved, unboxed, at most once per level.
  */
 public class StateSparseBitSet {
 
     /* Variables used to store value of the bitset */
     private final int nWords;
-    private final State<Long>[] words;
+    private final StateLongArray words;
 
     /* Variables used to make set sparse */
     private final int[] nonZeroIdx;
@@ -160,8 +163,7 @@ public class StateSparseBitSet {
      */
     public StateSparseBitSet(StateManager sm, int n) {
         nWords = (n + 63) >>> 6; // divided by 64
-        words = new State[nWords];
-        Arrays.setAll(words, i -> sm.makeStateRef(0xFFFFFFFFFFFFFFFFL));
+        words = sm.makeStateLongArray(nWords, 0xFFFFFFFFFFFFFFFFL);
         nonZeroIdx = new int[nWords];
         Arrays.setAll(nonZeroIdx, i -> i);
         nonZeroSize = sm.makeStateInt(nWords);
@@ -181,9 +183,9 @@ public class StateSparseBitSet {
      */
     public void and(BitSet bs) {
         for (int i = nonZeroSize.value() - 1; i >= 0; i--) {
-            State<Long> w = words[nonZeroIdx[i]];
-            long wn = w.value() & bs.words[nonZeroIdx[i]];
-            w.setValue(wn);
+            int idx = nonZeroIdx[i];
+            long wn = words.get(idx) & bs.words[idx];
+            words.set(idx, wn);
             if (wn == 0L) { // swap with last non-zero word
                 nonZeroSize.decrement();
                 int tmp = nonZeroIdx[i];
@@ -236,8 +238,7 @@ public class StateSparseBitSet {
         }
         for (int i = nonZeroSize.value() - 1; i >= 0; i--) {
             int idx = nonZeroIdx[i];
-            State<Long> w = words[idx];
-            if ((w.value() & bs.words[idx]) != 0L) {
+            if ((words.get(idx) & bs.words[idx]) != 0L) {
                 // TODO 2: store the new non-empty intersection using residue of bs
                 
                 return true;
@@ -255,14 +256,14 @@ public class StateSparseBitSet {
      */
     public boolean get(int i) {
         int wordIndex = i >>> 6;
-        return wordIndex < nonZeroSize.value() && (this.words[wordIndex].value() & 1L << i) != 0L;
+        return wordIndex < nonZeroSize.value() && (words.get(wordIndex) & 1L << i) != 0L;
     }
 
     @Override
     public String toString() {
         StringBuilder res = new StringBuilder();
         for (int i = 0; i < nonZeroSize.value(); i++) {
-            res.append(" w").append(nonZeroIdx[i]).append("=").append(Long.toBinaryString(words[nonZeroIdx[i]].value()));
+            res.append(" w").append(nonZeroIdx[i]).append("=").append(Long.toBinaryString(words.get(nonZeroIdx[i])));
         }
         return res.toString();
     }
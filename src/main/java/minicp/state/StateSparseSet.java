@@ -43,11 +43,7 @@ public class StateSparseSet {
      * @param ofs the minimum value in the set containing {@code {ofs,ofs+1,...,ofs+n-1}}
      */
     public StateSparseSet(StateManager sm, int n, int ofs) {
-        this.n = n;
-        this.ofs = ofs;
-        size = sm.makeStateInt(n);
-        min = sm.makeStateInt(0);
-        max = sm.makeStateInt(n - 1);
+        this(sm, n, ofs, false);
         values = new int[n];
         indices = new int[n];
         for (int i = 0; i < n; i++) {
@@ -56,6 +52,54 @@ public class StateSparseSet {
         }
     }
 
+    /**
+     * Creates a set containing the elements {@code {ofs,ofs+1,...,ofs+n-1}}
+     * whose arrays are only allocated at the first call to {@link #restrictTo(int, int)},
+     * which must occur before any other operation.
+     *
+     * @param sm the state manager that will save and restore the set
+     * @param n  the number of elements in the set
+     * @param ofs the minimum value in the set containing {@code {ofs,ofs+1,...,ofs+n-1}}
+     * @param lazy unused, distinguishes this constructor
+     * @see StateLazySparseSet
+     */
+    StateSparseSet(StateManager sm, int n, int ofs, boolean lazy) {
+        this.n = n;
+        this.ofs = ofs;
+        size = sm.makeStateInt(n);
+        min = sm.makeStateInt(0);
+        max = sm.makeStateInt(n - 1);
+    }
+
+    /**
+     * Resets the set to the interval {@code {min,...,max}}.
+     * The arrays are allocated in {@code O(n)} at the first call.
+     * Afterwards the permutation is kept and only the values of
+     * the interval are swapped to the front, in {@code O(max-min)}.
+     * The arrays must not be used by any saved state.
+     *
+     * @param min the minimum value of the set
+     * @param max the maximum value of the set, {@code min <= max}
+     */
+    void restrictTo(int min, int max) {
+        if (values == null) {
+            values = new int[n];
+            indices = new int[n];
+            for (int i = 0; i < n; i++) {
+                values[i] = i;
+                indices[i] = i;
+            }
+        }
+        int lo = min - ofs;
+        int hi = max - ofs;
+        // positions 0..k-1 hold lo..v-1, so v is at a position >= k
+        for (int v = lo, k = 0; v <= hi; v++, k++)
+            exchangePositions(v, values[k]);
+        this.size.setValue(hi - lo + 1);
+        this.min.setValue(lo);
+        this.max.setValue(hi);
+    }
+
 
     private void exchangePositions(int val1, int val2) {
         assert (checkVal(val1));
@@ -100,6 +144,25 @@ public class StateSparseSet {
         return s;
     }
 
+    /**
+     * Sets the first values of <code>dest</code> to the ones
+     * removed since the set had the given size.
+     * The removed values are kept contiguously after the present ones
+     * such that this takes a time linear in the number of removed values.
+     *
+     * @param oldSize a previous size of the set, {@code oldSize >= size()},
+     *                taken in the current state or in an ancestor one
+     * @param dest an array large enough {@code dest.length >= oldSize - size()}
+     * @return the number of values removed since the set had the size oldSize
+     */
+    public int fillRemovedArray(int oldSize, int[] dest) {
+        int s = size.value();
+        assert (oldSize >= s);
+        for (int i = s; i < oldSize; i++)
+            dest[i - s] = values[i] + ofs;
+        return oldSize - s;
+    }
+
     /**
      * Checks if the set is empty
      *
@@ -149,12 +212,7 @@ public class StateSparseSet {
         if (!isEmpty() && max.value() == val) {
             assert (!internalContains(val));
             //the maximum was removed, search the new one
-            for (int v = val - 1; v >= min.value(); v--) {
-                if (internalContains(v)) {
-                    max.setValue(v);
-                    return;
-                }
-            }
+            max.setValue(maxBelow(val - 1));
         }
     }
 
@@ -162,13 +220,48 @@ public class StateSparseSet {
         if (!isEmpty() && min.value() == val) {
             assert (!internalContains(val));
             //the minimum was removed, search the new one
-            for (int v = val + 1; v <= max.value(); v++) {
-                if (internalContains(v)) {
-                    min.setValue(v);
-                    return;
-                }
-            }
+            min.setValue(minAbove(val + 1));
+        }
+    }
+
+    /**
+     * Returns the smallest (shifted) value present in the set
+     * among the ones {@code >= from}, scanning either the values
+     * from {@code from} or the elements in the set, whichever is shorter.
+     * The set must contain a value {@code >= from}.
+     */
+    private int minAbove(int from) {
+        int s = size();
+        if (max.value() - from < s) {
+            for (int v = from; ; v++)
+                if (indices[v] < s)
+                    return v;
         }
+        int m = Integer.MAX_VALUE;
+        for (int i = 0; i < s; i++)
+            if (values[i] >= from && values[i] < m)
+                m = values[i];
+        return m;
+    }
+
+    /**
+     * Returns the largest (shifted) value present in the set
+     * among the ones {@code <= from}, scanning either the values
+     * from {@code from} or the elements in the set, whichever is shorter.
+     * The set must contain a value {@code <= from}.
+     */
+    private int maxBelow(int from) {
+        int s = size();
+        if (from - min.value() < s) {
+            for (int v = from; ; v--)
+                if (indices[v] < s)
+                    return v;
+        }
+        int m = Integer.MIN_VALUE;
+        for (int i = 0; i < s; i++)
+            if (values[i] <= from && values[i] > m)
+                m = values[i];
+        return m;
     }
 
     /**
@@ -252,10 +345,30 @@ public class StateSparseSet {
     public void removeBelow(int value) {
         if (max() < value) {
             removeAll();
-        } else {
-            for (int v = min(); v < value; v++) {
-                remove(v);
+        } else if (min() < value) {
+            int lo = min.value();
+            int hi = value - ofs; // the values in [lo, hi) are removed
+            int s = size();
+            // the removed values are swapped at the end of the present ones
+            // such that they stay contiguous after the new size
+            if (hi - lo < s) {
+                for (int v = lo; v < hi; v++) {
+                    if (indices[v] < s) {
+                        exchangePositions(v, values[s - 1]);
+                        s--;
+                    }
+                }
+            } else {
+                for (int i = s - 1; i >= 0; i--) {
+                    int v = values[i];
+                    if (v < hi) {
+                        exchangePositions(v, values[s - 1]);
+                        s--;
+                    }
+                }
             }
+            size.setValue(s);
+            min.setValue(minAbove(hi));
         }
     }
 
@@ -267,11 +380,30 @@ public class StateSparseSet {
     public void removeAbove(int value) {
         if (min() > value) {
             removeAll();
-        } else {
-            int max = max();
-            for (int v = max; v > value; v--) {
-                remove(v);
+        } else if (max() > value) {
+            int hi = max.value();
+            int lo = value - ofs; // the values in (lo, hi] are removed
+            int s = size();
+            // the removed values are swapped at the end of the present ones
+            // such that they stay contiguous after the new size
+            if (hi - lo < s) {
+                for (int v = hi; v > lo; v--) {
+                    if (indices[v] < s) {
+                        exchangePositions(v, values[s - 1]);
+                        s--;
+                    }
+                }
+            } else {
+                for (int i = s - 1; i >= 0; i--) {
+                    int v = values[i];
+                    if (v > lo) {
+                        exchangePositions(v, values[s - 1]);
+                        s--;
+                    }
+                }
             }
+            size.setValue(s);
+            max.setValue(maxBelow(lo));
         }
     }
 
@@ -0,0 +1,141 @@
+/*
+ * mini-cp is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License  v3
+ * as published by the Free Software Foundation.
+ *
+ * mini-cp is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY.
+ * See the GNU Lesser General Public License  for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with mini-cp. If not, see http://www.gnu.org/licenses/lgpl-3.0.en.html
+ *
+ * Copyright (c)  2018. by Laurent Michel, Pierre Schaus, Pascal Van Hentenryck
+ */
+
+package minicp.state;
+
+import java.util.Arrays;
+
+/**
+ * Generic stack that can be saved and restored through
+ * the {@link StateManager#saveState()} / {@link StateManager#restoreState()}
+ * methods, and from which elements can be removed in constant time.
+ * <p>
+ * The elements in {@code [0, size())} are kept in a plain array,
+ * in no particular order: removing an element swaps it with the last one
+ * and decrements a reversible size. The removed elements stay
+ * in the array after the size so that they reappear on restoration.
+ * An element pushed while some removed elements are kept is swapped
+ * with the first of them.
+ * Each swap is recorded in a log whose length is a reversible
+ * {@link StateInt}, and the swaps undone by a restoration
+ * are reverted lazily by the next call to {@link #size()},
+ * {@link #push(Object)} or {@link #remove(int)}.
+ */
+public class StateSparseStack<E> {
+
+    private final StateInt size;
+    private final StateInt end;
+    private final StateInt nSwaps;
+    private Object[] stack;
+    private int[] swapFrom;
+    private int[] swapTo;
+    private int applied = 0;
+
+    /**
+     * Creates a restorable stack.
+     * @param sm the state manager that saves/restores the stack
+     *         when {@link StateManager#saveState()} / {@link StateManager#restoreState()}
+     *         methods are called.
+     */
+    public StateSparseStack(StateManager sm) {
+        size = sm.makeStateInt(0);
+        end = sm.makeStateInt(0);
+        nSwaps = sm.makeStateInt(0);
+        stack = new Object[4];
+        swapFrom = new int[4];
+        swapTo = new int[4];
+    }
+
+    public void push(E elem) {
+        sync();
+        int s = size.value();
+        int e = end.value();
+        if (e == stack.length)
+            stack = Arrays.copyOf(stack, e * 2);
+        stack[e] = elem;
+        if (s != e)
+            swap(s, e);
+        size.setValue(s + 1);
+        end.setValue(e + 1);
+    }
+
+    /**
+     * Removes the element at the given position,
+     * the last element taking its place.
+     *
+     * @param index the position, between 0 and {@link #size()} - 1
+     */
+    public void remove(int index) {
+        sync();
+        int s = size.value() - 1;
+        if (index != s)
+            swap(index, s);
+        size.setValue(s);
+    }
+
+    /**
+     * Returns the number of elements.
+     * It must be called after a restoration before accessing
+     * the elements with {@link #get(int)}.
+     *
+     * @return the number of elements in the stack
+     */
+    public int size() {
+        sync();
+        return size.value();
+    }
+
+    /**
+     * Returns the element at the given position.
+     * The index is not checked against {@link #size()}
+     * such that the elements can be iterated without overhead
+     * with {@code for (int i = 0; i < size(); i++)}.
+     *
+     * @param index the position, between 0 and {@link #size()} - 1
+     * @return the element at position index
+     */
+    @SuppressWarnings("unchecked")
+    public E get(int index) {
+        return (E) stack[index];
+    }
+
+    private void swap(int i, int j) {
+        Object tmp = stack[i];
+        stack[i] = stack[j];
+        stack[j] = tmp;
+        int k = applied;
+        if (k == swapFrom.length) {
+            swapFrom = Arrays.copyOf(swapFrom, k * 2);
+            swapTo = Arrays.copyOf(swapTo, k * 2);
+        }
+        swapFrom[k] = i;
+        swapTo[k] = j;
+        applied = k + 1;
+        nSwaps.setValue(applied);
+    }
+
+    // reverts the swaps undone by a restoration
+    private void sync() {
+        int n = nSwaps.value();
+        while (applied > n) {
+            applied--;
+            int i = swapFrom[applied];
+            int j = swapTo[applied];
+            Object tmp = stack[i];
+            stack[i] = stack[j];
+            stack[j] = tmp;
+        }
+    }
+}
@@ -15,17 +15,20 @@
 
 package minicp.state;
 
-import java.util.ArrayList;
+import java.util.Arrays;
 
 /**
  * Generic Stack that can be saved and restored through
  * the {@link StateManager#saveState()} / {@link StateManager#restoreState()}
  * methods.
+ * <p>
+ * The elements are stored in a plain array
+ * and only the size is a reversible {@link StateInt}.
  */
 public class StateStack<E> {
 
     private StateInt size;
-    private ArrayList<E> stack;
+    private Object[] stack;
 
     /**
      * Creates a restorable stack.
@@ -35,21 +38,32 @@ public class StateStack<E> {
      */
     public StateStack(StateManager sm) {
         size = sm.makeStateInt(0);
-        stack = new ArrayList<E>();
+        stack = new Object[4];
     }
 
     public void push(E elem) {
         int s = size.value();
-        if (stack.size() > s) stack.set(s, elem);
-        else stack.add(elem);
-        size.increment();
+        if (s == stack.length)
+            stack = Arrays.copyOf(stack, s * 2);
+        stack[s] = elem;
+        size.setValue(s + 1);
     }
 
     public int size() {
         return size.value();
     }
 
+    /**
+     * Returns the element at the given position.
+     * The index is not checked against {@link #size()}
+     * such that the elements can be iterated without overhead
+     * with {@code for (int i = 0; i < size(); i++)}.
+     *
+     * @param index the position, between 0 and {@link #size()} - 1
+     * @return the element at position index
+     */
+    @SuppressWarnings("unchecked")
     public E get(int index) {
-        return stack.get(index);
+        return (E) stack[index];
     }
 }
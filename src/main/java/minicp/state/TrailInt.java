@@ -17,14 +17,53 @@ package minicp.state;
 
 
 /**
- * Implementation of {@link StateInt} with trail strategy
+ * Implementation of {@link StateInt} with trail strategy.
+ * The old values are pushed unboxed on the {@link Trailer}
+ * such that trailing does not allocate.
  * @see Trailer
  * @see StateManager#makeStateInt(int)
  */
-public class TrailInt extends Trail<Integer> implements StateInt {
+public class TrailInt implements StateInt, Trailable {
+
+    private Trailer trail;
+    private int v;
+    private long lastMagic = -1L;
 
     protected TrailInt(Trailer trail, int initial) {
-        super(trail, initial);
+        this.trail = trail;
+        v = initial;
+        lastMagic = trail.getMagic() - 1;
+    }
+
+    private void trail() {
+        long trailMagic = trail.getMagic();
+        if (lastMagic != trailMagic) {
+            lastMagic = trailMagic;
+            trail.pushState(this, 0, v);
+        }
+    }
+
+    @Override
+    public void restore(int slot, long value) {
+        v = (int) value;
     }
 
+    @Override
+    public int setValue(int v) {
+        if (v != this.v) {
+            trail();
+            this.v = v;
+        }
+        return this.v;
+    }
+
+    @Override
+    public Integer value() {
+        return this.v;
+    }
+
+    @Override
+    public String toString() {
+        return "" + v;
+    }
 }
@@ -0,0 +1,81 @@
+/*
+ * mini-cp is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License  v3
+ * as published by the Free Software Foundation.
+ *
+ * mini-cp is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY.
+ * See the GNU Lesser General Public License  for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with mini-cp. If not, see http://www.gnu.org/licenses/lgpl-3.0.en.html
+ *
+ * Copyright (c)  2018. by Laurent Michel, Pierre Schaus, Pascal Van Hentenryck
+ */
+
+package minicp.state;
+
+import java.util.Arrays;
+
+/**
+ * Implementation of {@link StateIntIntMap} with trail strategy.
+ * Only the entries that change are pushed on the {@link Trailer},
+ * at most once per level and without boxing:
+ * the insertion of a key, undone by removing the last inserted key,
+ * or the old value of an existing key.
+ * @see Trailer
+ * @see StateManager#makeStateIntIntMap()
+ */
+public class TrailIntIntMap extends AbstractIntKeyMap implements StateIntIntMap, Trailable {
+
+    private static final int INSERTION = -1;
+
+    private Trailer trail;
+    private int[] values;
+    private long[] lastMagic;
+
+    protected TrailIntIntMap(Trailer trail) {
+        this.trail = trail;
+        values = new int[keys.length];
+        lastMagic = new long[keys.length];
+    }
+
+    @Override
+    protected void growValues(int capacity) {
+        values = Arrays.copyOf(values, capacity);
+        lastMagic = Arrays.copyOf(lastMagic, capacity);
+    }
+
+    @Override
+    public void restore(int slot, long value) {
+        if (slot == INSERTION)
+            removeLast();
+        else
+            values[slot] = (int) value;
+    }
+
+    @Override
+    public void put(int k, int v) {
+        long trailMagic = trail.getMagic();
+        int i = indexOf(k);
+        if (i < 0) {
+            i = insert(k);
+            trail.pushState(this, INSERTION, 0L);
+            // the value needs no trailing at this level, the insertion is undone
+            lastMagic[i] = trailMagic;
+            values[i] = v;
+        } else if (values[i] != v) {
+            if (lastMagic[i] != trailMagic) {
+                lastMagic[i] = trailMagic;
+                trail.pushState(this, i, values[i]);
+            }
+            values[i] = v;
+        }
+    }
+
+    @Override
+    public int get(int k, int defaultValue) {
+        int i = indexOf(k);
+        return i < 0 ? defaultValue : values[i];
+    }
+}
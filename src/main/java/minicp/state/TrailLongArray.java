@@ -0,0 +1,72 @@
+/*
+ * mini-cp is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License  v3
+ * as published by the Free Software Foundation.
+ *
+ * mini-cp is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY.
+ * See the GNU Lesser General Public License  for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with mini-cp. If not, see http://www.gnu.org/licenses/lgpl-3.0.en.html
+ *
+ * Copyright (c)  2018. by Laurent Michel, Pierre Schaus, Pascal Van Hentenryck
+ */
+
+package minicp.state;
+
+import java.util.Arrays;
+
+/**
+ * Implementation of {@link StateLongArray} with trail strategy.
+ * Each value is pushed on the {@link Trailer}, unboxed,
+ * at most once per level.
+ * @see Trailer
+ * @see StateManager#makeStateLongArray(int, long)
+ */
+public class TrailLongArray implements StateLongArray, Trailable {
+
+    private Trailer trail;
+    private long[] values;
+    private long[] lastMagic;
+
+    protected TrailLongArray(Trailer trail, int n, long initial) {
+        this.trail = trail;
+        values = new long[n];
+        Arrays.fill(values, initial);
+        lastMagic = new long[n];
+        Arrays.fill(lastMagic, trail.getMagic() - 1);
+    }
+
+    @Override
+    public void restore(int slot, long value) {
+        values[slot] = value;
+    }
+
+    @Override
+    public int length() {
+        return values.length;
+    }
+
+    @Override
+    public long get(int i) {
+        return values[i];
+    }
+
+    @Override
+    public void set(int i, long v) {
+        if (v != values[i]) {
+            long trailMagic = trail.getMagic();
+            if (lastMagic[i] != trailMagic) {
+                lastMagic[i] = trailMagic;
+                trail.pushState(this, i, values[i]);
+            }
+            values[i] = v;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(values);
+    }
+}
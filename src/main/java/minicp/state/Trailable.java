@@ -0,0 +1,35 @@
+/*
+ * mini-cp is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License  v3
+ * as published by the Free Software Foundation.
+ *
+ * mini-cp is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY.
+ * See the GNU Lesser General Public License  for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with mini-cp. If not, see http://www.gnu.org/licenses/lgpl-3.0.en.html
+ *
+ * Copyright (c)  2018. by Laurent Michel, Pierre Schaus, Pascal Van Hentenryck
+ */
+
+package minicp.state;
+
+/**
+ * Object whose primitive state is stored on the {@link Trailer}
+ * as a (slot, old value) pair instead of a {@link StateEntry}
+ * such that trailing it does not allocate.
+ *
+ * @see Trailer#pushState(Trailable, int, long)
+ */
+interface Trailable {
+
+    /**
+     * Restores a value previously pushed on the trail.
+     *
+     * @param slot the slot given to {@link Trailer#pushState(Trailable, int, long)},
+     *             for objects with several primitive fields (0 otherwise)
+     * @param value the old value, widened to a long
+     */
+    void restore(int slot, long value);
+}
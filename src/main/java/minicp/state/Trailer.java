@@ -18,9 +18,8 @@ package minicp.state;
 
 import minicp.util.Procedure;
 
-import java.util.LinkedList;
-import java.util.List;
-import java.util.Stack;
+import java.util.ArrayList;
+import java.util.Arrays;
 
 /**
  * StateManager that will lazily store
@@ -29,35 +28,53 @@ import java.util.Stack;
  * Only the one that effectively change are stored
  * and at most once between any to call to {@link #saveState()}.
  * This can be seen as an optimized version of {@link Copier}.
+ * <p>
+ * Primitive states ({@link StateInt}, {@link StateLong}, {@link StateBool})
+ * are trailed in parallel arrays of owners, slots and old values
+ * such that saving and restoring them does not allocate.
+ * Other states push a {@link StateEntry}.
+ * The level markers store, for each level, the size of both trails
+ * at the time of the corresponding {@link #saveState()}.
  */
 public class Trailer implements StateManager {
 
-    static class Backup extends Stack<StateEntry> {
-        Backup() {
-        }
+    private static final int INITIAL_CAPACITY = 1024;
 
-        void restore() {
-            //note that using for on a Stack gives the wrong order.
-            while (!isEmpty())
-                pop().restore();
-        }
-    }
+    // trail of primitive values: owners[i] restores values[i] in its slot slots[i]
+    private Trailable[] owners = new Trailable[INITIAL_CAPACITY];
+    private int[] slots = new int[INITIAL_CAPACITY];
+    private long[] values = new long[INITIAL_CAPACITY];
+    private int nValues = 0;
+
+    // trail of generic entries
+    private StateEntry[] entries = new StateEntry[INITIAL_CAPACITY];
+    private int nEntries = 0;
+
+    // level markers
+    private int[] valuesMark = new int[64];
+    private int[] entriesMark = new int[64];
+    private int level = -1;
 
-    private Stack<Backup> prior;
-    private Backup current;
     private long magic = 0L;
 
-    private List<Procedure> onRestoreListeners;
+    // estimated size of a generic entry
+    private static final int ENTRY_BYTES = 24;
+
+    // null unless enabled, such that nothing is collected by default
+    private StateManagerStatistics statistics = null;
+
+    private ArrayList<Procedure> onRestoreListeners;
+    private ArrayList<Procedure> onRestoreLevelListeners;
 
     public Trailer() {
-        prior = new Stack<Backup>();
-        current = new Backup();
-        onRestoreListeners = new LinkedList<Procedure>();
+        onRestoreListeners = new ArrayList<Procedure>();
+        onRestoreLevelListeners = new ArrayList<Procedure>();
     }
 
-    private void notifyRestore() {
-        for (Procedure l : onRestoreListeners) {
-            l.call();
+    private static void notify(ArrayList<Procedure> listeners) {
+        // indexed loop: no iterator is allocated at each restoration
+        for (int i = 0; i < listeners.size(); i++) {
+            listeners.get(i).call();
         }
     }
 
@@ -66,33 +83,144 @@ public class Trailer implements StateManager {
         onRestoreListeners.add(listener);
     }
 
+    @Override
+    public void onRestoreLevel(Procedure listener) {
+        onRestoreLevelListeners.add(listener);
+    }
+
     public long getMagic() {
         return magic;
     }
 
     public void pushState(StateEntry entry) {
-        current.push(entry);
+        if (nEntries == entries.length)
+            entries = Arrays.copyOf(entries, nEntries * 2);
+        entries[nEntries++] = entry;
+    }
+
+    /**
+     * Records the value of a primitive state such that
+     * it is given back to {@link Trailable#restore(int, long)}
+     * when the current level is restored.
+     *
+     * @param owner the object to restore
+     * @param slot the slot of the value in the owner
+     * @param value the value to restore
+     */
+    void pushState(Trailable owner, int slot, long value) {
+        if (nValues == owners.length) {
+            owners = Arrays.copyOf(owners, nValues * 2);
+            slots = Arrays.copyOf(slots, nValues * 2);
+            values = Arrays.copyOf(values, nValues * 2);
+        }
+        owners[nValues] = owner;
+        slots[nValues] = slot;
+        values[nValues] = value;
+        nValues++;
     }
 
     @Override
     public int getLevel() {
-        return prior.size() - 1;
+        return level;
     }
 
     @Override
     public void saveState() {
-        prior.add(current);
-        current = new Backup();
+        level++;
+        if (level == valuesMark.length) {
+            valuesMark = Arrays.copyOf(valuesMark, level * 2);
+            entriesMark = Arrays.copyOf(entriesMark, level * 2);
+        }
+        valuesMark[level] = nValues;
+        entriesMark[level] = nEntries;
         magic++;
+        if (statistics != null)
+            statistics.saved(nValues + nEntries, retainedBytes());
+    }
+
+    /**
+     * Unwinds both trails down to the marks of the given level
+     * and sets the current level just below it.
+     */
+    private void restore(int to) {
+        long t0 = 0;
+        if (statistics != null) {
+            recordLevels(to);
+            t0 = System.nanoTime();
+        }
+        //note that the entries must be restored from the most recent one.
+        int vm = valuesMark[to];
+        while (nValues > vm) {
+            nValues--;
+            owners[nValues].restore(slots[nValues], values[nValues]);
+            owners[nValues] = null;
+        }
+        int em = entriesMark[to];
+        while (nEntries > em) {
+            nEntries--;
+            entries[nEntries].restore();
+            entries[nEntries] = null;
+        }
+        level = to - 1;
+        if (statistics != null)
+            statistics.restored(System.nanoTime() - t0, nValues + nEntries, retainedBytes());
+    }
+
+    /**
+     * Records the number of entries of each level
+     * from the current one down to the given one, before they are restored.
+     */
+    private void recordLevels(int to) {
+        statistics.retained(nValues + nEntries, retainedBytes());
+        int vAbove = nValues;
+        int eAbove = nEntries;
+        for (int l = level; l >= to; l--) {
+            statistics.levelRestored(vAbove - valuesMark[l] + eAbove - entriesMark[l]);
+            vAbove = valuesMark[l];
+            eAbove = entriesMark[l];
+        }
     }
 
+    private long retainedBytes() {
+        // an owner reference, a slot and a value per primitive entry
+        return owners.length * 16L
+                + entries.length * 4L + nEntries * (long) ENTRY_BYTES
+                + valuesMark.length * 8L;
+    }
+
+    /**
+     * Starts collecting statistics on the trail
+     * and on the states created from now on.
+     *
+     * @return the statistics, updated at each save and restoration
+     */
+    public StateManagerStatistics enableStatistics() {
+        if (statistics == null)
+            statistics = new StateManagerStatistics();
+        return statistics;
+    }
+
+    /**
+     * Returns the statistics collected since {@link #enableStatistics()}.
+     *
+     * @return the statistics, null if they are not enabled
+     */
+    public StateManagerStatistics getStatistics() {
+        return statistics;
+    }
+
+    private <S> S created(S state) {
+        if (statistics != null)
+            statistics.stateCreated(state);
+        return state;
+    }
 
     @Override
     public void restoreState() {
-        current.restore();
-        current = prior.pop();
+        restore(level);
         magic++;
-        notifyRestore();
+        notify(onRestoreLevelListeners);
+        notify(onRestoreListeners);
     }
 
     @Override
@@ -105,23 +233,64 @@ public class Trailer implements StateManager {
 
     @Override
     public void restoreStateUntil(int level) {
-        while (getLevel() > level)
+        if (this.level <= level)
+            return;
+        if (this.level == level + 1) {
             restoreState();
+            return;
+        }
+        if (onRestoreLevelListeners.isEmpty()) {
+            // a single pass down to the marks of the level above the target
+            restore(level + 1);
+        } else {
+            while (this.level > level) {
+                restore(this.level);
+                notify(onRestoreLevelListeners);
+            }
+        }
+        // one fresh magic: no state trailed at the unwound levels can match it
+        magic++;
+        notify(onRestoreListeners);
     }
 
     @Override
     public <T> State<T> makeStateRef(T initValue) {
-        return new Trail<>(this,initValue);
+        return created(new Trail<>(this,initValue));
     }
 
     @Override
     public StateInt makeStateInt(int initValue) {
-        return new TrailInt(this,initValue);
+        return created(new TrailInt(this,initValue));
+    }
+
+    @Override
+    public StateLong makeStateLong(long initValue) {
+        return created(new TrailLong(this,initValue));
+    }
+
+    @Override
+    public StateBool makeStateBool(boolean initValue) {
+        return created(new TrailBool(this,initValue));
+    }
+
+    @Override
+    public StateLongArray makeStateLongArray(int n, long initValue) {
+        return created(new TrailLongArray(this, n, initValue));
     }
 
     @Override
     public StateMap makeStateMap() {
-        return new TrailMap(this);
+        return created(new TrailMap(this));
+    }
+
+    @Override
+    public StateIntIntMap makeStateIntIntMap() {
+        return created(new TrailIntIntMap(this));
+    }
+
+    @Override
+    public StateIntLongMap makeStateIntLongMap() {
+        return created(new TrailIntLongMap(this));
     }
 
     @Override
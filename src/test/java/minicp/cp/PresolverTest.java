@@ -0,0 +1,121 @@
+/*
+ * mini-cp is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License  v3
+ * as published by the Free Software Foundation.
+ *
+ * mini-cp is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY.
+ * See the GNU Lesser General Public License  for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with mini-cp. If not, see http://www.gnu.org/licenses/lgpl-3.0.en.html
+ *
+ * Copyright (c)  2018. by Laurent Michel, Pierre Schaus, Pascal Van Hentenryck
+ */
+
+package minicp.cp;
+
+import minicp.engine.SolverTest;
+import minicp.engine.constraints.Sum;
+import minicp.engine.core.IntVar;
+import minicp.engine.core.Solver;
+import minicp.search.DFSearch;
+import minicp.search.SearchStatistics;
+import minicp.util.exception.InconsistencyException;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.List;
+
+import static minicp.cp.BranchingScheme.firstFail;
+import static minicp.cp.Factory.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PresolverTest extends SolverTest {
+
+    @ParameterizedTest
+    @MethodSource("getSolver")
+    public void testNQueensCliques(Solver cp) {
+        int n = 8;
+        IntVar[] q = makeIntVarArray(cp, n, n);
+        Presolver presolver = new Presolver(cp);
+        for (int i = 0; i < n; i++)
+            for (int j = i + 1; j < n; j++) {
+                presolver.add(notEqual(q[i], q[j]));
+                presolver.add(notEqual(q[i], q[j], j - i));
+                presolver.add(notEqual(q[i], q[j], i - j));
+            }
+        Presolver.Report report = presolver.post();
+        assertEquals(3 * n * (n - 1) / 2, report.numberOfAddedConstraints());
+        assertEquals(3, report.numberOfPostedConstraints());
+        assertEquals(List.of(n, n, n), report.cliqueSizes());
+        assertEquals(3 * n * (n - 1) / 2, report.numberOfNotEqualsInCliques());
+
+        DFSearch search = makeDfs(cp, firstFail(q));
+        SearchStatistics stats = search.solve();
+        assertEquals(92, stats.numberOfSolutions());
+    }
+
+    @ParameterizedTest
+    @MethodSource("getSolver")
+    public void testEqualityMerging(Solver cp) {
+        IntVar x = makeIntVar(cp, 0, 9);
+        IntVar y = makeIntVar(cp, 0, 9);
+        IntVar z = makeIntVar(cp, 0, 9);
+        IntVar w = makeIntVar(cp, 0, 9);
+        Presolver presolver = new Presolver(cp);
+        presolver.add(equal(x, y));
+        presolver.add(equal(y, z));
+        presolver.add(equal(z, x));
+        presolver.add(notEqual(x, w));
+        presolver.add(notEqual(z, w)); // same as x != w once merged
+        presolver.add(notEqual(y, z, 1)); // always true once merged
+        Presolver.Report report = presolver.post();
+        assertEquals(2, report.numberOfMergedVariables());
+        assertEquals(3, report.numberOfPostedConstraints()); // two equal and one notEqual
+        assertEquals(3, report.numberOfDroppedConstraints());
+
+        cp.getStateManager().saveState();
+        z.fix(4);
+        cp.fixPoint();
+        assertTrue(x.isFixed());
+        assertTrue(y.isFixed());
+        assertFalse(w.contains(4));
+        cp.getStateManager().restoreState();
+
+        Presolver inconsistent = new Presolver(cp);
+        inconsistent.add(equal(x, y));
+        inconsistent.add(notEqual(y, x));
+        assertThrows(InconsistencyException.class, () -> inconsistent.post());
+    }
+
+    @ParameterizedTest
+    @MethodSource("getSolver")
+    public void testFixedSubstitution(Solver cp) {
+        IntVar[] x = makeIntVarArray(cp, 4, 10);
+        IntVar y = makeIntVar(cp, 0, 9);
+        x[0].fix(3);
+        x[1].fix(2);
+        Presolver presolver = new Presolver(cp);
+        presolver.add(new Sum(x, 10));
+        presolver.add(new Sum(new IntVar[]{x[0], x[1], y}, 9));
+        presolver.add(notEqual(x[2], x[0]));
+        presolver.add(notEqual(x[3], x[1], 1));
+        Presolver.Report report = presolver.post();
+        assertEquals(1, report.numberOfPostedConstraints());
+        assertEquals(2, report.numberOfValueRemovals());
+        assertEquals(3 + 3, report.numberOfFixedTerms()); // the constant right hand sides are fixed terms
+        assertEquals(4, y.min());
+        assertTrue(y.isFixed());
+        assertFalse(x[2].contains(3));
+        assertFalse(x[3].contains(3));
+
+        cp.getStateManager().saveState();
+        x[2].fix(1);
+        cp.fixPoint();
+        assertEquals(4, x[3].min());
+        assertTrue(x[3].isFixed());
+        cp.getStateManager().restoreState();
+    }
+
+}
@@ -18,7 +18,10 @@ package minicp.engine;
 
 import minicp.engine.core.MiniCP;
 import minicp.engine.core.Solver;
+import minicp.state.ArenaTrailer;
 import minicp.state.Copier;
+import minicp.state.IncrementalCopier;
+import minicp.state.RecomputationCopier;
 import minicp.state.Trailer;
 import org.javagrader.Allow;
 import org.javagrader.Grade;
@@ -34,7 +37,7 @@ import static org.junit.jupiter.params.provider.Arguments.arguments;
 public abstract class SolverTest {
 
     public static Stream<Solver> getSolver() {
-        return Stream.of(new MiniCP(new Trailer()), new MiniCP(new Copier()));
+        return Stream.of(new MiniCP(new Trailer()), new MiniCP(new Copier()), new MiniCP(new IncrementalCopier()), new MiniCP(new ArenaTrailer()), new MiniCP(new RecomputationCopier()));
     }
 
     public static Stream<Arguments> solverSupplier() {
@@ -44,7 +47,16 @@ public abstract class SolverTest {
                         (Supplier<Solver>) () -> new MiniCP(new Trailer()))),
                 arguments(named(
                         new MiniCP(new Copier()).toString(),
-                        (Supplier<Solver>) () -> new MiniCP(new Copier()))));
+                        (Supplier<Solver>) () -> new MiniCP(new Copier()))),
+                arguments(named(
+                        new MiniCP(new IncrementalCopier()).toString(),
+                        (Supplier<Solver>) () -> new MiniCP(new IncrementalCopier()))),
+                arguments(named(
+                        new MiniCP(new ArenaTrailer()).toString(),
+                        (Supplier<Solver>) () -> new MiniCP(new ArenaTrailer()))),
+                arguments(named(
+                        new MiniCP(new RecomputationCopier()).toString(),
+                        (Supplier<Solver>) () -> new MiniCP(new RecomputationCopier()))));
     }
 
 }
@@ -18,6 +18,8 @@ package minicp.engine.constraints;
 import minicp.engine.SolverTest;
 import minicp.engine.core.BoolVar;
 import minicp.engine.core.IntVar;
+import minicp.engine.core.MiniCP;
+import minicp.engine.core.PropagationProfiler;
 import minicp.engine.core.Solver;
 import minicp.search.DFSearch;
 import minicp.search.SearchStatistics;
@@ -176,4 +178,36 @@ public class OrTest extends SolverTest {
         }
     }
 
+    @ParameterizedTest
+    @MethodSource("getSolver")
+    public void orWakesOnWatchedLiteralsOnly(Solver cp) {
+        PropagationProfiler profiler = ((MiniCP) cp).enableProfiling();
+        BoolVar[] x = new BoolVar[1000];
+        for (int i = 0; i < x.length; i++)
+            x[i] = makeBoolVar(cp);
+        cp.post(new Or(x));
+        cp.getStateManager().saveState();
+        // the watches are on the first and the last literals
+        for (int i = 1; i < x.length - 1; i++) {
+            x[i].fix(false);
+            cp.fixPoint();
+        }
+        assertTrue(profiler.byConstraint().isEmpty());
+        x[0].fix(false);
+        cp.fixPoint();
+        assertTrue(x[x.length - 1].isTrue());
+        assertEquals(1, profiler.byConstraint().get(0).calls());
+        cp.getStateManager().restoreState();
+
+        // the watches and their listeners are restored together
+        x[x.length - 1].fix(false);
+        cp.fixPoint();
+        x[0].fix(false);
+        cp.fixPoint();
+        assertFalse(x[1].isFixed());
+        x[1].fix(false);
+        cp.fixPoint();
+        assertFalse(x[2].isFixed());
+    }
+
 }
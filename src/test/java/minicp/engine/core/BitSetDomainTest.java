@@ -0,0 +1,297 @@
+/*
+ * mini-cp is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License  v3
+ * as published by the Free Software Foundation.
+ *
+ * mini-cp is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY.
+ * See the GNU Lesser General Public License  for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with mini-cp. If not, see http://www.gnu.org/licenses/lgpl-3.0.en.html
+ *
+ * Copyright (c)  2018. by Laurent Michel, Pierre Schaus, Pascal Van Hentenryck
+ */
+
+package minicp.engine.core;
+
+import minicp.cp.Factory;
+import minicp.engine.SolverTest;
+import minicp.state.StateManager;
+import minicp.util.exception.InconsistencyException;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+public class BitSetDomainTest extends SolverTest {
+
+    private static class MyDomainListener implements DomainListener {
+
+        int nEmpty = 0;
+        int nFix = 0;
+        int nChange = 0;
+        int nChangeMin = 0;
+        int nChangeMax = 0;
+
+        @Override
+        public void empty() {
+            nEmpty++;
+        }
+
+        @Override
+        public void fix() {
+            nFix++;
+        }
+
+        @Override
+        public void change() {
+            nChange++;
+        }
+
+        @Override
+        public void changeMin() {
+            nChangeMin++;
+        }
+
+        @Override
+        public void changeMax() {
+            nChangeMax++;
+        }
+
+        int[] counts() {
+            return new int[]{nEmpty, nFix, nChange, nChangeMin, nChangeMax};
+        }
+    }
+
+    @ParameterizedTest
+    @MethodSource("getSolver")
+    public void testBoundsAndSize(Solver cp) {
+        MyDomainListener l = new MyDomainListener();
+        BitSetDomain dom = new BitSetDomain(cp.getStateManager(), -10, 110);
+        assertEquals(2, dom.nWords());
+        assertEquals(-10, dom.min());
+        assertEquals(110, dom.max());
+        assertEquals(121, dom.size());
+        assertFalse(dom.contains(-11));
+        assertFalse(dom.contains(111));
+
+        dom.removeBelow(50, l);
+        assertEquals(50, dom.min());
+        assertEquals(61, dom.size());
+        dom.removeAbove(54, l);
+        assertEquals(54, dom.max());
+        assertEquals(5, dom.size());
+        assertArrayEquals(new int[]{0, 0, 2, 1, 1}, l.counts());
+        dom.remove(54, l);
+        dom.remove(52, l);
+        int[] values = new int[dom.size()];
+        assertEquals(3, dom.fillArray(values));
+        assertArrayEquals(new int[]{50, 51, 53}, values);
+        assertEquals("{50,51,53}", dom.toString());
+    }
+
+    @ParameterizedTest
+    @MethodSource("getSolver")
+    public void testSameEventsAsSparseSet(Solver cp) {
+        Random rand = new Random(42);
+        for (int iter = 0; iter < 200; iter++) {
+            int min = rand.nextInt(20) - 10;
+            int max = min + rand.nextInt(128);
+            IntDomain bits = new BitSetDomain(cp.getStateManager(), min, max);
+            IntDomain sparse = new SparseSetDomain(cp.getStateManager(), min, max);
+            MyDomainListener lb = new MyDomainListener();
+            MyDomainListener ls = new MyDomainListener();
+            while (lb.nEmpty == 0 && bits.size() > 1) {
+                int v = min - 2 + rand.nextInt(max - min + 5);
+                switch (rand.nextInt(4)) {
+                    case 0:
+                        bits.remove(v, lb);
+                        sparse.remove(v, ls);
+                        break;
+                    case 1:
+                        bits.removeBelow(v, lb);
+                        sparse.removeBelow(v, ls);
+                        break;
+                    case 2:
+                        bits.removeAbove(v, lb);
+                        sparse.removeAbove(v, ls);
+                        break;
+                    default:
+                        if (rand.nextInt(10) == 0) {
+                            bits.removeAllBut(v, lb);
+                            sparse.removeAllBut(v, ls);
+                        }
+                }
+                assertArrayEquals(ls.counts(), lb.counts());
+                assertEquals(sparse.size(), bits.size());
+                if (sparse.size() > 0) {
+                    assertEquals(sparse.min(), bits.min());
+                    assertEquals(sparse.max(), bits.max());
+                    int[] vs = new int[sparse.size()];
+                    int[] vb = new int[bits.size()];
+                    sparse.fillArray(vs);
+                    bits.fillArray(vb);
+                    Arrays.sort(vs);
+                    assertArrayEquals(vs, vb);
+                }
+            }
+        }
+    }
+
+    @ParameterizedTest
+    @MethodSource("getSolver")
+    public void testWordOperations(Solver cp) {
+        StateManager sm = cp.getStateManager();
+        MyDomainListener l = new MyDomainListener();
+        BitSetDomain dom = new BitSetDomain(sm, 0, 99);
+        assertEquals(-1L, dom.word(0));
+        assertEquals((1L << 36) - 1, dom.word(1));
+
+        sm.saveState();
+
+        // keep the even values
+        long even = 0x5555555555555555L;
+        dom.retainAll(0, new long[]{even, even}, l);
+        assertEquals(50, dom.size());
+        assertEquals(98, dom.max());
+        assertArrayEquals(new int[]{0, 0, 1, 0, 1}, l.counts());
+
+        // remove the values below 64 and 98
+        dom.removeAll(0, new long[]{-1L, 1L << 34}, l);
+        assertEquals(64, dom.min());
+        assertEquals(96, dom.max());
+        assertEquals(17, dom.size());
+        assertArrayEquals(new int[]{0, 0, 2, 1, 2}, l.counts());
+
+        // removing absent values does not notify
+        dom.removeAll(0, new long[]{1L}, l);
+        assertArrayEquals(new int[]{0, 0, 2, 1, 2}, l.counts());
+
+        sm.restoreState();
+        assertEquals(100, dom.size());
+        assertEquals(0, dom.min());
+        assertEquals(99, dom.max());
+    }
+
+    @ParameterizedTest
+    @MethodSource("getSolver")
+    public void testMaskOffset(Solver cp) {
+        StateManager sm = cp.getStateManager();
+        MyDomainListener l = new MyDomainListener();
+        BitSetDomain dom = new BitSetDomain(sm, 10, 109);
+        // bit i stands for the value 3+i: keep {10,...,69}
+        dom.retainAll(3, new long[]{-1L << 7, (1L << 3) - 1}, l);
+        assertEquals(10, dom.min());
+        assertEquals(69, dom.max());
+        assertEquals(60, dom.size());
+        // bit i stands for the value 60+i: remove {60,...,123}
+        dom.removeAll(60, new long[]{-1L}, l);
+        assertEquals(59, dom.max());
+        assertEquals(50, dom.size());
+        dom.removeAll(-100, new long[]{-1L, -1L, -1L}, l);
+        assertEquals(0, dom.size());
+        assertThrows(NoSuchElementException.class, dom::min);
+        assertThrows(NoSuchElementException.class, dom::max);
+        assertEquals(1, l.counts()[0]);
+    }
+
+    @ParameterizedTest
+    @MethodSource("getSolver")
+    public void testIntVarMask(Solver cp) {
+        // a bitset domain, a sparse-set domain and a view on a bitset domain
+        IntVar[] vars = new IntVar[]{
+                Factory.makeIntVar(cp, -20, 99),
+                new IntVarImpl(cp, -20, 99),
+                Factory.plus(Factory.makeIntVar(cp, -25, 94), 5)
+        };
+        assertTrue(vars[0].hasBitSetDomain());
+        assertFalse(vars[1].hasBitSetDomain());
+        assertFalse(vars[2].hasBitSetDomain());
+        for (IntVar x : vars) {
+            cp.getStateManager().saveState();
+            // bit i stands for -30+i: keep the multiples of 3
+            long[] mask = new long[3];
+            for (int v = -30; v < 162; v += 3)
+                mask[(v + 30) >>> 6] |= 1L << (v + 30);
+            x.retainAll(-30, mask);
+            assertEquals(40, x.size());
+            assertEquals(-18, x.min());
+            assertEquals(99, x.max());
+            // bit i stands for 90+i: remove {90,...,153}
+            x.removeAll(90, new long[]{-1L});
+            assertEquals(87, x.max());
+            assertEquals(36, x.size());
+            for (int v = -20; v <= 99; v++)
+                assertEquals(v % 3 == 0 && v < 90, x.contains(v));
+            assertThrows(InconsistencyException.class, () -> x.retainAll(0, new long[]{2L}));
+            cp.getStateManager().restoreState();
+            assertEquals(120, x.size());
+        }
+    }
+
+    @ParameterizedTest
+    @MethodSource("getSolver")
+    public void testDeltaWithHoles(Solver cp) {
+        IntVar x = Factory.makeIntVar(cp, 0, 99);
+        int[][] removed = new int[1][];
+        cp.post(new AbstractConstraint(cp) {
+            DeltaInt delta;
+
+            @Override
+            public void post() {
+                delta = x.delta(this);
+                x.propagateOnDomainChange(this);
+            }
+
+            @Override
+            public void propagate() {
+                int[] values = new int[delta.size()];
+                assertEquals(values.length, delta.fillArray(values));
+                Arrays.sort(values);
+                removed[0] = values;
+            }
+        });
+        cp.getStateManager().saveState();
+        x.remove(10);
+        x.remove(70);
+        cp.fixPoint();
+        assertArrayEquals(new int[]{10, 70}, removed[0]);
+        // the holes of the previous snapshot are not reported again
+        x.remove(80);
+        x.removeBelow(5);
+        cp.fixPoint();
+        assertArrayEquals(new int[]{0, 1, 2, 3, 4, 80}, removed[0]);
+        cp.getStateManager().restoreState();
+        x.remove(20);
+        cp.fixPoint();
+        assertArrayEquals(new int[]{20}, removed[0]);
+    }
+
+    @ParameterizedTest
+    @MethodSource("getSolver")
+    public void testMakeIntVarUsesBitSetDomain(Solver cp) {
+        IntVar x = Factory.makeIntVar(cp, 0, 127);
+        IntVar y = Factory.makeIntVar(cp, 0, 128);
+        cp.getStateManager().saveState();
+        x.removeAbove(70);
+        x.remove(3);
+        y.removeAbove(70);
+        y.remove(3);
+        assertEquals(70, x.size());
+        assertEquals(y.size(), x.size());
+        assertEquals(70, x.max());
+        x.fix(64);
+        assertTrue(x.isFixed());
+        assertThrows(InconsistencyException.class, () -> x.remove(64));
+        cp.getStateManager().restoreState();
+        assertEquals(128, x.size());
+        assertEquals(127, x.max());
+    }
+
+}
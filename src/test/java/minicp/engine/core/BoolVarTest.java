@@ -16,13 +16,14 @@
 package minicp.engine.core;
 
 import minicp.engine.SolverTest;
+import minicp.state.StateManager;
+import minicp.util.exception.InconsistencyException;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.MethodSource;
 
 import static minicp.cp.Factory.*;
-import static org.junit.jupiter.api.Assertions.assertFalse;
-import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.*;
 
 
 public class BoolVarTest extends SolverTest {
@@ -49,4 +50,104 @@ public class BoolVarTest extends SolverTest {
     }
 
 
+    @ParameterizedTest
+    @MethodSource("getSolver")
+    public void testBoolVarLightDomain(Solver cp) {
+        StateManager sm = cp.getStateManager();
+        BoolVar b = new BoolVarLight(cp);
+        assertEquals(0, b.min());
+        assertEquals(1, b.max());
+        assertEquals(2, b.size());
+        assertEquals("{false,true}", b.toString());
+
+        sm.saveState();
+        b.removeBelow(1);
+        assertTrue(b.isTrue());
+        assertFalse(b.contains(0));
+        assertEquals(1, b.size());
+        assertThrows(InconsistencyException.class, () -> b.fix(false));
+        assertThrows(InconsistencyException.class, () -> b.remove(1));
+        b.fix(true);
+        b.removeAbove(3);
+        sm.restoreState();
+
+        assertFalse(b.isFixed());
+        sm.saveState();
+        b.removeAbove(0);
+        assertTrue(b.isFalse());
+        int[] values = new int[2];
+        assertEquals(1, b.fillArray(values));
+        assertEquals(0, values[0]);
+        assertThrows(InconsistencyException.class, () -> b.removeBelow(1));
+        sm.restoreState();
+
+        assertEquals(2, b.fillArray(values));
+        assertThrows(InconsistencyException.class, () -> b.removeBelow(2));
+    }
+
+    @ParameterizedTest
+    @MethodSource("getSolver")
+    public void testBoolVarLightListeners(Solver cp) {
+        BoolVar b = new BoolVarLight(cp);
+        int[] called = new int[1];
+        b.whenFixed(() -> called[0]++);
+        b.whenBoundChange(() -> called[0]++);
+        b.whenDomainChange(() -> called[0]++);
+
+        cp.getStateManager().saveState();
+        b.fix(true);
+        cp.fixPoint();
+        assertEquals(3, called[0]);
+        b.fix(true);
+        cp.fixPoint();
+        assertEquals(3, called[0]);
+        cp.getStateManager().restoreState();
+
+        propagateCalled = false;
+        Constraint cons = new AbstractConstraint(cp) {
+            DeltaInt delta;
+
+            @Override
+            public void post() {
+                delta = b.delta(this);
+                b.propagateOnFix(this);
+            }
+
+            @Override
+            public void propagate() {
+                propagateCalled = true;
+                assertTrue(delta.changed());
+                assertEquals(1, delta.size());
+                assertEquals(1, delta.oldMax());
+                assertTrue(delta.maxChanged());
+                int[] removed = new int[2];
+                assertEquals(1, delta.fillArray(removed));
+                assertEquals(1, removed[0]);
+            }
+        };
+        cp.post(cons);
+        b.fix(0);
+        cp.fixPoint();
+        assertTrue(propagateCalled);
+    }
+
+    @ParameterizedTest
+    @MethodSource("getSolver")
+    public void testMakeBoolVarInReifiedConstraints(Solver cp) {
+        IntVar x = makeIntVar(cp, 0, 5);
+        BoolVar b = isEqual(x, 3);
+        BoolVar nb = not(b);
+        assertTrue(b instanceof BoolVarLight);
+        cp.getStateManager().saveState();
+        nb.fix(false);
+        cp.fixPoint();
+        assertTrue(x.isFixed());
+        assertEquals(3, x.min());
+        cp.getStateManager().restoreState();
+        x.remove(3);
+        cp.fixPoint();
+        assertTrue(b.isFalse());
+        assertTrue(nb.isTrue());
+    }
+
 }
@@ -0,0 +1,260 @@
+/*
+ * mini-cp is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License  v3
+ * as published by the Free Software Foundation.
+ *
+ * mini-cp is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY.
+ * See the GNU Lesser General Public License  for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with mini-cp. If not, see http://www.gnu.org/licenses/lgpl-3.0.en.html
+ *
+ * Copyright (c)  2018. by Laurent Michel, Pierre Schaus, Pascal Van Hentenryck
+ */
+
+package minicp.engine.core;
+
+import minicp.engine.SolverTest;
+import minicp.state.StateManager;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static minicp.cp.Factory.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DeltaIntTest extends SolverTest {
+
+    /**
+     * Records the deltas seen at its last propagation.
+     */
+    private static class DeltaRecorder extends AbstractConstraint {
+        private final IntVar[] x;
+        private final DeltaInt[] deltas;
+        private final Set<Integer>[] removed;
+        private final int[][] bounds;
+
+        DeltaRecorder(IntVar... x) {
+            super(x[0].getSolver());
+            this.x = x;
+            deltas = new DeltaInt[x.length];
+            removed = new Set[x.length];
+            bounds = new int[x.length][];
+        }
+
+        @Override
+        public void post() {
+            for (int i = 0; i < x.length; i++) {
+                deltas[i] = x[i].delta(this);
+                x[i].propagateOnDomainChange(this);
+            }
+        }
+
+        @Override
+        public void propagate() {
+            for (int i = 0; i < x.length; i++) {
+                DeltaInt d = deltas[i];
+                assertSame(x[i], d.variable());
+                int[] values = new int[d.size()];
+                assertEquals(d.size(), d.fillArray(values));
+                assertEquals(d.changed(), d.size() > 0);
+                assertEquals(d.minChanged(), d.min() != d.oldMin());
+                assertEquals(d.maxChanged(), d.max() != d.oldMax());
+                removed[i] = Arrays.stream(values).boxed().collect(Collectors.toSet());
+                bounds[i] = new int[]{d.oldMin(), d.oldMax(), d.min(), d.max()};
+            }
+        }
+    }
+
+    /**
+     * Records the values removed at its last propagation,
+     * without extending {@link AbstractConstraint}.
+     */
+    private static class PlainDeltaRecorder implements Constraint {
+        private final IntVar x;
+        private DeltaInt delta;
+        private Set<Integer> removed;
+        private boolean scheduled = false;
+
+        PlainDeltaRecorder(IntVar x) {
+            this.x = x;
+        }
+
+        @Override
+        public void post() {
+            delta = x.delta(this);
+            x.propagateOnDomainChange(this);
+        }
+
+        @Override
+        public void propagate() {
+            int[] values = new int[delta.size()];
+            delta.fillArray(values);
+            removed = Arrays.stream(values).boxed().collect(Collectors.toSet());
+        }
+
+        @Override
+        public void setScheduled(boolean scheduled) {
+            this.scheduled = scheduled;
+        }
+
+        @Override
+        public boolean isScheduled() {
+            return scheduled;
+        }
+
+        @Override
+        public void setActive(boolean active) {
+        }
+
+        @Override
+        public boolean isActive() {
+            return true;
+        }
+    }
+
+    private static Set<Integer> set(Integer... values) {
+        return new HashSet<>(Arrays.asList(values));
+    }
+
+    @ParameterizedTest
+    @MethodSource("getSolver")
+    public void testDeltaThroughViews(Solver cp) {
+        StateManager sm = cp.getStateManager();
+        IntVar x = makeIntVar(cp, 0, 9);
+        DeltaRecorder c = new DeltaRecorder(x, plus(x, 3), mul(x, 2), minus(x));
+        cp.post(c);
+
+        sm.saveState();
+
+        x.remove(5);
+        x.removeAbove(7);
+        cp.fixPoint();
+        assertEquals(set(5, 8, 9), c.removed[0]);
+        assertArrayEquals(new int[]{0, 9, 0, 7}, c.bounds[0]);
+        assertEquals(set(8, 11, 12), c.removed[1]);
+        assertArrayEquals(new int[]{3, 12, 3, 10}, c.bounds[1]);
+        assertEquals(set(10, 16, 18), c.removed[2]);
+        assertArrayEquals(new int[]{0, 18, 0, 14}, c.bounds[2]);
+        assertEquals(set(-5, -8, -9), c.removed[3]);
+        assertArrayEquals(new int[]{-9, 0, -7, 0}, c.bounds[3]);
+
+        // only the changes since the last propagation
+        x.remove(0);
+        cp.fixPoint();
+        assertEquals(set(0), c.removed[0]);
+        assertArrayEquals(new int[]{0, 7, 1, 7}, c.bounds[0]);
+
+        sm.restoreState();
+
+        // the snapshot is restored with the domain
+        x.remove(1);
+        cp.fixPoint();
+        assertEquals(set(1), c.removed[0]);
+        assertArrayEquals(new int[]{0, 9, 0, 9}, c.bounds[0]);
+        assertEquals(set(-1), c.removed[3]);
+    }
+
+    @ParameterizedTest
+    @MethodSource("getSolver")
+    public void testDeltaOfPlainConstraint(Solver cp) {
+        StateManager sm = cp.getStateManager();
+        IntVar x = makeIntVar(cp, 0, 9);
+        PlainDeltaRecorder c = new PlainDeltaRecorder(x);
+        cp.post(c);
+
+        sm.saveState();
+
+        x.remove(3);
+        x.removeAbove(7);
+        cp.fixPoint();
+        assertEquals(set(3, 8, 9), c.removed);
+
+        // the delta kept by the solver is also updated
+        x.remove(5);
+        cp.fixPoint();
+        assertEquals(set(5), c.removed);
+
+        sm.restoreState();
+
+        x.remove(0);
+        cp.fixPoint();
+        assertEquals(set(0), c.removed);
+    }
+
+    @ParameterizedTest
+    @MethodSource("getSolver")
+    public void testDeltaOfWideDomain(Solver cp) {
+        IntVar x = makeIntVar(cp, 0, 100000);
+        DeltaRecorder c = new DeltaRecorder(x);
+        cp.post(c);
+
+        x.removeBelow(10);
+        x.removeAbove(99995);
+        cp.fixPoint();
+        assertEquals(15, c.removed[0].size());
+        assertTrue(c.removed[0].contains(0) && c.removed[0].contains(100000));
+
+        x.remove(500);
+        cp.fixPoint();
+        assertEquals(set(500), c.removed[0]);
+    }
+
+    @ParameterizedTest
+    @MethodSource("getSolver")
+    public void testDeltaOfLazyDomainWithHoles(Solver cp) {
+        IntVar x = makeIntVar(cp, 0, 2000);
+        DeltaRecorder c = new DeltaRecorder(x);
+        cp.post(c);
+
+        x.remove(5);
+        cp.fixPoint();
+        assertEquals(set(5), c.removed[0]);
+
+        // the hole removed before is not reported again
+        x.remove(10);
+        cp.fixPoint();
+        assertEquals(set(10), c.removed[0]);
+
+        x.removeAbove(1997);
+        cp.fixPoint();
+        assertEquals(set(1998, 1999, 2000), c.removed[0]);
+    }
+
+    @ParameterizedTest
+    @MethodSource("getSolver")
+    public void testDeltaOverTheSwitchOfALazyDomain(Solver cp) {
+        StateManager sm = cp.getStateManager();
+        IntVar x = makeIntVar(cp, 0, 2000);
+        DeltaRecorder c = new DeltaRecorder(x);
+        cp.post(c);
+
+        sm.saveState();
+
+        // the bounds are removed while an interval, then the hole
+        x.removeBelow(3);
+        x.removeAbove(1997);
+        x.remove(100);
+        cp.fixPoint();
+        assertEquals(set(0, 1, 2, 100, 1998, 1999, 2000), c.removed[0]);
+
+        x.remove(3);
+        x.remove(200);
+        cp.fixPoint();
+        assertEquals(set(3, 200), c.removed[0]);
+
+        sm.restoreState();
+
+        // switches again with other bounds
+        x.removeBelow(1);
+        x.remove(50);
+        cp.fixPoint();
+        assertEquals(set(0, 50), c.removed[0]);
+    }
+
+}
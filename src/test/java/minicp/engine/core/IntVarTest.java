@@ -374,5 +374,117 @@ public class IntVarTest extends SolverTest {
         }
     }
 
+    @ParameterizedTest
+    @MethodSource("getSolver")
+    public void wideRangeDomains(Solver cp) {
+        IntVar x = makeIntVar(cp, -500000, 500000);
+
+        cp.getStateManager().saveState();
+
+        x.removeBelow(-10);
+        x.removeAbove(10);
+        x.remove(-10);
+        assertEquals(20, x.size());
+        assertEquals(-9, x.min());
+
+        cp.getStateManager().saveState();
+
+        x.remove(0);
+        assertEquals(19, x.size());
+        assertFalse(x.contains(0));
+        x.removeAbove(0);
+        assertEquals(-1, x.max());
+
+        cp.getStateManager().restoreState();
+
+        assertTrue(x.contains(0));
+        assertEquals(20, x.size());
+        assertEquals(10, x.max());
+
+        cp.getStateManager().restoreState();
+
+        assertEquals(1000001, x.size());
+        assertEquals(-500000, x.min());
+        assertEquals(500000, x.max());
+    }
+
+    @ParameterizedTest
+    @MethodSource("getSolver")
+    public void testInactiveConstraintsRemovedFromListeners(Solver cp) {
+        IntVar x = makeIntVar(cp, 0, 9);
+        int[] calls = new int[2];
+        Constraint[] cons = new Constraint[2];
+        for (int k = 0; k < 2; k++) {
+            final int id = k;
+            cons[k] = new AbstractConstraint(cp) {
+                @Override
+                public void post() {
+                    x.propagateOnDomainChange(this);
+                    x.propagateOnBoundChange(this);
+                }
+
+                @Override
+                public void propagate() {
+                    calls[id]++;
+                }
+            };
+            cp.post(cons[k]);
+        }
+
+        cp.getStateManager().saveState();
+        cons[0].setActive(false);
+        x.remove(0);
+        cp.fixPoint();
+        assertArrayEquals(new int[]{0, 1}, calls);
+        // a constraint posted after the removal is scheduled too
+        IntVar y = makeIntVar(cp, 0, 9);
+        cp.post(lessOrEqual(y, x));
+        x.removeAbove(5);
+        cp.fixPoint();
+        assertArrayEquals(new int[]{0, 2}, calls);
+        assertEquals(5, y.max());
+        cp.getStateManager().restoreState();
+
+        // the deactivated constraint is listening again
+        x.remove(3);
+        cp.fixPoint();
+        assertArrayEquals(new int[]{1, 3}, calls);
+    }
+
+    @ParameterizedTest
+    @MethodSource("getSolver")
+    public void testEntailedConstraintsDeactivated(Solver cp) {
+        IntVar x = makeIntVar(cp, 0, 4);
+        IntVar y = makeIntVar(cp, 5, 9);
+        Constraint le = lessOrEqual(x, y);
+        Constraint ne = notEqual(x, y);
+        cp.post(le);
+        cp.post(ne);
+        assertFalse(le.isActive());
+        assertFalse(ne.isActive());
+
+        IntVar[] z = makeIntVarArray(cp, 3, 5);
+        cp.getStateManager().saveState();
+        Constraint sum = new minicp.engine.constraints.Sum(z, 6);
+        cp.post(sum);
+        assertTrue(sum.isActive());
+        z[0].fix(2);
+        z[1].fix(2);
+        cp.fixPoint();
+        assertTrue(z[2].isFixed());
+        assertFalse(sum.isActive());
+        cp.getStateManager().restoreState();
+
+        BoolVar b = isLessOrEqual(x, 2);
+        cp.getStateManager().saveState();
+        x.removeAbove(1);
+        cp.fixPoint();
+        assertTrue(b.isTrue());
+        cp.getStateManager().restoreState();
+        assertFalse(b.isFixed());
+        b.fix(false);
+        cp.fixPoint();
+        assertEquals(3, x.min());
+    }
 
 }
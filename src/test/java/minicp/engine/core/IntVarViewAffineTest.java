@@ -0,0 +1,145 @@
+/*
+ * mini-cp is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License  v3
+ * as published by the Free Software Foundation.
+ *
+ * mini-cp is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY.
+ * See the GNU Lesser General Public License  for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with mini-cp. If not, see http://www.gnu.org/licenses/lgpl-3.0.en.html
+ *
+ * Copyright (c)  2018. by Laurent Michel, Pierre Schaus, Pascal Van Hentenryck
+ */
+
+package minicp.engine.core;
+
+import minicp.engine.SolverTest;
+import minicp.util.exception.InconsistencyException;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.Random;
+import java.util.TreeSet;
+
+import static minicp.cp.Factory.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+
+public class IntVarViewAffineTest extends SolverTest {
+
+    public boolean propagateCalled = false;
+
+    @ParameterizedTest
+    @MethodSource("getSolver")
+    public void testFlattening(Solver cp) {
+        IntVar x = makeIntVar(cp, -3, 4);
+        IntVar y = minus(plus(mul(x, 3), 5)); // -3x-5
+        assertTrue(y instanceof IntVarViewAffine);
+        IntVarViewAffine v = (IntVarViewAffine) y;
+        assertSame(x, v.variable());
+        assertEquals(-3, v.coefficient());
+        assertEquals(-5, v.offset());
+        assertEquals(-17, y.min());
+        assertEquals(4, y.max());
+
+        assertSame(x, minus(minus(x)));
+        assertSame(x, minus(plus(x, 7), 7));
+        assertSame(x, mul(x, 1));
+    }
+
+    @ParameterizedTest
+    @MethodSource("getSolver")
+    public void testRounding(Solver cp) {
+        Random rand = new Random(0);
+        for (int iter = 0; iter < 100; iter++) {
+            cp.getStateManager().saveState();
+            IntVar x = makeIntVar(cp, -10, 10);
+            int a = rand.nextInt(9) - 4;
+            if (a == 0) a = 5;
+            int b = rand.nextInt(21) - 10;
+            IntVar y = affine(x, a, b);
+            TreeSet<Integer> expected = new TreeSet<>();
+            for (int i = -10; i <= 10; i++)
+                expected.add(a * i + b);
+            try {
+                for (int k = 0; k < 5; k++) {
+                    int v = rand.nextInt(100) - 50;
+                    switch (rand.nextInt(3)) {
+                        case 0:
+                            expected.removeIf(e -> e < v);
+                            y.removeBelow(v);
+                            break;
+                        case 1:
+                            expected.removeIf(e -> e > v);
+                            y.removeAbove(v);
+                            break;
+                        default:
+                            expected.remove(v);
+                            y.remove(v);
+                    }
+                    assertFalse(expected.isEmpty());
+                    assertEquals(expected.size(), y.size());
+                    assertEquals((int) expected.first(), y.min());
+                    assertEquals((int) expected.last(), y.max());
+                    for (int i = y.min() - 1; i <= y.max() + 1; i++)
+                        assertEquals(expected.contains(i), y.contains(i));
+                }
+            } catch (InconsistencyException e) {
+                assertTrue(expected.isEmpty());
+            }
+            cp.getStateManager().restoreState();
+        }
+    }
+
+    @ParameterizedTest
+    @MethodSource("getSolver")
+    public void testFix(Solver cp) {
+        IntVar x = makeIntVar(cp, 0, 9);
+        IntVar y = plus(mul(x, -2), 1); // {-17,...,1} by steps of 2
+        cp.getStateManager().saveState();
+        assertThrowsExactly(InconsistencyException.class, () -> y.fix(0));
+        y.fix(-5);
+        assertTrue(x.isFixed());
+        assertEquals(3, x.min());
+        cp.getStateManager().restoreState();
+        assertEquals(10, y.size());
+    }
+
+    @ParameterizedTest
+    @MethodSource("getSolver")
+    public void testListenersAndDelta(Solver cp) {
+        propagateCalled = false;
+        IntVar x = makeIntVar(cp, 0, 9);
+        IntVar y = minus(mul(plus(x, 1), 2)); // -2x-2
+
+        Constraint cons = new AbstractConstraint(cp) {
+            DeltaInt delta;
+
+            @Override
+            public void post() {
+                delta = y.delta(this);
+                y.propagateOnBoundChange(this);
+            }
+
+            @Override
+            public void propagate() {
+                propagateCalled = true;
+                assertEquals(-20, delta.oldMin());
+                assertEquals(-18, delta.min());
+                assertTrue(delta.minChanged());
+                assertFalse(delta.maxChanged());
+                int[] removed = new int[10];
+                assertEquals(1, delta.fillArray(removed));
+                assertEquals(-20, removed[0]);
+            }
+        };
+        cp.post(cons);
+        y.removeBelow(-19);
+        cp.fixPoint();
+        assertTrue(propagateCalled);
+        assertEquals(8, x.max());
+    }
+
+}
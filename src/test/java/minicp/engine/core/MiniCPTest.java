@@ -18,12 +18,16 @@ package minicp.engine.core;
 import minicp.engine.SolverTest;
 import minicp.search.DFSearch;
 import minicp.search.SearchStatistics;
+import minicp.util.exception.InconsistencyException;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.MethodSource;
 
 import static minicp.cp.BranchingScheme.*;
 import static minicp.cp.Factory.*;
-import static org.junit.jupiter.api.Assertions.assertEquals;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
 
 
 public class MiniCPTest extends SolverTest {
@@ -75,5 +79,120 @@ public class MiniCPTest extends SolverTest {
         assertEquals((8 + 4 + 2),stats.numberOfNodes());
     }
 
+    private static Constraint recorder(Solver cp, IntVar x, int priority, String name, List<String> trace) {
+        return new AbstractConstraint(cp) {
+            @Override
+            public void post() {
+                x.propagateOnDomainChange(this);
+            }
+
+            @Override
+            public void propagate() {
+                trace.add(name);
+            }
+
+            @Override
+            public int priority() {
+                return priority;
+            }
+        };
+    }
+
+    @ParameterizedTest
+    @MethodSource("getSolver")
+    public void testPropagationPriorities(Solver cp) {
+        IntVar x = makeIntVar(cp, 0, 9);
+        List<String> trace = new ArrayList<>();
+        cp.post(recorder(cp, x, Constraint.PRIORITY_EXPENSIVE, "expensive1", trace), false);
+        cp.post(recorder(cp, x, Constraint.PRIORITY_DEFAULT, "default", trace), false);
+        cp.post(recorder(cp, x, Constraint.PRIORITY_EXPENSIVE, "expensive2", trace), false);
+        cp.post(recorder(cp, x, Constraint.PRIORITY_CHEAP, "cheap1", trace), false);
+        cp.post(recorder(cp, x, Constraint.PRIORITY_CHEAP, "cheap2", trace), false);
+
+        x.remove(5);
+        cp.fixPoint();
+        // the cheapest first, in scheduling order within a priority
+        assertEquals(List.of("cheap1", "cheap2", "default", "expensive1", "expensive2"), trace);
+    }
+
+    @ParameterizedTest
+    @MethodSource("getSolver")
+    public void testCheapPropagatedBeforeRemainingExpensive(Solver cp) {
+        IntVar x = makeIntVar(cp, 0, 9);
+        IntVar y = makeIntVar(cp, 0, 9);
+        List<String> trace = new ArrayList<>();
+        cp.post(new AbstractConstraint(cp) {
+            @Override
+            public void post() {
+                x.propagateOnDomainChange(this);
+            }
+
+            @Override
+            public void propagate() {
+                trace.add("expensive1");
+                y.removeAbove(x.max());
+            }
+
+            @Override
+            public int priority() {
+                return PRIORITY_EXPENSIVE;
+            }
+        }, false);
+        cp.post(recorder(cp, x, Constraint.PRIORITY_EXPENSIVE, "expensive2", trace), false);
+        cp.post(recorder(cp, y, Constraint.PRIORITY_CHEAP, "cheap", trace), false);
+
+        x.removeAbove(5);
+        cp.fixPoint();
+        assertEquals(List.of("expensive1", "cheap", "expensive2"), trace);
+    }
+    @ParameterizedTest
+    @MethodSource("getSolver")
+    public void testProfiler(Solver solver) {
+        MiniCP cp = (MiniCP) solver;
+        assertNull(cp.getProfiler());
+
+        IntVar x = makeIntVar(cp, 0, 9);
+        IntVar y = makeIntVar(cp, 0, 9);
+        IntVar z = makeIntVar(cp, 0, 9);
+        cp.post(lessOrEqual(x, y));
+        cp.post(lessOrEqual(y, z));
+
+        // the variables created before are also observed
+        PropagationProfiler profiler = cp.enableProfiling();
+        assertSame(profiler, cp.getProfiler());
+
+        cp.getStateManager().saveState();
+        x.removeBelow(5); // y >= 5 removes 5 values, then z >= 5 removes 5
+        cp.fixPoint();
+        cp.getStateManager().restoreState();
+
+        cp.getStateManager().saveState();
+        z.removeAbove(2);
+        x.removeBelow(4); // y <= 2 removes 7 values, then x <= y fails
+        assertThrows(InconsistencyException.class, () -> cp.fixPoint());
+        cp.getStateManager().restoreState();
+
+        List<PropagationProfiler.Profile> classes = profiler.byClass();
+        assertEquals(1, classes.size());
+        PropagationProfiler.Profile p = classes.get(0);
+        assertEquals("LessOrEqual", p.name());
+        assertEquals(1, p.failures());
+        assertEquals(17, p.removedValues());
+        assertTrue(p.pruningCalls() >= 3);
+        assertTrue(p.calls() >= p.pruningCalls());
+
+        List<PropagationProfiler.Profile> constraints = profiler.byConstraint();
+        assertEquals(2, constraints.size());
+        assertEquals(p.calls(), constraints.get(0).calls() + constraints.get(1).calls());
+        assertTrue(constraints.get(0).name().startsWith("LessOrEqual#"));
+
+        String[] csv = profiler.toCsv().split("\n");
+        assertEquals(3, csv.length);
+        assertTrue(csv[1].startsWith("LessOrEqual#"));
+        assertTrue(profiler.toJson().startsWith("{\"classes\":[{\"name\":\"LessOrEqual\""));
+
+        profiler.reset();
+        assertTrue(profiler.byConstraint().isEmpty());
+    }
 
 }
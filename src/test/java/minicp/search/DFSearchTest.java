@@ -282,11 +282,10 @@ public class DFSearchTest extends StateManagerTest {
     @ParameterizedTest
     @MethodSource("getStateManager")
     @Order(2)
-    @Disabled
     public void testDeepDFS(StateManager sm) {
 
         StateInt i = sm.makeStateInt(0);
-        boolean[] values = new boolean[10000];
+        boolean[] values = new boolean[100000];
 
         DFSearch dfs = new DFSearch(sm, () -> {
             if (i.value() >= values.length) {
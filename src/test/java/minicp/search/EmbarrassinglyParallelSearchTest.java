@@ -0,0 +1,124 @@
+/*
+ * mini-cp is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License  v3
+ * as published by the Free Software Foundation.
+ *
+ * mini-cp is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY.
+ * See the GNU Lesser General Public License  for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with mini-cp. If not, see http://www.gnu.org/licenses/lgpl-3.0.en.html
+ *
+ * Copyright (c)  2018. by Laurent Michel, Pierre Schaus, Pascal Van Hentenryck
+ */
+
+package minicp.search;
+
+import minicp.engine.SolverTest;
+import minicp.engine.core.IntVar;
+import minicp.engine.core.Solver;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static minicp.cp.BranchingScheme.firstFail;
+import static minicp.cp.Factory.*;
+import static minicp.search.SearchModels.queens;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EmbarrassinglyParallelSearchTest extends SolverTest {
+
+    @ParameterizedTest
+    @MethodSource("solverSupplier")
+    public void testAllSolutions(Supplier<Solver> solverFactory) {
+        Set<String> solutions = new HashSet<>();
+        EmbarrassinglyParallelSearch eps = new EmbarrassinglyParallelSearch(
+                () -> queens(solverFactory.get(), 8, solutions), 4, 6);
+        SearchStatistics stats = eps.solve();
+
+        assertTrue(eps.numberOfSubproblems() > 10);
+        assertEquals(92, stats.numberOfSolutions());
+        assertEquals(92, solutions.size());
+        assertTrue(stats.isCompleted());
+
+        Solver cp = solverFactory.get();
+        SearchStatistics sequential = makeDfs(cp, queens(cp, 8, new HashSet<>()).getBranching()).solve();
+        assertEquals(sequential.numberOfNodes(), stats.numberOfNodes());
+        assertEquals(sequential.numberOfFailures(), stats.numberOfFailures());
+    }
+
+    @ParameterizedTest
+    @MethodSource("solverSupplier")
+    public void testDepthZero(Supplier<Solver> solverFactory) {
+        EmbarrassinglyParallelSearch eps = new EmbarrassinglyParallelSearch(
+                () -> queens(solverFactory.get(), 6, new HashSet<>()), 2, 0);
+        SearchStatistics stats = eps.solve();
+        assertEquals(1, eps.numberOfSubproblems());
+        assertEquals(4, stats.numberOfSolutions());
+    }
+
+    @ParameterizedTest
+    @MethodSource("solverSupplier")
+    public void testSharedBound(Supplier<Solver> solverFactory) {
+        int n = 7;
+        int[] best = {Integer.MAX_VALUE};
+        EmbarrassinglyParallelSearch eps = new EmbarrassinglyParallelSearch(() -> {
+            Solver cp = solverFactory.get();
+            IntVar[] x = makeIntVarArray(cp, n, n);
+            IntVar[] terms = new IntVar[n];
+            for (int i = 0; i < n; i++) {
+                terms[i] = mul(x[i], i);
+                for (int j = i + 1; j < n; j++)
+                    cp.post(notEqual(x[i], x[j]));
+            }
+            IntVar obj = sum(terms);
+            return new SearchModel(cp, firstFail(x)).minimize(obj).onSolution(() -> {
+                // the listeners are not called concurrently and the solutions improve
+                assertTrue(obj.min() < best[0]);
+                best[0] = obj.min();
+            });
+        }, 4, 2);
+        SearchStatistics stats = eps.solve();
+
+        int optimum = 0;
+        for (int i = 0; i < n; i++)
+            optimum += i * (n - 1 - i);
+        assertEquals(optimum, best[0]);
+        assertEquals(optimum, eps.best());
+        assertTrue(stats.isCompleted());
+    }
+
+    @ParameterizedTest
+    @MethodSource("solverSupplier")
+    public void testLimit(Supplier<Solver> solverFactory) {
+        EmbarrassinglyParallelSearch eps = new EmbarrassinglyParallelSearch(
+                () -> queens(solverFactory.get(), 10, new HashSet<>()), 3, 2);
+        SearchStatistics stats = eps.solve(s -> s.numberOfSolutions() >= 1);
+        assertFalse(stats.isCompleted());
+        assertTrue(stats.numberOfSolutions() >= 1);
+        assertTrue(stats.numberOfSolutions() <= 3);
+    }
+
+    @ParameterizedTest
+    @MethodSource("solverSupplier")
+    public void testFailingWorkerStopsTheSearch(Supplier<Solver> solverFactory) {
+        AtomicInteger nSolutions = new AtomicInteger();
+        EmbarrassinglyParallelSearch eps = new EmbarrassinglyParallelSearch(() -> {
+            Solver cp = solverFactory.get();
+            return queens(cp, 8, new HashSet<>()).onSolution(() -> {
+                if (nSolutions.incrementAndGet() == 1)
+                    throw new IllegalStateException("listener failure");
+            });
+        }, 4, 4);
+        IllegalStateException e = assertThrows(IllegalStateException.class, eps::solve);
+        assertTrue(e.getMessage().contains("listener failure"));
+        // the other workers stop instead of solving the remaining subproblems
+        assertTrue(nSolutions.get() < 92);
+    }
+
+}
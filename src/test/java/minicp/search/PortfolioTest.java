@@ -0,0 +1,142 @@
+/*
+ * mini-cp is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License  v3
+ * as published by the Free Software Foundation.
+ *
+ * mini-cp is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY.
+ * See the GNU Lesser General Public License  for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with mini-cp. If not, see http://www.gnu.org/licenses/lgpl-3.0.en.html
+ *
+ * Copyright (c)  2018. by Laurent Michel, Pierre Schaus, Pascal Van Hentenryck
+ */
+
+package minicp.search;
+
+import minicp.engine.SolverTest;
+import minicp.engine.core.IntVar;
+import minicp.engine.core.Minimize;
+import minicp.engine.core.Solver;
+import minicp.examples.OptimizationProblem;
+import minicp.util.Procedure;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.function.Supplier;
+
+import static minicp.cp.BranchingScheme.*;
+import static minicp.cp.Factory.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PortfolioTest extends SolverTest {
+
+    private static final int N = 7;
+
+    /**
+     * Assigns distinct values to x minimizing sum(i * x[i]).
+     */
+    private static class Assignment extends OptimizationProblem {
+        final Solver cp;
+        IntVar[] x;
+        IntVar obj;
+
+        Assignment(Solver cp) {
+            this.cp = cp;
+        }
+
+        @Override
+        public void buildModel() {
+            x = makeIntVarArray(cp, N, N);
+            IntVar[] terms = new IntVar[N];
+            for (int i = 0; i < N; i++) {
+                terms[i] = mul(x[i], i);
+                for (int j = i + 1; j < N; j++)
+                    cp.post(notEqual(x[i], x[j]));
+            }
+            obj = sum(terms);
+            objective = cp.minimize(obj);
+            dfs = makeDfs(cp, firstFail(x));
+        }
+
+        Supplier<Procedure[]> maxValueFirst() {
+            return () -> {
+                IntVar xs = selectMin(x, xi -> xi.size() > 1, xi -> xi.size());
+                if (xs == null)
+                    return EMPTY;
+                int v = xs.max();
+                return branch(() -> cp.post(equal(xs, v)), () -> cp.post(notEqual(xs, v)));
+            };
+        }
+    }
+
+    private static int optimum() {
+        int optimum = 0;
+        for (int i = 0; i < N; i++)
+            optimum += i * (N - 1 - i);
+        return optimum;
+    }
+
+    @ParameterizedTest
+    @MethodSource("solverSupplier")
+    public void testSharedIncumbent(Supplier<Solver> solverFactory) {
+        Portfolio portfolio = new Portfolio()
+                .add(() -> {
+                    Assignment a = new Assignment(solverFactory.get());
+                    a.buildModel();
+                    return a.portfolioMember();
+                })
+                .add(() -> {
+                    Assignment a = new Assignment(solverFactory.get());
+                    a.buildModel();
+                    a.dfs = makeDfs(a.cp, a.maxValueFirst());
+                    return a.portfolioMember();
+                });
+        SearchStatistics stats = portfolio.optimize();
+
+        assertEquals(optimum(), portfolio.best());
+        assertTrue(stats.isCompleted());
+        assertTrue(portfolio.winner() == 0 || portfolio.winner() == 1);
+        assertTrue(portfolio.statistics(portfolio.winner()).isCompleted());
+        assertEquals(stats.numberOfNodes(),
+                portfolio.statistics(0).numberOfNodes() + portfolio.statistics(1).numberOfNodes());
+    }
+
+    @ParameterizedTest
+    @MethodSource("solverSupplier")
+    public void testIncompleteMemberProvesNothing(Supplier<Solver> solverFactory) {
+        Portfolio portfolio = new Portfolio().add(() -> {
+            Assignment a = new Assignment(solverFactory.get());
+            a.buildModel();
+            return new Portfolio.Member(a.dfs, a.objective, false);
+        });
+        SearchStatistics stats = portfolio.optimize();
+        assertEquals(optimum(), portfolio.best());
+        assertEquals(-1, portfolio.winner());
+        assertFalse(stats.isCompleted());
+    }
+
+    @ParameterizedTest
+    @MethodSource("solverSupplier")
+    public void testMinimizeSeesTheSharedBound(Supplier<Solver> solverFactory) {
+        SharedObjective shared = new SharedObjective();
+        Solver cp = solverFactory.get();
+        IntVar x = makeIntVar(cp, 0, 10);
+        Minimize objective = (Minimize) cp.minimize(x);
+        objective.share(shared);
+
+        cp.fixPoint();
+        assertEquals(10, x.max());
+        // found by another solver
+        assertTrue(shared.improve(6));
+        cp.fixPoint();
+        assertEquals(5, x.max());
+
+        cp.post(equal(x, 3));
+        objective.tighten();
+        assertEquals(3, shared.best());
+        assertFalse(shared.improve(4));
+    }
+
+}
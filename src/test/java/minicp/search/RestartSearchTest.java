@@ -0,0 +1,153 @@
+/*
+ * mini-cp is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License  v3
+ * as published by the Free Software Foundation.
+ *
+ * mini-cp is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY.
+ * See the GNU Lesser General Public License  for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with mini-cp. If not, see http://www.gnu.org/licenses/lgpl-3.0.en.html
+ *
+ * Copyright (c)  2018. by Laurent Michel, Pierre Schaus, Pascal Van Hentenryck
+ */
+
+package minicp.search;
+
+import minicp.engine.SolverTest;
+import minicp.engine.core.IntVar;
+import minicp.engine.core.Solver;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static minicp.cp.BranchingScheme.firstFail;
+import static minicp.cp.Factory.*;
+import static minicp.search.SearchModels.queens;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RestartSearchTest extends SolverTest {
+
+    @Test
+    public void testSchedules() {
+        long[] expected = {1, 1, 2, 1, 1, 2, 4, 1, 1, 2, 1, 1, 2, 4, 8, 1};
+        for (int i = 0; i < expected.length; i++)
+            assertEquals(expected[i], RestartSearch.lubyTerm(i + 1));
+
+        RestartSearch.Schedule luby = RestartSearch.luby(10);
+        assertEquals(10, luby.failureLimit(0));
+        assertEquals(20, luby.failureLimit(2));
+        assertEquals(80, luby.failureLimit(14));
+
+        RestartSearch.Schedule geometric = RestartSearch.geometric(10, 1.5);
+        assertEquals(10, geometric.failureLimit(0));
+        assertEquals(15, geometric.failureLimit(1));
+        assertEquals(23, geometric.failureLimit(2));
+        assertEquals(Integer.MAX_VALUE, geometric.failureLimit(1000));
+
+        assertEquals(7, RestartSearch.constant(7).failureLimit(100));
+        assertThrows(IllegalArgumentException.class, () -> RestartSearch.constant(0));
+        assertThrows(IllegalArgumentException.class, () -> RestartSearch.geometric(1, 0.5));
+    }
+
+    @ParameterizedTest
+    @MethodSource("getSolver")
+    public void testSolveRestoresTheRoot(Solver cp) {
+        IntVar[] q = queens(cp, 12);
+        int level = cp.getStateManager().getLevel();
+
+        RestartSearch search = new RestartSearch(cp.getStateManager(), firstFail(q), RestartSearch.luby(1));
+        int[] nRestarts = new int[1];
+        int[] solution = new int[q.length];
+        search.onRestart(() -> {
+            assertEquals(level, cp.getStateManager().getLevel());
+            for (IntVar x : q)
+                assertEquals(q.length, x.size());
+            nRestarts[0]++;
+        });
+        search.onSolution(() -> {
+            for (int i = 0; i < q.length; i++)
+                solution[i] = q[i].min();
+        });
+        SearchStatistics stats = search.solve();
+
+        assertEquals(1, stats.numberOfSolutions());
+        assertTrue(stats.numberOfRestarts() > 0);
+        assertEquals(nRestarts[0], stats.numberOfRestarts());
+        assertFalse(stats.isCompleted());
+        assertEquals(level, cp.getStateManager().getLevel());
+        for (int i = 0; i < q.length; i++)
+            for (int j = i + 1; j < q.length; j++) {
+                assertNotEquals(solution[i], solution[j]);
+                assertNotEquals(Math.abs(solution[i] - solution[j]), j - i);
+            }
+    }
+
+    @ParameterizedTest
+    @MethodSource("getSolver")
+    public void testOptimizeKeepsTheBound(Solver cp) {
+        int n = 6;
+        IntVar[] x = makeIntVarArray(cp, n, n);
+        IntVar[] terms = new IntVar[n];
+        for (int i = 0; i < n; i++) {
+            terms[i] = mul(x[i], i);
+            for (int j = i + 1; j < n; j++)
+                cp.post(notEqual(x[i], x[j]));
+        }
+        IntVar obj = sum(terms);
+
+        RestartSearch search = new RestartSearch(cp.getStateManager(), firstFail(x), RestartSearch.luby(8));
+        int[] best = {Integer.MAX_VALUE};
+        search.onSolution(() -> {
+            assertTrue(obj.min() < best[0]);
+            best[0] = obj.min();
+        });
+        SearchStatistics stats = search.optimize(cp.minimize(obj));
+
+        int optimum = 0;
+        for (int i = 0; i < n; i++)
+            optimum += i * (n - 1 - i);
+        assertEquals(optimum, best[0]);
+        assertTrue(stats.isCompleted());
+        assertTrue(stats.numberOfRestarts() > 0);
+    }
+
+    @ParameterizedTest
+    @MethodSource("getSolver")
+    public void testNodeIdsAreUniqueOverRuns(Solver cp) {
+        IntVar[] q = queens(cp, 10);
+        RestartSearch search = new RestartSearch(cp.getStateManager(), firstFail(q), RestartSearch.luby(1));
+        // the ids of the branching and solution nodes
+        Set<Integer> ids = new HashSet<>();
+        search.addListener(new DFSListener() {
+            @Override
+            public void solution(int pId, int id, int position) {
+                assertTrue(ids.add(id));
+            }
+
+            @Override
+            public void branch(int pId, int id, int position, int nChilds) {
+                assertTrue(ids.add(id));
+            }
+        });
+        SearchStatistics stats = search.solve();
+        assertTrue(stats.numberOfRestarts() > 0);
+        assertTrue(ids.size() > stats.numberOfRestarts());
+        assertTrue(stats.toString().contains("#restarts : " + stats.numberOfRestarts()));
+    }
+
+    @ParameterizedTest
+    @MethodSource("getSolver")
+    public void testLimit(Solver cp) {
+        IntVar[] q = queens(cp, 10);
+        RestartSearch search = new RestartSearch(cp.getStateManager(), firstFail(q), RestartSearch.constant(1));
+        SearchStatistics stats = search.solve(s -> s.numberOfFailures() >= 5);
+        assertEquals(5, stats.numberOfFailures());
+        assertFalse(stats.isCompleted());
+    }
+
+}
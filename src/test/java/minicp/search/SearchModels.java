@@ -0,0 +1,72 @@
+/*
+ * mini-cp is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License  v3
+ * as published by the Free Software Foundation.
+ *
+ * mini-cp is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY.
+ * See the GNU Lesser General Public License  for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with mini-cp. If not, see http://www.gnu.org/licenses/lgpl-3.0.en.html
+ *
+ * Copyright (c)  2018. by Laurent Michel, Pierre Schaus, Pascal Van Hentenryck
+ */
+
+package minicp.search;
+
+import minicp.engine.core.IntVar;
+import minicp.engine.core.Solver;
+
+import java.util.Set;
+
+import static minicp.cp.BranchingScheme.firstFail;
+import static minicp.cp.Factory.*;
+
+/**
+ * Models shared by the search tests.
+ */
+final class SearchModels {
+
+    private SearchModels() {
+    }
+
+    /**
+     * Posts the n-queens problem.
+     *
+     * @param cp the solver
+     * @param n the number of queens
+     * @return the row of the queen of each column
+     */
+    static IntVar[] queens(Solver cp, int n) {
+        IntVar[] q = makeIntVarArray(cp, n, n);
+        for (int i = 0; i < n; i++)
+            for (int j = i + 1; j < n; j++) {
+                cp.post(notEqual(q[i], q[j]));
+                cp.post(notEqual(q[i], q[j], j - i));
+                cp.post(notEqual(q[i], q[j], i - j));
+            }
+        return q;
+    }
+
+    /**
+     * Builds the n-queens problem with a first-fail branching.
+     *
+     * @param cp the solver
+     * @param n the number of queens
+     * @param solutions the set to which the solutions are added,
+     *                  as the rows separated by spaces
+     * @return the model
+     */
+    static SearchModel queens(Solver cp, int n, Set<String> solutions) {
+        IntVar[] q = queens(cp, n);
+        return new SearchModel(cp, firstFail(q)).onSolution(() -> {
+            StringBuilder s = new StringBuilder();
+            for (IntVar x : q)
+                s.append(x.min()).append(' ');
+            synchronized (solutions) {
+                solutions.add(s.toString());
+            }
+        });
+    }
+}
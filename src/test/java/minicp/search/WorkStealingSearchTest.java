@@ -0,0 +1,139 @@
+/*
+ * mini-cp is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License  v3
+ * as published by the Free Software Foundation.
+ *
+ * mini-cp is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY.
+ * See the GNU Lesser General Public License  for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with mini-cp. If not, see http://www.gnu.org/licenses/lgpl-3.0.en.html
+ *
+ * Copyright (c)  2018. by Laurent Michel, Pierre Schaus, Pascal Van Hentenryck
+ */
+
+package minicp.search;
+
+import minicp.engine.SolverTest;
+import minicp.engine.core.BoolVar;
+import minicp.engine.core.IntVar;
+import minicp.engine.core.Solver;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import static minicp.cp.BranchingScheme.and;
+import static minicp.cp.BranchingScheme.firstFail;
+import static minicp.cp.Factory.*;
+import static minicp.search.SearchModels.queens;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WorkStealingSearchTest extends SolverTest {
+
+    @ParameterizedTest
+    @MethodSource("solverSupplier")
+    public void testAllSolutions(Supplier<Solver> solverFactory) {
+        Set<String> solutions = new HashSet<>();
+        WorkStealingSearch search = new WorkStealingSearch(
+                () -> queens(solverFactory.get(), 8, solutions), 4);
+        SearchStatistics stats = search.solve();
+
+        assertEquals(92, stats.numberOfSolutions());
+        assertEquals(92, solutions.size());
+        assertTrue(stats.isCompleted());
+
+        Solver cp = solverFactory.get();
+        SearchStatistics sequential = makeDfs(cp, queens(cp, 8, new HashSet<>()).getBranching()).solve();
+        assertEquals(sequential.numberOfNodes(), stats.numberOfNodes());
+        assertEquals(sequential.numberOfFailures(), stats.numberOfFailures());
+    }
+
+    @ParameterizedTest
+    @MethodSource("solverSupplier")
+    public void testSingleWorker(Supplier<Solver> solverFactory) {
+        WorkStealingSearch search = new WorkStealingSearch(
+                () -> queens(solverFactory.get(), 6, new HashSet<>()), 1);
+        SearchStatistics stats = search.solve();
+        assertEquals(0, search.numberOfSteals());
+        assertEquals(4, stats.numberOfSolutions());
+        assertTrue(stats.isCompleted());
+    }
+
+    private static SearchModel unbalanced(Solver cp, int[] nSolutions) {
+        // only the subtree of x = 0 is large: y is fixed to 0 in the others
+        IntVar x = makeIntVar(cp, 0, 9);
+        IntVar[] y = makeIntVarArray(cp, 12, 2);
+        BoolVar large = isEqual(x, 0);
+        for (IntVar yi : y)
+            cp.post(lessOrEqual(yi, large));
+        return new SearchModel(cp, and(firstFail(x), firstFail(y)))
+                .onSolution(() -> nSolutions[0]++);
+    }
+
+    @ParameterizedTest
+    @MethodSource("solverSupplier")
+    public void testUnbalancedTree(Supplier<Solver> solverFactory) {
+        int[] nSolutions = new int[1];
+        WorkStealingSearch search = new WorkStealingSearch(
+                () -> unbalanced(solverFactory.get(), nSolutions), 4);
+        SearchStatistics stats = search.solve();
+
+        // the idle workers steal in the large subtree of the first one
+        assertTrue(search.numberOfSteals() > 0);
+        assertEquals(4096 + 9, stats.numberOfSolutions());
+        assertEquals(4096 + 9, nSolutions[0]);
+        assertTrue(stats.isCompleted());
+
+        Solver cp = solverFactory.get();
+        SearchStatistics sequential = makeDfs(cp, unbalanced(cp, new int[1]).getBranching()).solve();
+        assertEquals(sequential.numberOfNodes(), stats.numberOfNodes());
+        assertEquals(sequential.numberOfFailures(), stats.numberOfFailures());
+    }
+
+    @ParameterizedTest
+    @MethodSource("solverSupplier")
+    public void testSharedBound(Supplier<Solver> solverFactory) {
+        int n = 7;
+        int[] best = {Integer.MAX_VALUE};
+        WorkStealingSearch search = new WorkStealingSearch(() -> {
+            Solver cp = solverFactory.get();
+            IntVar[] x = makeIntVarArray(cp, n, n);
+            IntVar[] terms = new IntVar[n];
+            for (int i = 0; i < n; i++) {
+                terms[i] = mul(x[i], i);
+                for (int j = i + 1; j < n; j++)
+                    cp.post(notEqual(x[i], x[j]));
+            }
+            IntVar obj = sum(terms);
+            return new SearchModel(cp, firstFail(x)).minimize(obj).onSolution(() -> {
+                // the listeners are not called concurrently and the solutions improve
+                assertTrue(obj.min() < best[0]);
+                best[0] = obj.min();
+            });
+        }, 4);
+        SearchStatistics stats = search.solve();
+
+        int optimum = 0;
+        for (int i = 0; i < n; i++)
+            optimum += i * (n - 1 - i);
+        assertEquals(optimum, best[0]);
+        assertEquals(optimum, search.best());
+        assertTrue(stats.isCompleted());
+    }
+
+    @ParameterizedTest
+    @MethodSource("solverSupplier")
+    public void testLimit(Supplier<Solver> solverFactory) {
+        WorkStealingSearch search = new WorkStealingSearch(
+                () -> queens(solverFactory.get(), 10, new HashSet<>()), 3);
+        SearchStatistics stats = search.solve(s -> s.numberOfSolutions() >= 1);
+        assertFalse(stats.isCompleted());
+        assertTrue(stats.numberOfSolutions() >= 1);
+        assertTrue(stats.numberOfSolutions() <= 3);
+    }
+
+}
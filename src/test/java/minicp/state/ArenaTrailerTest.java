@@ -0,0 +1,127 @@
+/*
+ * mini-cp is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License  v3
+ * as published by the Free Software Foundation.
+ *
+ * mini-cp is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY.
+ * See the GNU Lesser General Public License  for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with mini-cp. If not, see http://www.gnu.org/licenses/lgpl-3.0.en.html
+ *
+ * Copyright (c)  2018. by Laurent Michel, Pierre Schaus, Pascal Van Hentenryck
+ */
+
+package minicp.state;
+
+
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ArenaTrailerTest {
+
+    @Test
+    public void testPrimitiveStates() {
+        ArenaTrailer sm = new ArenaTrailer();
+        StateInt a = sm.makeStateInt(3);
+        StateLong b = sm.makeStateLong(Long.MIN_VALUE);
+        StateBool c = sm.makeStateBool(true);
+        State<String> d = sm.makeStateRef("x");
+
+        sm.saveState();
+
+        a.setValue(-5);
+        b.setValue(Long.MAX_VALUE);
+        c.setValue(false);
+        d.setValue("y");
+
+        sm.saveState();
+
+        a.increment();
+        assertEquals(-4, a.value());
+
+        sm.restoreState();
+        assertEquals(-5, a.value());
+        assertEquals(Long.MAX_VALUE, b.value());
+        assertFalse(c.value());
+        assertEquals("y", d.value());
+
+        sm.restoreState();
+        assertEquals(3, a.value());
+        assertEquals(Long.MIN_VALUE, b.value());
+        assertTrue(c.value());
+        assertEquals("x", d.value());
+        assertEquals(3, sm.arenaSize());
+    }
+
+    @Test
+    public void testRandomAgainstTrailer() {
+        Random rand = new Random(0);
+        ArenaTrailer arena = new ArenaTrailer();
+        Trailer trailer = new Trailer();
+        int n = 3000; // the arena grows several times
+        StateInt[] x = new StateInt[n];
+        StateInt[] y = new StateInt[n];
+        StateLongArray u = arena.makeStateLongArray(n, 7L);
+        StateLongArray v = trailer.makeStateLongArray(n, 7L);
+        for (int i = 0; i < n; i++) {
+            x[i] = arena.makeStateInt(i);
+            y[i] = trailer.makeStateInt(i);
+        }
+        for (int iter = 0; iter < 20000; iter++) {
+            int op = rand.nextInt(20);
+            if (op == 0) {
+                arena.saveState();
+                trailer.saveState();
+            } else if (op == 1 && trailer.getLevel() >= 0) {
+                arena.restoreState();
+                trailer.restoreState();
+            } else if (op == 2 && trailer.getLevel() >= 0) {
+                int level = rand.nextInt(trailer.getLevel() + 1);
+                arena.restoreStateUntil(level);
+                trailer.restoreStateUntil(level);
+            } else {
+                int i = rand.nextInt(n);
+                int val = rand.nextInt(10);
+                x[i].setValue(val);
+                y[i].setValue(val);
+                u.set(i, val);
+                v.set(i, val);
+            }
+            assertEquals(trailer.getLevel(), arena.getLevel());
+        }
+        for (int i = 0; i < n; i++) {
+            assertEquals(y[i].value(), x[i].value());
+            assertEquals(v.get(i), u.get(i));
+        }
+    }
+
+    @Test
+    public void testLongArrayIsOffHeap() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        Assumptions.assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean mx = (com.sun.management.ThreadMXBean) bean;
+        long id = Thread.currentThread().threadId();
+        int n = 1000000;
+
+        long before = mx.getThreadAllocatedBytes(id);
+        ArenaTrailer arena = new ArenaTrailer();
+        arena.makeStateLongArray(n, 0L);
+        long arenaBytes = mx.getThreadAllocatedBytes(id) - before;
+
+        before = mx.getThreadAllocatedBytes(id);
+        new Trailer().makeStateLongArray(n, 0L);
+        long trailerBytes = mx.getThreadAllocatedBytes(id) - before;
+
+        assertTrue(trailerBytes >= 8L * n);
+        assertTrue(arenaBytes < trailerBytes / 100);
+    }
+
+}
@@ -0,0 +1,97 @@
+/*
+ * mini-cp is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License  v3
+ * as published by the Free Software Foundation.
+ *
+ * mini-cp is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY.
+ * See the GNU Lesser General Public License  for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with mini-cp. If not, see http://www.gnu.org/licenses/lgpl-3.0.en.html
+ *
+ * Copyright (c)  2018. by Laurent Michel, Pierre Schaus, Pascal Van Hentenryck
+ */
+
+package minicp.state;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class IncrementalCopierTest {
+
+    @Test
+    public void testOnlyModifiedStoragesAreCopied() {
+        IncrementalCopier sm = new IncrementalCopier();
+        StateInt[] a = new StateInt[100];
+        for (int i = 0; i < a.length; i++)
+            a[i] = sm.makeStateInt(i);
+        assertEquals(100, sm.dirtySize());
+
+        sm.saveState();
+        assertEquals(0, sm.dirtySize());
+
+        a[3].setValue(42);
+        a[3].setValue(43);
+        a[7].setValue(7); // same value, not modified
+        assertEquals(1, sm.dirtySize());
+
+        sm.saveState();
+        assertEquals(0, sm.dirtySize());
+
+        a[5].setValue(0);
+        sm.restoreState();
+        assertEquals(5, (int) a[5].value());
+        assertEquals(43, (int) a[3].value());
+        // a[3] differs from the state of the previous level
+        assertEquals(1, sm.dirtySize());
+
+        sm.restoreState();
+        assertEquals(3, (int) a[3].value());
+    }
+
+    @Test
+    public void testRandomAgainstTrailer() {
+        Random rand = new Random(0);
+        IncrementalCopier copier = new IncrementalCopier();
+        Trailer trailer = new Trailer();
+        StateInt[] c = new StateInt[50];
+        StateInt[] t = new StateInt[50];
+        int n = 10;
+        for (int i = 0; i < n; i++) {
+            c[i] = copier.makeStateInt(i);
+            t[i] = trailer.makeStateInt(i);
+        }
+        int[] nAtLevel = new int[10000];
+        for (int step = 0; step < 10000; step++) {
+            int action = rand.nextInt(10);
+            if (action < 2 && copier.getLevel() < 30) {
+                nAtLevel[copier.getLevel() + 1] = n;
+                copier.saveState();
+                trailer.saveState();
+            } else if (action < 4 && copier.getLevel() >= 0) {
+                int level = rand.nextInt(copier.getLevel() + 1) - 1;
+                copier.restoreStateUntil(level);
+                trailer.restoreStateUntil(level);
+                n = nAtLevel[level + 1];
+            } else if (action < 5 && n < c.length) {
+                int v = rand.nextInt(100);
+                c[n] = copier.makeStateInt(v);
+                t[n] = trailer.makeStateInt(v);
+                n++;
+            } else {
+                int i = rand.nextInt(n);
+                int v = rand.nextInt(100);
+                c[i].setValue(v);
+                t[i].setValue(v);
+            }
+            assertEquals(trailer.getLevel(), copier.getLevel());
+            for (int i = 0; i < n; i++)
+                assertEquals(t[i].value(), c[i].value());
+        }
+    }
+
+}
@@ -0,0 +1,108 @@
+/*
+ * mini-cp is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License  v3
+ * as published by the Free Software Foundation.
+ *
+ * mini-cp is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY.
+ * See the GNU Lesser General Public License  for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with mini-cp. If not, see http://www.gnu.org/licenses/lgpl-3.0.en.html
+ *
+ * Copyright (c)  2018. by Laurent Michel, Pierre Schaus, Pascal Van Hentenryck
+ */
+
+package minicp.state;
+
+import minicp.engine.core.IntVar;
+import minicp.engine.core.Solver;
+import minicp.search.DFSearch;
+import minicp.search.Objective;
+import minicp.search.SearchStatistics;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static minicp.cp.BranchingScheme.firstFail;
+import static minicp.cp.Factory.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RecomputationCopierTest {
+
+    private static IntVar[] queens(Solver cp, int n) {
+        IntVar[] q = makeIntVarArray(cp, n, n);
+        for (int i = 0; i < n; i++)
+            for (int j = i + 1; j < n; j++) {
+                cp.post(notEqual(q[i], q[j]));
+                cp.post(notEqual(q[i], q[j], j - i));
+                cp.post(notEqual(q[i], q[j], i - j));
+            }
+        return q;
+    }
+
+    @Test
+    public void testRecomputation() {
+        RecomputationCopier sm = new RecomputationCopier(4, false);
+        StateInt a = sm.makeStateInt(0);
+        sm.saveState(); // level 0, copied
+        for (int i = 1; i <= 10; i++) {
+            final int v = i;
+            sm.recordDecision(() -> a.setValue(v));
+            a.setValue(v);
+            sm.saveState();
+        }
+        // levels 0, 4 and 8 are copied
+        assertEquals(3, sm.numberOfCopies());
+
+        sm.restoreState();
+        assertEquals(10, a.value());
+        assertEquals(9, sm.getLevel());
+        assertEquals(1, sm.numberOfRecomputations());
+
+        sm.restoreStateUntil(5);
+        assertEquals(6, a.value());
+
+        sm.restoreStateUntil(-1);
+        assertEquals(0, a.value());
+    }
+
+    @ParameterizedTest
+    @CsvSource({"1,false", "4,false", "16,false", "4,true", "64,true"})
+    public void testSolveAll(int k, boolean adaptive) {
+        RecomputationCopier sm = new RecomputationCopier(k, adaptive);
+        Solver cp = makeSolver(sm);
+        IntVar[] q = queens(cp, 8);
+        DFSearch dfs = makeDfs(cp, firstFail(q));
+        SearchStatistics stats = dfs.solve();
+        assertEquals(92, stats.numberOfSolutions());
+        if (k > 1)
+            assertTrue(sm.numberOfRecomputations() > 0);
+    }
+
+    private static List<Integer> optimize(StateManager sm) {
+        Solver cp = makeSolver(sm);
+        IntVar[] q = queens(cp, 8);
+        Objective objective = cp.minimize(q[7]);
+        DFSearch dfs = makeDfs(cp, firstFail(q));
+        List<Integer> solutions = new ArrayList<>();
+        dfs.onSolution(() -> solutions.add(q[7].min()));
+        dfs.optimize(objective);
+        return solutions;
+    }
+
+    @Test
+    public void testOptimize() {
+        // the replayed decisions fail when the objective was tightened
+        List<Integer> expected = optimize(new Trailer());
+        assertTrue(expected.size() > 1);
+        for (int k : new int[]{2, 8, 64}) {
+            assertEquals(expected, optimize(new RecomputationCopier(k, false)));
+            assertEquals(expected, optimize(new RecomputationCopier(k, true)));
+        }
+    }
+
+}
@@ -0,0 +1,94 @@
+/*
+ * mini-cp is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License  v3
+ * as published by the Free Software Foundation.
+ *
+ * mini-cp is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY.
+ * See the GNU Lesser General Public License  for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with mini-cp. If not, see http://www.gnu.org/licenses/lgpl-3.0.en.html
+ *
+ * Copyright (c)  2018. by Laurent Michel, Pierre Schaus, Pascal Van Hentenryck
+ */
+
+package minicp.state;
+
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class RestoreStateUntilTest extends StateManagerTest {
+
+    @ParameterizedTest
+    @MethodSource("getStateManager")
+    public void testListenersNotifiedOnce(StateManager sm) {
+        StateInt a = sm.makeStateInt(0);
+        StateLongArray b = sm.makeStateLongArray(3, 0L);
+        int[] nRestore = new int[1];
+        sm.onRestore(() -> nRestore[0]++);
+
+        sm.saveState(); // level 0
+        for (int i = 1; i <= 100; i++) {
+            a.setValue(i);
+            b.set(i % 3, i);
+            sm.saveState();
+        }
+        assertEquals(100, sm.getLevel());
+
+        sm.restoreStateUntil(40);
+        assertEquals(40, sm.getLevel());
+        assertEquals(1, nRestore[0]);
+        assertEquals(41, a.value());
+        assertEquals(39, b.get(0));
+        assertEquals(40, b.get(1));
+        assertEquals(41, b.get(2));
+
+        // the states must be trailed again once modified after the jump
+        sm.saveState();
+        a.setValue(-1);
+        sm.saveState();
+        a.setValue(-2);
+        sm.restoreStateUntil(40);
+        assertEquals(41, a.value());
+        assertEquals(2, nRestore[0]);
+
+        sm.restoreStateUntil(40);
+        assertEquals(2, nRestore[0]);
+
+        sm.restoreStateUntil(-1);
+        assertEquals(0, a.value());
+        assertEquals(0, b.get(1));
+        assertEquals(3, nRestore[0]);
+    }
+
+    @ParameterizedTest
+    @MethodSource("getStateManager")
+    public void testPerLevelListeners(StateManager sm) {
+        StateInt a = sm.makeStateInt(0);
+        List<Integer> seen = new ArrayList<>();
+        int[] nRestore = new int[1];
+        sm.onRestore(() -> nRestore[0]++);
+        sm.onRestoreLevel(() -> seen.add(a.value()));
+
+        sm.saveState(); // level 0
+        for (int i = 1; i <= 5; i++) {
+            a.setValue(i);
+            sm.saveState();
+        }
+        sm.restoreStateUntil(1);
+        assertEquals(List.of(5, 4, 3, 2), seen);
+        assertEquals(1, nRestore[0]);
+
+        sm.restoreState();
+        assertEquals(List.of(5, 4, 3, 2, 1), seen);
+        assertEquals(2, nRestore[0]);
+    }
+
+}
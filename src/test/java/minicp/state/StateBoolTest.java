@@ -76,5 +76,27 @@ public class StateBoolTest extends StateManagerTest {
 
     }
 
+    @ParameterizedTest
+    @MethodSource("getStateManager")
+    public void testPrimitiveStateBool(StateManager sm) {
+        StateBool b1 = sm.makeStateBool(true);
+        StateBool b2 = sm.makeStateBool(false);
+
+        sm.saveState();
+
+        b1.setValue(false);
+        b2.setValue(true);
+        assertFalse(b1.value());
+        assertTrue(b2.value());
+
+        sm.saveState();
+
+        b1.setValue(true);
+
+        sm.restoreStateUntil(-1);
+
+        assertTrue(b1.value());
+        assertFalse(b2.value());
+    }
 
 }
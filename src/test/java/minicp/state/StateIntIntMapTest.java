@@ -0,0 +1,115 @@
+/*
+ * mini-cp is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License  v3
+ * as published by the Free Software Foundation.
+ *
+ * mini-cp is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY.
+ * See the GNU Lesser General Public License  for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with mini-cp. If not, see http://www.gnu.org/licenses/lgpl-3.0.en.html
+ *
+ * Copyright (c)  2018. by Laurent Michel, Pierre Schaus, Pascal Van Hentenryck
+ */
+
+package minicp.state;
+
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StateIntIntMapTest extends StateManagerTest {
+
+    @ParameterizedTest
+    @MethodSource("getStateManager")
+    public void testStateIntIntMap(StateManager sm) {
+        StateIntIntMap map = sm.makeStateIntIntMap();
+        map.put(3, 30);
+
+        sm.saveState(); // level 0
+
+        map.put(3, 31);
+        map.put(-7, 70);
+        assertEquals(2, map.size());
+
+        sm.saveState(); // level 1
+
+        map.put(-7, 71);
+        map.put(-7, 72);
+        map.put(Integer.MIN_VALUE, 1);
+        assertEquals(72, map.get(-7, 0));
+        assertEquals(1, map.get(Integer.MIN_VALUE, 0));
+
+        sm.restoreState();
+        assertEquals(2, map.size());
+        assertEquals(31, map.get(3, 0));
+        assertEquals(70, map.get(-7, 0));
+        assertFalse(map.containsKey(Integer.MIN_VALUE));
+        assertEquals(-1, map.get(Integer.MIN_VALUE, -1));
+
+        sm.restoreState();
+        assertEquals(1, map.size());
+        assertEquals(30, map.get(3, 0));
+        assertFalse(map.containsKey(-7));
+    }
+
+    @ParameterizedTest
+    @MethodSource("getStateManager")
+    public void testStateIntLongMap(StateManager sm) {
+        StateIntLongMap map = sm.makeStateIntLongMap();
+
+        sm.saveState();
+
+        map.put(1, Long.MAX_VALUE);
+        assertEquals(Long.MAX_VALUE, map.get(1, 0L));
+
+        sm.saveState();
+
+        map.put(1, Long.MIN_VALUE);
+        assertEquals(Long.MIN_VALUE, map.get(1, 0L));
+
+        sm.restoreState();
+        assertEquals(Long.MAX_VALUE, map.get(1, 0L));
+
+        sm.restoreState();
+        assertFalse(map.containsKey(1));
+        assertEquals(0, map.size());
+    }
+
+    @ParameterizedTest
+    @MethodSource("getStateManager")
+    public void testRandomGrowthAndRestore(StateManager sm) {
+        Random rand = new Random(0);
+        StateIntIntMap map = sm.makeStateIntIntMap();
+        List<Map<Integer, Integer>> saved = new ArrayList<>();
+        Map<Integer, Integer> ref = new HashMap<>();
+        for (int iter = 0; iter < 2000; iter++) {
+            int op = rand.nextInt(10);
+            if (op == 0) {
+                sm.saveState();
+                saved.add(new HashMap<>(ref));
+            } else if (op == 1 && !saved.isEmpty()) {
+                sm.restoreState();
+                ref = saved.remove(saved.size() - 1);
+            } else {
+                int k = rand.nextInt(500) - 250;
+                int v = rand.nextInt();
+                map.put(k, v);
+                ref.put(k, v);
+            }
+            assertEquals(ref.size(), map.size());
+            for (Map.Entry<Integer, Integer> e : ref.entrySet())
+                assertEquals((int) e.getValue(), map.get(e.getKey(), 0));
+        }
+    }
+
+}
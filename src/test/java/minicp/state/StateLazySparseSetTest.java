@@ -0,0 +1,136 @@
+/*
+ * mini-cp is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License  v3
+ * as published by the Free Software Foundation.
+ *
+ * mini-cp is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY.
+ * See the GNU Lesser General Public License  for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with mini-cp. If not, see http://www.gnu.org/licenses/lgpl-3.0.en.html
+ *
+ * Copyright (c)  2018. by Laurent Michel, Pierre Schaus, Pascal Van Hentenryck
+ */
+
+package minicp.state;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StateLazySparseSetTest extends StateManagerTest {
+
+    @ParameterizedTest
+    @MethodSource("getStateManager")
+    public void testIntervalUntilHole(StateManager sm) {
+        StateLazySparseSet set = new StateLazySparseSet(sm, 10, 5); // {5..14}
+
+        sm.saveState();
+
+        set.removeBelow(7);
+        set.removeAbove(12);
+        set.remove(7);
+        set.remove(12);
+        assertTrue(set.isInterval());
+        assertEquals(8, set.min());
+        assertEquals(11, set.max());
+        assertEquals(4, set.size());
+
+        sm.saveState();
+
+        set.remove(10);
+        assertFalse(set.isInterval());
+        assertFalse(set.contains(10));
+        assertEquals(3, set.size());
+        assertEquals(11, set.max());
+
+        set.remove(11);
+        assertEquals(9, set.max());
+
+        sm.restoreState();
+
+        assertTrue(set.isInterval());
+        assertEquals(4, set.size());
+        assertTrue(set.contains(10));
+
+        // a second hole at this level reuses the arrays
+        set.remove(9);
+        assertFalse(set.isInterval());
+        assertEquals(3, set.size());
+        assertTrue(set.contains(10));
+
+        sm.restoreState();
+
+        assertTrue(set.isInterval());
+        assertEquals(10, set.size());
+        assertEquals(5, set.min());
+        assertEquals(14, set.max());
+    }
+
+    @ParameterizedTest
+    @MethodSource("getStateManager")
+    public void testSwitchAgainWithOtherBounds(StateManager sm) {
+        StateLazySparseSet set = new StateLazySparseSet(sm, 100, 0);
+        int[][] bounds = new int[][]{{10, 20}, {15, 90}, {0, 99}, {85, 95}, {12, 14}};
+        for (int[] b : bounds) {
+            sm.saveState();
+            set.removeBelow(b[0]);
+            set.removeAbove(b[1]);
+            // the permutation of the previous switch is reused
+            set.remove(b[0] + 1);
+            assertFalse(set.isInterval());
+            assertEquals(b[1] - b[0], set.size());
+            assertEquals(b[0], set.min());
+            assertEquals(b[1], set.max());
+            for (int v = 0; v < 100; v++)
+                assertEquals(v >= b[0] && v <= b[1] && v != b[0] + 1, set.contains(v));
+            sm.restoreState();
+            assertTrue(set.isInterval());
+            assertEquals(100, set.size());
+        }
+    }
+
+    @ParameterizedTest
+    @MethodSource("getStateManager")
+    public void testRandomAgainstSparseSet(StateManager sm) {
+        Random rand = new Random(0);
+        StateLazySparseSet lazy = new StateLazySparseSet(sm, 40, -10);
+        StateSparseSet sparse = new StateSparseSet(sm, 40, -10);
+        for (int step = 0; step < 2000; step++) {
+            int action = rand.nextInt(12);
+            int v = rand.nextInt(44) - 12;
+            if (action < 3) {
+                sm.saveState();
+            } else if (action < 5 && sm.getLevel() >= 0) {
+                sm.restoreStateUntil(rand.nextInt(sm.getLevel() + 1) - 1);
+            } else if (action < 7 && !sparse.isEmpty()) {
+                lazy.removeBelow(v);
+                sparse.removeBelow(v);
+            } else if (action < 9 && !sparse.isEmpty()) {
+                lazy.removeAbove(v);
+                sparse.removeAbove(v);
+            } else if (action < 10 && sparse.contains(v)) {
+                lazy.removeAllBut(v);
+                sparse.removeAllBut(v);
+            } else {
+                assertEquals(sparse.remove(v), lazy.remove(v));
+            }
+            assertEquals(sparse.size(), lazy.size());
+            if (!sparse.isEmpty()) {
+                assertEquals(sparse.min(), lazy.min());
+                assertEquals(sparse.max(), lazy.max());
+            }
+            int[] a = sparse.toArray();
+            int[] b = lazy.toArray();
+            Arrays.sort(a);
+            Arrays.sort(b);
+            assertArrayEquals(a, b);
+        }
+    }
+
+}
@@ -0,0 +1,55 @@
+/*
+ * mini-cp is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License  v3
+ * as published by the Free Software Foundation.
+ *
+ * mini-cp is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY.
+ * See the GNU Lesser General Public License  for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with mini-cp. If not, see http://www.gnu.org/licenses/lgpl-3.0.en.html
+ *
+ * Copyright (c)  2018. by Laurent Michel, Pierre Schaus, Pascal Van Hentenryck
+ */
+
+package minicp.state;
+
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class StateLongArrayTest extends StateManagerTest {
+
+    @ParameterizedTest
+    @MethodSource("getStateManager")
+    public void testStateLongArray(StateManager sm) {
+        StateLongArray a = sm.makeStateLongArray(3, -1L);
+        assertEquals(3, a.length());
+
+        sm.saveState(); // level 0
+
+        a.set(0, 5L);
+        a.set(0, 6L);
+        a.set(2, 0L);
+
+        sm.saveState(); // level 1
+
+        a.set(0, 7L);
+        a.set(1, 8L);
+        assertEquals(7L, a.get(0));
+        assertEquals(8L, a.get(1));
+
+        sm.restoreState();
+        assertEquals(6L, a.get(0));
+        assertEquals(-1L, a.get(1));
+        assertEquals(0L, a.get(2));
+
+        sm.restoreState();
+        for (int i = 0; i < 3; i++)
+            assertEquals(-1L, a.get(i));
+    }
+
+}
@@ -0,0 +1,51 @@
+/*
+ * mini-cp is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License  v3
+ * as published by the Free Software Foundation.
+ *
+ * mini-cp is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY.
+ * See the GNU Lesser General Public License  for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with mini-cp. If not, see http://www.gnu.org/licenses/lgpl-3.0.en.html
+ *
+ * Copyright (c)  2018. by Laurent Michel, Pierre Schaus, Pascal Van Hentenryck
+ */
+
+package minicp.state;
+
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class StateLongTest extends StateManagerTest {
+
+    @ParameterizedTest
+    @MethodSource("getStateManager")
+    public void testStateLong(StateManager sm) {
+        StateLong a = sm.makeStateLong(5L);
+        StateLong b = sm.makeStateLong(Long.MAX_VALUE);
+
+        sm.saveState(); // level 0
+
+        a.setValue(-1L);
+        b.setValue(Long.MIN_VALUE);
+
+        sm.saveState(); // level 1
+
+        a.setValue(0xFFFFFFFFFFL);
+        assertEquals(0xFFFFFFFFFFL, (long) a.value());
+
+        sm.restoreState();
+        assertEquals(-1L, (long) a.value());
+        assertEquals(Long.MIN_VALUE, (long) b.value());
+
+        sm.restoreState();
+        assertEquals(5L, (long) a.value());
+        assertEquals(Long.MAX_VALUE, (long) b.value());
+    }
+
+}
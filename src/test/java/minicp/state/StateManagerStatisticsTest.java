@@ -0,0 +1,86 @@
+/*
+ * mini-cp is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License  v3
+ * as published by the Free Software Foundation.
+ *
+ * mini-cp is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY.
+ * See the GNU Lesser General Public License  for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with mini-cp. If not, see http://www.gnu.org/licenses/lgpl-3.0.en.html
+ *
+ * Copyright (c)  2018. by Laurent Michel, Pierre Schaus, Pascal Van Hentenryck
+ */
+
+package minicp.state;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StateManagerStatisticsTest {
+
+    @Test
+    public void testTrailerStatistics() {
+        Trailer sm = new Trailer();
+        assertNull(sm.getStatistics());
+        StateManagerStatistics stats = sm.enableStatistics();
+        assertSame(stats, sm.getStatistics());
+
+        StateInt[] a = new StateInt[3];
+        for (int i = 0; i < a.length; i++)
+            a[i] = sm.makeStateInt(0);
+        State<String> b = sm.makeStateRef("b");
+        assertEquals(Map.of("Trail", 1L, "TrailInt", 3L), stats.stateHistogram());
+
+        sm.saveState();
+        for (StateInt ai : a) {
+            ai.setValue(1);
+            ai.setValue(2); // trailed once per level
+        }
+        b.setValue("c");
+
+        sm.saveState();
+        a[0].setValue(3);
+
+        sm.restoreStateUntil(-1);
+        assertEquals(0, a[0].value());
+        assertEquals(2, stats.numberOfSaves());
+        assertEquals(2, stats.numberOfRestoredLevels());
+        assertEquals(4, stats.maxEntriesPerLevel());
+        assertEquals(2.5, stats.averageEntriesPerLevel());
+        assertEquals(5, stats.peakEntries());
+        assertTrue(stats.peakRetainedBytes() >= stats.retainedBytes());
+        assertTrue(stats.restoreTimeNanos() >= 0);
+    }
+
+    @Test
+    public void testCopierStatistics() {
+        Copier sm = new Copier();
+        assertNull(sm.getStatistics());
+        StateManagerStatistics stats = sm.enableStatistics();
+
+        StateInt a = sm.makeStateInt(0);
+        StateLong b = sm.makeStateLong(0);
+        assertEquals(Map.of("CopyInt", 1L, "CopyLong", 1L), stats.stateHistogram());
+
+        sm.saveState();
+        a.setValue(1);
+        sm.saveState();
+        b.setValue(1);
+        sm.saveState();
+        assertEquals(6, stats.peakEntries());
+
+        sm.restoreStateUntil(0);
+        assertEquals(1, a.value());
+        assertEquals(0, b.value());
+        assertEquals(3, stats.numberOfSaves());
+        assertEquals(2, stats.numberOfRestoredLevels());
+        assertEquals(2, stats.maxEntriesPerLevel());
+        assertTrue(stats.retainedBytes() < stats.peakRetainedBytes());
+    }
+
+}
@@ -21,7 +21,7 @@ import java.util.stream.Stream;
 public abstract class StateManagerTest {
 
     public static Stream<StateManager> getStateManager() {
-        return Stream.of(new Trailer(), new Copier());
+        return Stream.of(new Trailer(), new Copier(), new IncrementalCopier(), new RecomputationCopier());
     }
 
 }
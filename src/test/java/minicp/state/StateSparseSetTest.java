@@ -21,7 +21,10 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.MethodSource;
 
+import java.util.Arrays;
+import java.util.Random;
 import java.util.Set;
+import java.util.TreeSet;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -213,4 +216,49 @@ public class StateSparseSetTest extends StateManagerTest {
             e.print();
         }
     }
+    @ParameterizedTest
+    @MethodSource("getStateManager")
+    public void testRangeRemovalsKeepRemovedContiguous(StateManager sm) {
+        Random rand = new Random(7);
+        for (int iter = 0; iter < 50; iter++) {
+            int n = 1 + rand.nextInt(200);
+            StateSparseSet set = new StateSparseSet(sm, n, -50);
+            TreeSet<Integer> expected = new TreeSet<>();
+            for (int v = -50; v < n - 50; v++)
+                expected.add(v);
+            sm.saveState();
+            while (expected.size() > 1) {
+                int oldSize = set.size();
+                TreeSet<Integer> before = new TreeSet<>(expected);
+                int v = expected.first() + rand.nextInt(expected.last() - expected.first() + 1);
+                switch (rand.nextInt(3)) {
+                    case 0:
+                        set.removeBelow(v);
+                        expected.removeIf(e -> e < v);
+                        break;
+                    case 1:
+                        set.removeAbove(v);
+                        expected.removeIf(e -> e > v);
+                        break;
+                    default:
+                        set.remove(v);
+                        expected.remove(v);
+                }
+                assertEquals(expected.size(), set.size());
+                assertEquals((int) expected.first(), set.min());
+                assertEquals((int) expected.last(), set.max());
+                int[] removed = new int[oldSize];
+                int k = set.fillRemovedArray(oldSize, removed);
+                before.removeAll(expected);
+                int[] sorted = Arrays.copyOf(removed, k);
+                Arrays.sort(sorted);
+                assertArrayEquals(before.stream().mapToInt(Integer::intValue).toArray(), sorted);
+            }
+            sm.restoreState();
+            assertEquals(n, set.size());
+            assertEquals(-50, set.min());
+            assertEquals(n - 51, set.max());
+        }
+    }
+
 }
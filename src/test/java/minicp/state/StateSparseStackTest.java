@@ -0,0 +1,100 @@
+/*
+ * mini-cp is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License  v3
+ * as published by the Free Software Foundation.
+ *
+ * mini-cp is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY.
+ * See the GNU Lesser General Public License  for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with mini-cp. If not, see http://www.gnu.org/licenses/lgpl-3.0.en.html
+ *
+ * Copyright (c)  2018. by Laurent Michel, Pierre Schaus, Pascal Van Hentenryck
+ */
+
+package minicp.state;
+
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.ArrayDeque;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class StateSparseStackTest extends StateManagerTest {
+
+    private static Set<Integer> content(StateSparseStack<Integer> stack) {
+        Set<Integer> s = new HashSet<>();
+        for (int i = 0, n = stack.size(); i < n; i++)
+            s.add(stack.get(i));
+        return s;
+    }
+
+    @ParameterizedTest
+    @MethodSource("getStateManager")
+    public void testPushAfterRemove(StateManager sm) {
+        StateSparseStack<Integer> stack = new StateSparseStack<>(sm);
+        stack.push(1);
+        stack.push(2);
+        stack.push(3);
+
+        sm.saveState();
+
+        stack.remove(0);
+        assertEquals(Set.of(2, 3), content(stack));
+        stack.push(4);
+        stack.push(5);
+        stack.remove(stack.size() - 1);
+        assertEquals(Set.of(2, 3, 4), content(stack));
+
+        sm.saveState();
+        stack.remove(1);
+        stack.push(6);
+        assertEquals(3, stack.size());
+
+        sm.restoreState();
+        assertEquals(Set.of(2, 3, 4), content(stack));
+
+        sm.restoreState();
+        assertEquals(Set.of(1, 2, 3), content(stack));
+        stack.push(7);
+        assertEquals(Set.of(1, 2, 3, 7), content(stack));
+    }
+
+    @ParameterizedTest
+    @MethodSource("getStateManager")
+    public void testRandomOperations(StateManager sm) {
+        Random rand = new Random(sm.getClass().getSimpleName().hashCode());
+        StateSparseStack<Integer> stack = new StateSparseStack<>(sm);
+        Set<Integer> expected = new HashSet<>();
+        ArrayDeque<Set<Integer>> saved = new ArrayDeque<>();
+        int next = 0;
+        for (int iter = 0; iter < 5000; iter++) {
+            int op = rand.nextInt(10);
+            if (op < 4) {
+                stack.push(next);
+                expected.add(next++);
+            } else if (op < 7 && stack.size() > 0) {
+                int i = rand.nextInt(stack.size());
+                expected.remove(stack.get(i));
+                stack.remove(i);
+            } else if (op < 9 || saved.isEmpty()) {
+                sm.saveState();
+                saved.push(new HashSet<>(expected));
+            } else {
+                int levels = 1 + rand.nextInt(saved.size());
+                for (int k = 1; k < levels; k++)
+                    saved.pop();
+                expected = saved.pop();
+                sm.restoreStateUntil(sm.getLevel() - levels);
+            }
+            assertEquals(expected, content(stack));
+        }
+    }
+
+}
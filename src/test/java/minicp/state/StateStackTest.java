@@ -0,0 +1,48 @@
+/*
+ * mini-cp is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License  v3
+ * as published by the Free Software Foundation.
+ *
+ * mini-cp is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY.
+ * See the GNU Lesser General Public License  for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with mini-cp. If not, see http://www.gnu.org/licenses/lgpl-3.0.en.html
+ *
+ * Copyright (c)  2018. by Laurent Michel, Pierre Schaus, Pascal Van Hentenryck
+ */
+
+package minicp.state;
+
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class StateStackTest extends StateManagerTest {
+
+    @ParameterizedTest
+    @MethodSource("getStateManager")
+    public void testStateStack(StateManager sm) {
+        StateStack<String> stack = new StateStack<>(sm);
+        stack.push("a");
+
+        sm.saveState();
+
+        for (int i = 0; i < 20; i++)
+            stack.push("b" + i);
+        assertEquals(21, stack.size());
+        assertEquals("b19", stack.get(20));
+
+        sm.restoreState();
+        assertEquals(1, stack.size());
+        assertEquals("a", stack.get(0));
+
+        stack.push("c");
+        assertEquals(2, stack.size());
+        assertEquals("c", stack.get(1));
+    }
+
+}
@@ -0,0 +1,133 @@
+/*
+ * mini-cp is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License  v3
+ * as published by the Free Software Foundation.
+ *
+ * mini-cp is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY.
+ * See the GNU Lesser General Public License  for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with mini-cp. If not, see http://www.gnu.org/licenses/lgpl-3.0.en.html
+ *
+ * Copyright (c)  2018. by Laurent Michel, Pierre Schaus, Pascal Van Hentenryck
+ */
+
+package minicp.state;
+
+import minicp.util.Procedure;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Allocation benchmarks of the primitive trail of the {@link Trailer}
+ * ({@link TrailInt}, {@link TrailLongArray}) against the generic one ({@link Trail}).
+ */
+public class TrailerAllocationTest {
+
+    private static final int N_STATES = 1000;
+    private static final int N_LEVELS = 1000;
+
+    private static long allocatedBytes(Procedure body) {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        Assumptions.assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean mx = (com.sun.management.ThreadMXBean) bean;
+        long id = Thread.currentThread().threadId();
+        long before = mx.getThreadAllocatedBytes(id);
+        body.call();
+        return mx.getThreadAllocatedBytes(id) - before;
+    }
+
+    private static void pushAndRestore(StateManager sm, StateInt[] states) {
+        for (int l = 0; l < N_LEVELS; l++) {
+            sm.saveState();
+            for (int i = 0; i < states.length; i++)
+                states[i].setValue(1000 + l + i);
+            sm.restoreState();
+        }
+    }
+
+    private static void pushAndRestore(StateManager sm, State<Integer>[] states) {
+        for (int l = 0; l < N_LEVELS; l++) {
+            sm.saveState();
+            for (int i = 0; i < states.length; i++)
+                states[i].setValue(1000 + l + i);
+            sm.restoreState();
+        }
+    }
+
+    @Test
+    public void testPrimitiveTrailDoesNotAllocate() {
+        Trailer sm = new Trailer();
+        StateInt[] primitive = new StateInt[N_STATES];
+        State<Integer>[] boxed = new State[N_STATES];
+        for (int i = 0; i < N_STATES; i++) {
+            primitive[i] = sm.makeStateInt(0);
+            boxed[i] = sm.makeStateRef(0);
+        }
+        // warm-up: grows the trail arrays to their final capacity
+        pushAndRestore(sm, primitive);
+        pushAndRestore(sm, boxed);
+
+        long primitiveBytes = allocatedBytes(() -> pushAndRestore(sm, primitive));
+        long boxedBytes = allocatedBytes(() -> pushAndRestore(sm, boxed));
+
+        // one entry per push for the generic trail, none for the primitive one
+        assertTrue(boxedBytes >= 16L * N_STATES * N_LEVELS);
+        assertTrue(primitiveBytes < boxedBytes / 100);
+    }
+
+    private static void andAndRestore(StateManager sm, StateSparseBitSet set, StateSparseBitSet.BitSet[] masks) {
+        for (StateSparseBitSet.BitSet mask : masks) {
+            sm.saveState();
+            set.and(mask);
+            sm.restoreState();
+        }
+    }
+
+    // the previous representation of the words of a StateSparseBitSet
+    private static void andAndRestore(StateManager sm, State<Long>[] words, StateSparseBitSet.BitSet[] masks) {
+        for (StateSparseBitSet.BitSet mask : masks) {
+            sm.saveState();
+            for (int i = 0; i < words.length; i++)
+                words[i].setValue(words[i].value() & mask.words[i]);
+            sm.restoreState();
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {100000, 1000000})
+    public void testSparseBitSetDoesNotAllocate(int nTuples) {
+        Trailer sm = new Trailer();
+        StateSparseBitSet set = new StateSparseBitSet(sm, nTuples);
+        State<Long>[] boxed = new State[(nTuples + 63) >>> 6];
+        for (int i = 0; i < boxed.length; i++)
+            boxed[i] = sm.makeStateRef(-1L);
+        Random rand = new Random(0);
+        StateSparseBitSet.BitSet[] masks = new StateSparseBitSet.BitSet[20];
+        for (int k = 0; k < masks.length; k++) {
+            masks[k] = set.new BitSet();
+            for (int t = 0; t < nTuples; t++)
+                if (rand.nextInt(4) != 0)
+                    masks[k].set(t);
+        }
+        andAndRestore(sm, set, masks);
+        andAndRestore(sm, boxed, masks);
+
+        long primitiveBytes = allocatedBytes(() -> andAndRestore(sm, set, masks));
+        long boxedBytes = allocatedBytes(() -> andAndRestore(sm, boxed, masks));
+
+        // every word changes: at least a boxed Long per word and mask
+        assertTrue(boxedBytes >= 16L * boxed.length * masks.length);
+        assertTrue(primitiveBytes < boxedBytes / 100);
+    }
+
+}